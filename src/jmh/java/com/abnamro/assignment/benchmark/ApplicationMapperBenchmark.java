@@ -0,0 +1,87 @@
+package com.abnamro.assignment.benchmark;
+
+import com.abnamro.assignment.api.model.ApplicationCreateRequest;
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
+import com.abnamro.assignment.mapper.ApplicationMapper;
+import com.abnamro.assignment.model.AccountApplication;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO and DTO to entity conversions performed on every onboarding request, and the two ways of writing an
+ * entity as response JSON: mapped to an {@link ApplicationResponse} and serialized, or streamed directly. The mapper
+ * is not advised in the application either, so calling a plain instance measures what production runs.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ApplicationMapperBenchmark {
+
+    private final ApplicationMapper mapper = new ApplicationMapper();
+
+    private AccountApplication entity;
+    private ApplicationCreateRequest createRequest;
+    private ApplicationUpdateRequest updateRequest;
+    private ObjectWriter responseWriter;
+    private JsonGenerator generator;
+
+    @Setup
+    public void setUp() throws IOException {
+        entity = BenchmarkFixtures.completeDraft();
+        createRequest = BenchmarkFixtures.createRequest();
+        updateRequest = BenchmarkFixtures.updateRequest();
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        responseWriter = objectMapper.writerFor(ApplicationResponse.class);
+        // One generator for all writes, as in the export
+        generator = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        generator.close();
+    }
+
+    @Benchmark
+    public ApplicationResponse toResponse() {
+        return mapper.toResponse(entity);
+    }
+
+    @Benchmark
+    public JsonGenerator toResponseAndWrite() throws IOException {
+        responseWriter.writeValue(generator, mapper.toResponse(entity));
+        return generator;
+    }
+
+    @Benchmark
+    public JsonGenerator writeResponse() throws IOException {
+        mapper.writeResponse(entity, generator);
+        return generator;
+    }
+
+    @Benchmark
+    public AccountApplication updateFromCreateRequest() {
+        AccountApplication application = new AccountApplication();
+        mapper.updateFromRequest(application, createRequest);
+        return application;
+    }
+
+    @Benchmark
+    public AccountApplication updateFromUpdateRequest() {
+        mapper.updateFromRequest(entity, updateRequest);
+        return entity;
+    }
+}
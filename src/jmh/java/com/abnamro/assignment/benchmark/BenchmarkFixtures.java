@@ -0,0 +1,78 @@
+package com.abnamro.assignment.benchmark;
+
+import com.abnamro.assignment.api.model.ApplicationCreateRequest;
+import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.AccountType;
+import com.abnamro.assignment.model.Address;
+import com.abnamro.assignment.model.ApplicationStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Shared, deterministic payloads for the benchmarks so every scenario measures the same shape of data.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static AccountApplication completeDraft() {
+        AccountApplication application = new AccountApplication();
+        application.setId(UUID.fromString("550e8400-e29b-41d4-a716-446655440000"));
+        application.setVersion(3L);
+        application.setStatus(ApplicationStatus.DRAFT);
+        application.setName("Johan Doe");
+        application.setDateOfBirth(LocalDate.of(1990, 5, 20));
+        application.setIdDocument("NL123456789");
+        application.setAccountType(AccountType.SAVINGS);
+        application.setStartingBalance(new BigDecimal("1000.00"));
+        application.setMonthlySalary(new BigDecimal("3500.00"));
+        application.setInterestedInOtherProducts(Boolean.TRUE);
+        application.setEmail("johan.doe@example.com");
+        application.setAddress(new Address("Kalverstraat", "101", "1012 PX", "Amsterdam"));
+        application.setCreatedAt(Instant.parse("2023-10-27T10:00:00Z"));
+        application.setUpdatedAt(Instant.parse("2023-10-27T10:15:00Z"));
+        return application;
+    }
+
+    static AccountApplication incompleteDraft() {
+        AccountApplication application = completeDraft();
+        application.setName(null);
+        application.setIdDocument(null);
+        application.setAccountType(null);
+        return application;
+    }
+
+    static ApplicationCreateRequest createRequest() {
+        ApplicationCreateRequest request = new ApplicationCreateRequest();
+        request.setName("Johan Doe");
+        request.setDateOfBirth(LocalDate.of(1990, 5, 20));
+        request.setEmail("johan.doe@example.com");
+        request.setAddress(apiAddress());
+        return request;
+    }
+
+    static ApplicationUpdateRequest updateRequest() {
+        ApplicationUpdateRequest request = new ApplicationUpdateRequest();
+        request.setIdDocument("NL123456789");
+        request.setAccountType(com.abnamro.assignment.api.model.AccountType.SAVINGS);
+        request.setStartingBalance(new BigDecimal("1000.00"));
+        request.setMonthlySalary(new BigDecimal("3500.00"));
+        request.setInterestedInOtherProducts(Boolean.TRUE);
+        request.setAddress(apiAddress());
+        return request;
+    }
+
+    static com.abnamro.assignment.api.model.Address apiAddress() {
+        com.abnamro.assignment.api.model.Address address = new com.abnamro.assignment.api.model.Address();
+        address.setStreetName("Kalverstraat");
+        address.setHouseNumber("101");
+        address.setPostCode("1012 PX");
+        address.setCity("Amsterdam");
+        return address;
+    }
+}
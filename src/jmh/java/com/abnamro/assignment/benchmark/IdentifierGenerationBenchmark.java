@@ -0,0 +1,37 @@
+package com.abnamro.assignment.benchmark;
+
+import com.abnamro.assignment.model.id.TimeOrderedUuidGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of producing a single id, uncontended and with four threads sharing one generator.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdentifierGenerationBenchmark {
+
+    private final TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(System::currentTimeMillis);
+
+    @Benchmark
+    public UUID randomUuid() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID timeOrderedUuid() {
+        return generator.generate();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UUID timeOrderedUuidContended() {
+        return generator.generate();
+    }
+}
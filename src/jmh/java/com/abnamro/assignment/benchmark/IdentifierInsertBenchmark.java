@@ -0,0 +1,94 @@
+package com.abnamro.assignment.benchmark;
+
+import com.abnamro.assignment.model.id.TimeOrderedUuidGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Bulk insert into a UUID-keyed table shaped like {@code account_applications}, comparing random version 4
+ * keys with {@link TimeOrderedUuidGenerator} keys. Each iteration loads {@code rows} rows into a fresh
+ * file-backed H2 database and prints the resulting on-disk size of the table and its primary key index.
+ * <p>
+ * The default row count keeps a run short; reproduce the 10M row comparison with
+ * {@code -Djmh.include=IdentifierInsertBenchmark -Djmh.args="-p rows=10000000"}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdentifierInsertBenchmark {
+
+    private static final int JDBC_BATCH_SIZE = 1_000;
+
+    @Param({"RANDOM", "TIME_ORDERED"})
+    public String strategy;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private Path directory;
+    private Connection connection;
+    private Supplier<UUID> ids;
+
+    @Setup(Level.Iteration)
+    public void createTable() throws Exception {
+        directory = Files.createTempDirectory("id-bench");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("ids"), "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE id_bench (id UUID PRIMARY KEY, name VARCHAR(100), "
+                    + "status VARCHAR(20), created_at TIMESTAMP WITH TIME ZONE)");
+        }
+        connection.setAutoCommit(false);
+        ids = "RANDOM".equals(strategy)
+                ? UUID::randomUUID
+                : new TimeOrderedUuidGenerator(System::currentTimeMillis)::generate;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportAndDrop() throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("CALL DISK_SPACE_USED('ID_BENCH')")) {
+            resultSet.next();
+            System.out.printf("%n[%s] rows=%d table+index size=%.1f MiB%n", strategy, rows,
+                    resultSet.getLong(1) / (1024.0 * 1024.0));
+        }
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int insert() throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO id_bench (id, name, status, created_at) VALUES (?, ?, 'DRAFT', CURRENT_TIMESTAMP)")) {
+            for (int i = 1; i <= rows; i++) {
+                insert.setObject(1, ids.get());
+                insert.setString(2, "Applicant " + i);
+                insert.addBatch();
+                if (i % JDBC_BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        return rows;
+    }
+}
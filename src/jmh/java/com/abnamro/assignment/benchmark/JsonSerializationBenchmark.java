@@ -0,0 +1,49 @@
+package com.abnamro.assignment.benchmark;
+
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
+import com.abnamro.assignment.mapper.ApplicationMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson (de)serialization of the generated API models, using the same module setup Spring MVC applies.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    private ObjectWriter responseWriter;
+    private ObjectReader updateReader;
+    private ApplicationResponse response;
+    private byte[] updateJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        responseWriter = objectMapper.writerFor(ApplicationResponse.class);
+        updateReader = objectMapper.readerFor(ApplicationUpdateRequest.class);
+        response = new ApplicationMapper().toResponse(BenchmarkFixtures.completeDraft());
+        updateJson = objectMapper.writeValueAsBytes(BenchmarkFixtures.updateRequest());
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public ApplicationUpdateRequest deserializeUpdateRequest() throws IOException {
+        return updateReader.readValue(updateJson);
+    }
+}
@@ -0,0 +1,56 @@
+package com.abnamro.assignment.benchmark;
+
+import com.abnamro.assignment.BankAssignmentApplication;
+import com.abnamro.assignment.api.model.ApplicationCreateRequest;
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
+import com.abnamro.assignment.service.OnboardingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end create, patch and submit cycle through {@link OnboardingService} against the in-process H2
+ * backed {@code ApplicationRepository}, without the HTTP layer.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OnboardingCycleBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private OnboardingService service;
+    private ApplicationCreateRequest createRequest;
+    private ApplicationUpdateRequest updateRequest;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(BankAssignmentApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:bankdb-benchmark",
+                        "logging.level.root=WARN",
+                        "logging.level.com.abnamro.assignment=WARN")
+                .run();
+        service = context.getBean(OnboardingService.class);
+        createRequest = BenchmarkFixtures.createRequest();
+        updateRequest = BenchmarkFixtures.updateRequest();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public ApplicationResponse createPatchSubmit() {
+        ApplicationResponse created = service.createApplication(createRequest);
+        service.updateApplication(created.getId(), updateRequest, null);
+        return service.submitApplication(created.getId(), null);
+    }
+}
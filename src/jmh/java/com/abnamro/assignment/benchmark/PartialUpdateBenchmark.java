@@ -0,0 +1,100 @@
+package com.abnamro.assignment.benchmark;
+
+import com.abnamro.assignment.BankAssignmentApplication;
+import com.abnamro.assignment.model.AccountApplication;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-field PATCH (load, change {@code name}, commit) of one application.
+ * <p>
+ * {@code DYNAMIC_ENHANCED} uses {@link AccountApplication}, which is bytecode-enhanced and {@code @DynamicUpdate};
+ * {@code SNAPSHOT_FULL} uses {@link SnapshotAccountApplication}, the same columns with Hibernate's default
+ * snapshot comparison and full-row UPDATE. The UPDATE statement of each mode is printed at the end of the trial.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PartialUpdateBenchmark {
+
+    @Param({"DYNAMIC_ENHANCED", "SNAPSHOT_FULL"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private Class<?> entityType;
+    private UUID id;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(BankAssignmentApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:bankdb-partial-update",
+                        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                                + UpdateStatementRecorder.class.getName(),
+                        "logging.level.root=WARN",
+                        "logging.level.com.abnamro.assignment=WARN")
+                .run();
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+
+        AccountApplication application = BenchmarkFixtures.completeDraft();
+        application.setId(null);
+        application.setVersion(null);
+        if ("SNAPSHOT_FULL".equals(mode)) {
+            SnapshotAccountApplication snapshot = new SnapshotAccountApplication();
+            BeanUtils.copyProperties(application, snapshot);
+            BeanUtils.copyProperties(application.getAddress(), snapshot);
+            snapshot.setId(UUID.randomUUID());
+            inTransaction(entityManager -> entityManager.persist(snapshot));
+            entityType = SnapshotAccountApplication.class;
+            id = snapshot.getId();
+        } else {
+            inTransaction(entityManager -> entityManager.persist(application));
+            entityType = AccountApplication.class;
+            id = application.getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        String sql = UpdateStatementRecorder.lastUpdate;
+        System.out.printf("%n%s UPDATE (%d chars): %s%n", mode, sql == null ? 0 : sql.length(), sql);
+        context.close();
+    }
+
+    @Benchmark
+    public void singleFieldPatch() {
+        String name = "Johan Doe " + (sequence++ & 1);
+        inTransaction(entityManager -> {
+            Object entity = entityManager.find(entityType, id);
+            if (entity instanceof AccountApplication application) {
+                application.setName(name);
+            } else {
+                ((SnapshotAccountApplication) entity).setName(name);
+            }
+        });
+    }
+
+    private void inTransaction(java.util.function.Consumer<EntityManager> work) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            work.accept(entityManager);
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+}
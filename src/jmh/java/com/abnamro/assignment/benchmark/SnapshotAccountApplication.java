@@ -0,0 +1,113 @@
+package com.abnamro.assignment.benchmark;
+
+import com.abnamro.assignment.model.ApplicantKey;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Setter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Column-for-column copy of {@code AccountApplication} without {@code @DynamicUpdate} and without bytecode
+ * enhancement (only main classes are enhanced), i.e. Hibernate's default full-row UPDATE with snapshot
+ * dirty checking. Audited the same way, so both modes pay for the same entity callbacks. Baseline for
+ * {@link PartialUpdateBenchmark}.
+ */
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+@Table(name = "benchmark_snapshot_applications")
+@Data
+public class SnapshotAccountApplication {
+
+    @Id
+    private UUID id;
+
+    @Version
+    private Long version;
+
+    @Enumerated(EnumType.STRING)
+    private com.abnamro.assignment.model.ApplicationStatus status;
+
+    private String streetName;
+    private String houseNumber;
+    private String postCode;
+    private String city;
+    private String name;
+    private LocalDate dateOfBirth;
+    private String idDocument;
+
+    @Enumerated(EnumType.STRING)
+    private com.abnamro.assignment.model.AccountType accountType;
+
+    private BigDecimal startingBalance;
+    private BigDecimal monthlySalary;
+    private Boolean interestedInOtherProducts;
+    private String email;
+
+    @CreatedDate
+    private Instant createdAt;
+
+    @LastModifiedDate
+    private Instant updatedAt;
+
+    private UUID possibleDuplicateOf;
+
+    @Enumerated(EnumType.STRING)
+    private ApplicantKey duplicateMatch;
+
+    @Setter(AccessLevel.NONE)
+    private String idDocumentKey;
+
+    @Setter(AccessLevel.NONE)
+    private String emailKey;
+
+    @Setter(AccessLevel.NONE)
+    private String nameDateOfBirthKey;
+
+    @Setter(AccessLevel.NONE)
+    private String submittedApplicantKey;
+
+    public void setStatus(com.abnamro.assignment.model.ApplicationStatus status) {
+        this.status = status;
+        this.submittedApplicantKey = ApplicantKey.submittedApplicant(idDocumentKey, accountType, status);
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        this.nameDateOfBirthKey = ApplicantKey.nameAndDateOfBirth(name, dateOfBirth);
+    }
+
+    public void setDateOfBirth(LocalDate dateOfBirth) {
+        this.dateOfBirth = dateOfBirth;
+        this.nameDateOfBirthKey = ApplicantKey.nameAndDateOfBirth(name, dateOfBirth);
+    }
+
+    public void setIdDocument(String idDocument) {
+        this.idDocument = idDocument;
+        this.idDocumentKey = ApplicantKey.idDocument(idDocument);
+        this.submittedApplicantKey = ApplicantKey.submittedApplicant(idDocumentKey, accountType, status);
+    }
+
+    public void setAccountType(com.abnamro.assignment.model.AccountType accountType) {
+        this.accountType = accountType;
+        this.submittedApplicantKey = ApplicantKey.submittedApplicant(idDocumentKey, accountType, status);
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+        this.emailKey = ApplicantKey.email(email);
+    }
+}
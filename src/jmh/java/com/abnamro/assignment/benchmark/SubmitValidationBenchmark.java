@@ -0,0 +1,62 @@
+package com.abnamro.assignment.benchmark;
+
+import com.abnamro.assignment.config.ValidationProperties;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.validation.ApplicationSubmitValidator;
+import com.abnamro.assignment.model.validation.BeanValidationSubmitValidator;
+import com.abnamro.assignment.model.validation.CompiledSubmitValidator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.time.Clock;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The submit-time validation made by {@code OnboardingServiceImpl.submitApplication}, for both the success path
+ * and a failing application that produces several field errors, per {@code onboarding.validation.engine}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubmitValidationBenchmark {
+
+    @Param({"BEAN_VALIDATION", "COMPILED"})
+    public ValidationProperties.Engine engine;
+
+    private LocalValidatorFactoryBean beanValidator;
+    private ApplicationSubmitValidator validator;
+    private AccountApplication valid;
+    private AccountApplication invalid;
+
+    @Setup
+    public void setUp() {
+        beanValidator = new LocalValidatorFactoryBean();
+        beanValidator.afterPropertiesSet();
+        validator = switch (engine) {
+            case BEAN_VALIDATION -> new BeanValidationSubmitValidator(beanValidator);
+            case COMPILED -> new CompiledSubmitValidator(Clock.systemDefaultZone());
+        };
+        valid = BenchmarkFixtures.completeDraft();
+        invalid = BenchmarkFixtures.incompleteDraft();
+    }
+
+    @TearDown
+    public void tearDown() {
+        beanValidator.close();
+    }
+
+    @Benchmark
+    public Optional<BindingResult> validApplication() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Optional<BindingResult> invalidApplication() {
+        return validator.validate(invalid);
+    }
+}
@@ -0,0 +1,19 @@
+package com.abnamro.assignment.benchmark;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Remembers the last UPDATE statement Hibernate prepared, so benchmarks can report its size.
+ */
+public class UpdateStatementRecorder implements StatementInspector {
+
+    static volatile String lastUpdate;
+
+    @Override
+    public String inspect(String sql) {
+        if (sql.regionMatches(true, 0, "update", 0, 6)) {
+            lastUpdate = sql;
+        }
+        return sql;
+    }
+}
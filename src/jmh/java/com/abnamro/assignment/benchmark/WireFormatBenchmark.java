@@ -0,0 +1,78 @@
+package com.abnamro.assignment.benchmark;
+
+import com.abnamro.assignment.api.model.ApplicationBatchResponse;
+import com.abnamro.assignment.api.model.ApplicationBatchResult;
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
+import com.abnamro.assignment.mapper.ApplicationMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON vs. CBOR for the API models, with mappers configured like the ones Spring Boot and {@code CborConfig} build.
+ * Prints the encoded size of each payload per format.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"JSON", "CBOR"})
+    public String format;
+
+    private ObjectWriter responseWriter;
+    private ObjectWriter batchWriter;
+    private ObjectReader updateReader;
+    private ApplicationResponse response;
+    private ApplicationBatchResponse batch;
+    private byte[] update;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Spring Boot writes dates as ISO-8601 strings
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ObjectMapper objectMapper = "CBOR".equals(format)
+                ? builder.factory(new CBORFactory()).build()
+                : builder.build();
+        responseWriter = objectMapper.writerFor(ApplicationResponse.class);
+        batchWriter = objectMapper.writerFor(ApplicationBatchResponse.class);
+        updateReader = objectMapper.readerFor(ApplicationUpdateRequest.class);
+        response = new ApplicationMapper().toResponse(BenchmarkFixtures.completeDraft());
+        batch = new ApplicationBatchResponse();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.addResultsItem(new ApplicationBatchResult().index(i).status(200).application(response));
+        }
+        update = objectMapper.writeValueAsBytes(BenchmarkFixtures.updateRequest());
+        System.out.printf("%n[%s] response=%d B, batch of %d=%d B, update request=%d B%n", format,
+                serializeResponse().length, BATCH_SIZE, serializeBatchResponse().length, update.length);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeBatchResponse() throws IOException {
+        return batchWriter.writeValueAsBytes(batch);
+    }
+
+    @Benchmark
+    public ApplicationUpdateRequest deserializeUpdateRequest() throws IOException {
+        return updateReader.readValue(update);
+    }
+}
@@ -0,0 +1,174 @@
+package com.abnamro.assignment.benchmark.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load test that keeps {@code --clients} concurrent clients resuming (GET) and autosaving (PATCH)
+ * applications against a running instance, then prints throughput and latency percentiles.
+ * <p>
+ * Used to compare the default platform thread setup against the {@code virtual-threads} profile: start the
+ * application once with each setup, with {@code --onboarding.admission.enabled=false} so that admission control
+ * does not turn the load away, and run this against it with the same arguments. Each client sends its own
+ * {@code X-Client-Id}.
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec@load-test -Dload.args="--url http://localhost:8080 --clients 5000"
+ * </pre>
+ * Options: {@code --url}, {@code --clients} (5000), {@code --applications} (500), {@code --warmup} seconds (10),
+ * {@code --duration} seconds (60), {@code --patch-ratio} (0.1).
+ */
+public final class ConcurrentClientsLoadTest {
+
+    private static final String CLIENT_HEADER = "X-Client-Id";
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-f-]{36})\"");
+    private static final String CREATE_BODY = """
+            {"name":"Load Test","dateOfBirth":"1990-05-20","email":"load.test@example.com",
+             "address":{"streetName":"Kalverstraat","houseNumber":"101","postCode":"1012 PX","city":"Amsterdam"}}""";
+    private static final String PATCH_BODY = """
+            {"monthlySalary":3500.00,"interestedInOtherProducts":true}""";
+
+    private final URI baseUri;
+    private final int clients;
+    private final int applications;
+    private final Duration warmup;
+    private final Duration duration;
+    private final double patchRatio;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private ConcurrentClientsLoadTest(Arguments arguments) {
+        this.baseUri = URI.create(arguments.value("--url", "http://localhost:8080"));
+        this.clients = Integer.parseInt(arguments.value("--clients", "5000"));
+        this.applications = Integer.parseInt(arguments.value("--applications", "500"));
+        this.warmup = Duration.ofSeconds(Long.parseLong(arguments.value("--warmup", "10")));
+        this.duration = Duration.ofSeconds(Long.parseLong(arguments.value("--duration", "60")));
+        this.patchRatio = Double.parseDouble(arguments.value("--patch-ratio", "0.1"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new ConcurrentClientsLoadTest(new Arguments(args)).run();
+    }
+
+    private void run() throws Exception {
+        List<String> ids = seed();
+        System.out.printf("Seeded %d applications, running %d clients for %s (+%s warmup)%n",
+                ids.size(), clients, duration, warmup);
+
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        long[][] latencies = new long[clients][];
+        CountDownLatch done = new CountDownLatch(clients);
+
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            Thread thread = new Thread(() -> {
+                try {
+                    latencies[client] = runClient(client, ids, measureFrom, stopAt, errors);
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + c);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+
+        report(latencies, errors.get());
+    }
+
+    private List<String> seed() throws Exception {
+        List<String> ids = new ArrayList<>(applications);
+        for (int i = 0; i < applications; i++) {
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(baseUri.resolve("/applications"))
+                    .header(CLIENT_HEADER, "load-seed")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(CREATE_BODY))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = ID.matcher(response.body());
+            if (response.statusCode() != 201 || !matcher.find()) {
+                throw new IllegalStateException("Seeding failed: " + response.statusCode() + " " + response.body());
+            }
+            ids.add(matcher.group(1));
+        }
+        return ids;
+    }
+
+    private long[] runClient(int client, List<String> ids, long measureFrom, long stopAt, AtomicLong errors) {
+        long[] samples = new long[1024];
+        int count = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            long start = System.nanoTime();
+            if (start >= stopAt) {
+                break;
+            }
+            HttpRequest.Builder builder = HttpRequest.newBuilder(
+                            baseUri.resolve("/applications/" + ids.get(random.nextInt(ids.size()))))
+                    .header(CLIENT_HEADER, "load-client-" + client);
+            HttpRequest request = random.nextDouble() < patchRatio
+                    ? builder.header("Content-Type", "application/json")
+                            .method("PATCH", HttpRequest.BodyPublishers.ofString(PATCH_BODY)).build()
+                    : builder.GET().build();
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 400) {
+                    errors.incrementAndGet();
+                }
+            } catch (Exception e) {
+                errors.incrementAndGet();
+            }
+            if (start >= measureFrom) {
+                if (count == samples.length) {
+                    samples = Arrays.copyOf(samples, count * 2);
+                }
+                samples[count++] = System.nanoTime() - start;
+            }
+        }
+        return Arrays.copyOf(samples, count);
+    }
+
+    private void report(long[][] latencies, long errors) {
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        if (all.length == 0) {
+            System.out.println("No requests completed");
+            return;
+        }
+        System.out.printf("requests=%d errors=%d throughput=%.0f req/s%n", all.length, errors,
+                all.length / (double) duration.toSeconds());
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            System.out.printf("p%-5s %8.2f ms%n", percentile,
+                    millis(all[(int) Math.ceil(percentile / 100 * all.length) - 1]));
+        }
+        System.out.printf("max    %8.2f ms%n", millis(all[all.length - 1]));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private record Arguments(String[] args) {
+        String value(String name, String defaultValue) {
+            for (int i = 0; i < args.length - 1; i++) {
+                if (args[i].equals(name)) {
+                    return args[i + 1];
+                }
+            }
+            return defaultValue;
+        }
+    }
+}
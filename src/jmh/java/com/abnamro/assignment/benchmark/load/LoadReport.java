@@ -0,0 +1,120 @@
+package com.abnamro.assignment.benchmark.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Merges the histograms of all clients per {@link Operation} and reports them.
+ * <p>
+ * Besides the table on stdout, it writes to the output directory:
+ * <ul>
+ *     <li>{@code <operation>.hgrm}: the full percentile distribution in milliseconds, in the format the HdrHistogram
+ *     plotter reads, so the runs of two builds can be plotted on top of each other;</li>
+ *     <li>{@code summary.json}: the run settings, and per operation the count, throughput, status codes and
+ *     percentiles, for diffing or tracking over time.</li>
+ * </ul>
+ */
+final class LoadReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Integer, Long>> statuses = new EnumMap<>(Operation.class);
+    private final Duration duration;
+
+    LoadReport(List<VirtualClient> clients, Duration duration) {
+        this.duration = duration;
+        for (VirtualClient client : clients) {
+            client.latencies().forEach((operation, histogram) ->
+                    latencies.computeIfAbsent(operation, ignored -> new Histogram(3)).add(histogram));
+            client.statuses().forEach((operation, counts) -> counts.forEach((status, count) ->
+                    statuses.computeIfAbsent(operation, ignored -> new TreeMap<>()).merge(status, count, Long::sum)));
+        }
+    }
+
+    void print(PrintStream out) {
+        if (latencies.isEmpty()) {
+            out.println("No requests completed in the measurement window");
+            return;
+        }
+        out.printf("%-40s %9s %8s %10s %9s %9s %9s %9s %9s%n", "operation", "requests", "errors", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long total = 0;
+        for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+            Histogram histogram = entry.getValue();
+            long requests = requests(entry.getKey());
+            total += requests;
+            out.printf("%-40s %9d %8d %10.1f", entry.getKey().label(), requests, errors(entry.getKey()),
+                    requests / seconds());
+            for (double percentile : PERCENTILES) {
+                out.printf(" %9.2f", histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI);
+            }
+            out.printf(" %9.2f%n", histogram.getMaxValue() / NANOS_PER_MILLI);
+            out.printf("%-40s statuses %s%n", "", statuses.get(entry.getKey()));
+        }
+        out.printf("%-40s %9d %8s %10.1f%n", "total", total, "", total / seconds());
+    }
+
+    void write(Path directory, ObjectNode settings) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode summary = objectMapper.createObjectNode();
+        summary.set("settings", settings);
+        ArrayNode operations = summary.putArray("operations");
+        try {
+            Files.createDirectories(directory);
+            for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+                Operation operation = entry.getKey();
+                Histogram histogram = entry.getValue();
+                try (PrintStream out = new PrintStream(Files.newOutputStream(
+                        directory.resolve(operation.name().toLowerCase() + ".hgrm")))) {
+                    histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+                }
+                ObjectNode node = operations.addObject();
+                node.put("operation", operation.label());
+                node.put("requests", requests(operation));
+                node.put("errors", errors(operation));
+                node.put("throughput", requests(operation) / seconds());
+                ObjectNode codes = node.putObject("statuses");
+                statuses.get(operation).forEach((status, count) -> codes.put(String.valueOf(status), count));
+                ObjectNode millis = node.putObject("latencyMillis");
+                for (double percentile : PERCENTILES) {
+                    millis.put("p" + percentile, histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI);
+                }
+                millis.put("max", histogram.getMaxValue() / NANOS_PER_MILLI);
+            }
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(directory.resolve("summary.json").toFile(),
+                    summary);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write load test report to " + directory, e);
+        }
+    }
+
+    private long requests(Operation operation) {
+        return statuses.get(operation).values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private long errors(Operation operation) {
+        return statuses.get(operation).entrySet().stream()
+                .filter(entry -> !operation.isExpected(entry.getKey()))
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+    }
+
+    private double seconds() {
+        return duration.toNanos() / 1e9;
+    }
+}
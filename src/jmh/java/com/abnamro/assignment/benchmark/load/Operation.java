@@ -0,0 +1,38 @@
+package com.abnamro.assignment.benchmark.load;
+
+import java.util.Set;
+
+/**
+ * A request a {@link VirtualClient} makes, with the statuses that count as success for it.
+ */
+enum Operation {
+
+    CREATE("POST /applications", Set.of(201)),
+    AUTOSAVE("PATCH /applications/{id}", Set.of(200)),
+    /**
+     * An autosave of a half-typed form; the field errors are the expected answer.
+     */
+    AUTOSAVE_INVALID("PATCH /applications/{id} (invalid)", Set.of(400)),
+    RESUME("GET /applications/{id}", Set.of(200)),
+    /**
+     * A resume that sends the last ETag and usually gets {@code 304}.
+     */
+    POLL("GET /applications/{id} (If-None-Match)", Set.of(200, 304)),
+    SUBMIT("POST /applications/{id}/submit", Set.of(200, 202));
+
+    private final String label;
+    private final Set<Integer> expectedStatuses;
+
+    Operation(String label, Set<Integer> expectedStatuses) {
+        this.label = label;
+        this.expectedStatuses = expectedStatuses;
+    }
+
+    String label() {
+        return label;
+    }
+
+    boolean isExpected(int status) {
+        return expectedStatuses.contains(status);
+    }
+}
@@ -0,0 +1,81 @@
+package com.abnamro.assignment.benchmark.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Request bodies taken from {@code postman_collection.json}, so the load test sends what the documented flows send
+ * and follows them when they change.
+ * <p>
+ * The create body is made unique per request (email and ID document), so repeated creates are not rejected or
+ * deduplicated as the same applicant.
+ */
+final class PostmanFlows {
+
+    private static final String CREATE = "1. Start Application (Draft)";
+    private static final String UPDATE_VALID = "2. Update Application (Valid)";
+    private static final String UPDATE_INVALID = "3. Update Application (Invalid)";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectNode createBody;
+    private final ObjectNode updateBody;
+    private final String invalidUpdateBody;
+
+    private PostmanFlows(ObjectMapper objectMapper, JsonNode collection) {
+        this.objectMapper = objectMapper;
+        this.createBody = (ObjectNode) body(collection, CREATE);
+        this.updateBody = (ObjectNode) body(collection, UPDATE_VALID);
+        this.invalidUpdateBody = body(collection, UPDATE_INVALID).toString();
+    }
+
+    static PostmanFlows load(Path collection) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        try {
+            return new PostmanFlows(objectMapper, objectMapper.readTree(collection.toFile()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read Postman collection " + collection.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * The "Start Application" body for the {@code sequence}-th create of a client.
+     */
+    String createBody(int client, long sequence) {
+        ObjectNode body = createBody.deepCopy();
+        body.put("email", "load-" + client + "-" + sequence + "@example.com");
+        body.put("idDocument", String.format("LT%04d%06d", client % 10_000, sequence % 1_000_000));
+        return body.toString();
+    }
+
+    /**
+     * The "Update Application (Valid)" body with a salary that differs per call, so every autosave is a real
+     * change.
+     */
+    String updateBody(long sequence) {
+        ObjectNode body = updateBody.deepCopy();
+        body.put("monthlySalary", 3000 + sequence % 1000);
+        return body.toString();
+    }
+
+    String invalidUpdateBody() {
+        return invalidUpdateBody;
+    }
+
+    private JsonNode body(JsonNode collection, String name) {
+        for (JsonNode item : collection.path("item")) {
+            if (name.equals(item.path("name").asText())) {
+                try {
+                    return objectMapper.readTree(item.path("request").path("body").path("raw").asText());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot parse the body of \"" + name + "\"", e);
+                }
+            }
+        }
+        throw new IllegalStateException("Postman collection has no request \"" + name + "\"");
+    }
+}
@@ -0,0 +1,161 @@
+package com.abnamro.assignment.benchmark.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.Phaser;
+
+/**
+ * One simulated applicant: owns at most one draft at a time and records the latency and status of every request
+ * it makes into its own histograms, so clients never contend on measurement.
+ */
+final class VirtualClient {
+
+    static final String CLIENT_HEADER = "X-Client-Id";
+
+    private final int index;
+    private final Random random;
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final PostmanFlows flows;
+    private final Phaser burst;
+    private final long measureFrom;
+    private final long stopAt;
+    private final long expectedIntervalNanos;
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Integer, Long>> statuses = new EnumMap<>(Operation.class);
+
+    private String applicationPath;
+    private String eTag;
+    private long creates;
+    private long autosaves;
+
+    /**
+     * @param expectedIntervalNanos The pacing interval of a rate-limited run, used to correct for coordinated
+     *                              omission; {@code 0} for a closed loop.
+     */
+    VirtualClient(int index, long seed, HttpClient httpClient, URI baseUri, PostmanFlows flows, Phaser burst,
+            long measureFrom, long stopAt, long expectedIntervalNanos) {
+        this.index = index;
+        this.random = new Random(seed + index);
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+        this.flows = flows;
+        this.burst = burst;
+        this.measureFrom = measureFrom;
+        this.stopAt = stopAt;
+        this.expectedIntervalNanos = expectedIntervalNanos;
+    }
+
+    Random random() {
+        return random;
+    }
+
+    boolean hasApplication() {
+        return applicationPath != null;
+    }
+
+    void create() {
+        HttpResponse<Void> response = send(Operation.CREATE, request("/applications")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(flows.createBody(index, creates++))));
+        if (response != null && response.statusCode() == 201) {
+            applicationPath = URI.create(response.headers().firstValue("Location").orElseThrow()).getPath();
+            eTag = response.headers().firstValue("ETag").orElse(null);
+        }
+    }
+
+    void autosave() {
+        HttpResponse<Void> response = send(Operation.AUTOSAVE, request(applicationPath)
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(flows.updateBody(autosaves++))));
+        rememberETag(response);
+    }
+
+    void autosaveInvalid() {
+        send(Operation.AUTOSAVE_INVALID, request(applicationPath)
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(flows.invalidUpdateBody())));
+    }
+
+    void resume() {
+        rememberETag(send(Operation.RESUME, request(applicationPath).GET()));
+    }
+
+    void poll() {
+        HttpRequest.Builder request = request(applicationPath).GET();
+        if (eTag != null) {
+            request.header("If-None-Match", eTag);
+        }
+        rememberETag(send(Operation.POLL, request));
+    }
+
+    void submit() {
+        send(Operation.SUBMIT, request(applicationPath + "/submit")
+                .POST(HttpRequest.BodyPublishers.noBody()));
+        applicationPath = null;
+        eTag = null;
+    }
+
+    /**
+     * Waits until every other client of a {@link Workload#SUBMIT_BURST} run is ready to submit too.
+     */
+    void awaitBurst() {
+        burst.arriveAndAwaitAdvance();
+    }
+
+    Map<Operation, Histogram> latencies() {
+        return latencies;
+    }
+
+    Map<Operation, Map<Integer, Long>> statuses() {
+        return statuses;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).header(CLIENT_HEADER, "load-client-" + index);
+    }
+
+    /**
+     * Sends a request and records it if it started inside the measurement window.
+     *
+     * @return The response, or {@code null} if the request failed without one (recorded as status {@code 0}).
+     */
+    private HttpResponse<Void> send(Operation operation, HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        HttpResponse<Void> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        } catch (Exception e) {
+            response = null;
+        }
+        if (start >= measureFrom && start < stopAt) {
+            long latency = System.nanoTime() - start;
+            Histogram histogram = latencies.computeIfAbsent(operation, ignored -> new Histogram(3));
+            if (expectedIntervalNanos > 0) {
+                histogram.recordValueWithExpectedInterval(latency, expectedIntervalNanos);
+            } else {
+                histogram.recordValue(latency);
+            }
+            statuses.computeIfAbsent(operation, ignored -> new TreeMap<>())
+                    .merge(response == null ? 0 : response.statusCode(), 1L, Long::sum);
+        }
+        return response;
+    }
+
+    private void rememberETag(HttpResponse<Void> response) {
+        if (response != null && response.statusCode() < 400) {
+            response.headers().firstValue("ETag").ifPresent(value -> eTag = value);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.abnamro.assignment.benchmark.load;
+
+import java.util.Locale;
+
+/**
+ * The traffic shapes {@link WorkloadLoadTest} can generate, each built from the flows of
+ * {@code postman_collection.json}. Every client draws its next step from its own seeded random, so a workload
+ * with the same seed and client count produces the same request mix on every run.
+ */
+enum Workload {
+
+    /**
+     * A campaign launch: mostly new drafts, some resumed and autosaved.
+     */
+    CREATE_HEAVY {
+        @Override
+        void step(VirtualClient client) {
+            double draw = client.random().nextDouble();
+            if (!client.hasApplication() || draw < 0.8) {
+                client.create();
+            } else if (draw < 0.95) {
+                client.resume();
+            } else {
+                client.autosave();
+            }
+        }
+    },
+
+    /**
+     * Forms autosaving on every keystroke pause: each client PATCHes its own draft, sometimes with a field that
+     * does not validate yet, and starts a new draft now and then.
+     */
+    AUTOSAVE_STORM {
+        @Override
+        void step(VirtualClient client) {
+            double draw = client.random().nextDouble();
+            if (!client.hasApplication() || draw < 0.02) {
+                client.create();
+            } else if (draw < 0.1) {
+                client.autosaveInvalid();
+            } else {
+                client.autosave();
+            }
+        }
+    },
+
+    /**
+     * Open tabs polling their draft with {@code If-None-Match}, with an occasional autosave that changes it.
+     */
+    RESUME_POLLING {
+        @Override
+        void step(VirtualClient client) {
+            double draw = client.random().nextDouble();
+            if (!client.hasApplication()) {
+                client.create();
+            } else if (draw < 0.1) {
+                client.autosave();
+            } else if (draw < 0.2) {
+                client.resume();
+            } else {
+                client.poll();
+            }
+        }
+    },
+
+    /**
+     * A deadline: every client completes a draft, then all of them submit at the same moment.
+     */
+    SUBMIT_BURST {
+        @Override
+        void step(VirtualClient client) {
+            client.create();
+            if (client.hasApplication()) {
+                client.autosave();
+            }
+            // Clients whose create failed still take part, so every burst waits for the same clients
+            client.awaitBurst();
+            if (client.hasApplication()) {
+                client.submit();
+            }
+        }
+    };
+
+    /**
+     * Makes the client's next request, or requests.
+     */
+    abstract void step(VirtualClient client);
+
+    String id() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    static Workload of(String id) {
+        for (Workload workload : values()) {
+            if (workload.id().equals(id)) {
+                return workload;
+            }
+        }
+        throw new IllegalArgumentException("Unknown workload " + id + "; expected one of create-heavy, "
+                + "autosave-storm, resume-polling, submit-burst");
+    }
+}
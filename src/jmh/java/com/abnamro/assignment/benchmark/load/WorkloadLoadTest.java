@@ -0,0 +1,189 @@
+package com.abnamro.assignment.benchmark.load;
+
+import com.abnamro.assignment.BankAssignmentApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test for capacity planning: runs one {@link Workload} with {@code --clients} concurrent clients and reports
+ * throughput and HdrHistogram latency distributions per operation (see {@link LoadReport}).
+ * <p>
+ * Without {@code --url} it starts the application in-process on a random port with its own in-memory database and
+ * admission control off, so a run needs nothing but a build. Arguments of the form {@code --name=value} are passed
+ * to that embedded instance, e.g. {@code --spring.profiles.active=event-sourced} or
+ * {@code --onboarding.write-behind.enabled=true}. An instance given by {@code --url} should run with
+ * {@code onboarding.admission.enabled=false} as well. Each client sends its own {@code X-Client-Id}.
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec@workload -Dload.args="--workload autosave-storm --clients 200"
+ * </pre>
+ * Options: {@code --workload} ({@code create-heavy}, {@code autosave-storm}, {@code resume-polling} (default),
+ * {@code submit-burst}), {@code --url}, {@code --clients} (50), {@code --warmup} seconds (10), {@code --duration}
+ * seconds (60), {@code --rate} steps per second per client (0: closed loop; otherwise latencies are corrected for
+ * coordinated omission), {@code --seed} (42), {@code --collection} ({@code postman_collection.json}),
+ * {@code --output} ({@code target/load-test/<workload>}).
+ */
+public final class WorkloadLoadTest {
+
+    private static final Map<String, String> EMBEDDED_DEFAULTS = Map.of(
+            "server.port", "0",
+            "spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+            "spring.h2.console.enabled", "false",
+            "spring.main.banner-mode", "off",
+            "logging.level.root", "WARN",
+            // Measure the application, not the limits in front of it
+            "onboarding.admission.enabled", "false");
+
+    private final Workload workload;
+    private final String url;
+    private final int clients;
+    private final Duration warmup;
+    private final Duration duration;
+    private final double rate;
+    private final long seed;
+    private final Path collection;
+    private final Path output;
+    private final Map<String, String> applicationProperties;
+
+    private WorkloadLoadTest(Arguments arguments) {
+        this.workload = Workload.of(arguments.value("--workload", Workload.RESUME_POLLING.id()));
+        this.url = arguments.value("--url", null);
+        this.clients = Integer.parseInt(arguments.value("--clients", "50"));
+        this.warmup = Duration.ofSeconds(Long.parseLong(arguments.value("--warmup", "10")));
+        this.duration = Duration.ofSeconds(Long.parseLong(arguments.value("--duration", "60")));
+        this.rate = Double.parseDouble(arguments.value("--rate", "0"));
+        this.seed = Long.parseLong(arguments.value("--seed", "42"));
+        this.collection = Path.of(arguments.value("--collection", "postman_collection.json"));
+        this.output = Path.of(arguments.value("--output", "target/load-test/" + workload.id()));
+        this.applicationProperties = arguments.properties();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new WorkloadLoadTest(new Arguments(args)).run();
+    }
+
+    private void run() throws Exception {
+        PostmanFlows flows = PostmanFlows.load(collection);
+        ConfigurableApplicationContext embedded = url == null ? startEmbedded() : null;
+        try {
+            URI baseUri = URI.create(url != null ? url
+                    : "http://localhost:" + embedded.getEnvironment().getProperty("local.server.port"));
+            System.out.printf("Running %s with %d clients against %s for %s (+%s warmup), %s%n", workload.id(),
+                    clients, baseUri, duration, warmup, rate > 0 ? rate + " steps/s per client" : "closed loop");
+            LoadReport report = new LoadReport(runClients(baseUri, flows), duration);
+            report.print(System.out);
+            report.write(output, settings(baseUri));
+            System.out.println("Histograms and summary written to " + output.toAbsolutePath());
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext startEmbedded() {
+        Map<String, String> properties = new LinkedHashMap<>(EMBEDDED_DEFAULTS);
+        properties.putAll(applicationProperties);
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return SpringApplication.run(BankAssignmentApplication.class, args);
+    }
+
+    private List<VirtualClient> runClients(URI baseUri, PostmanFlows flows) throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long interval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+        Phaser burst = new Phaser(clients);
+        CountDownLatch done = new CountDownLatch(clients);
+        List<VirtualClient> virtualClients = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            VirtualClient client = new VirtualClient(c, seed, httpClient, baseUri, flows, burst, measureFrom, stopAt,
+                    interval);
+            virtualClients.add(client);
+            Thread thread = new Thread(() -> {
+                try {
+                    long next = System.nanoTime();
+                    while (System.nanoTime() < stopAt) {
+                        if (interval > 0) {
+                            next += interval;
+                            LockSupport.parkNanos(next - System.nanoTime());
+                        }
+                        workload.step(client);
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println(Thread.currentThread().getName() + " stopped: " + e);
+                } finally {
+                    // Lets the remaining clients of a submit burst go on without this one
+                    burst.arriveAndDeregister();
+                    done.countDown();
+                }
+            }, "load-client-" + c);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        return virtualClients;
+    }
+
+    private ObjectNode settings(URI baseUri) {
+        ObjectNode settings = new ObjectMapper().createObjectNode();
+        settings.put("workload", workload.id());
+        settings.put("url", baseUri.toString());
+        settings.put("embedded", url == null);
+        settings.put("clients", clients);
+        settings.put("warmupSeconds", warmup.toSeconds());
+        settings.put("durationSeconds", duration.toSeconds());
+        settings.put("rate", rate);
+        settings.put("seed", seed);
+        settings.put("javaVersion", Runtime.version().toString());
+        settings.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        ObjectNode properties = settings.putObject("applicationProperties");
+        applicationProperties.forEach(properties::put);
+        return settings;
+    }
+
+    private record Arguments(String[] args) {
+
+        String value(String name, String defaultValue) {
+            for (int i = 0; i < args.length - 1; i++) {
+                if (args[i].equals(name)) {
+                    return args[i + 1];
+                }
+            }
+            return defaultValue;
+        }
+
+        /**
+         * The {@code --name=value} arguments, for the embedded application.
+         */
+        Map<String, String> properties() {
+            Map<String, String> properties = new LinkedHashMap<>();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (arg.startsWith("--") && separator > 2) {
+                    properties.put(arg.substring(2, separator), arg.substring(separator + 1));
+                }
+            }
+            return properties;
+        }
+    }
+}
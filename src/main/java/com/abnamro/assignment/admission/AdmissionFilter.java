@@ -0,0 +1,102 @@
+package com.abnamro.assignment.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the application endpoints, so that excess requests are turned away before they
+ * take a JDBC connection.
+ * <p>
+ * A client over its rate limit gets {@code 429 Too Many Requests}; when the adaptive concurrency limit is reached,
+ * requests get {@code 503 Service Unavailable}. Both carry {@code Retry-After}. Clients are told apart by
+ * {@link ClientIdentity}; behind a proxy, {@code server.forward-headers-strategy} makes the remote address the
+ * original client's. Outcomes are counted as {@code onboarding.admission.requests{outcome}}, and the current
+ * limit and requests in flight are gauged as {@code onboarding.admission.limit} and
+ * {@code onboarding.admission.in-flight}.
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private final ClientIdentity clients;
+    private final ClientRateLimiter rateLimiter;
+    private final AimdConcurrencyLimiter concurrencyLimiter;
+    private final ObjectMapper objectMapper;
+    private final Counter admitted;
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public AdmissionFilter(ClientIdentity clients, ClientRateLimiter rateLimiter,
+            AimdConcurrencyLimiter concurrencyLimiter, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.clients = clients;
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.objectMapper = objectMapper;
+        this.admitted = meterRegistry.counter("onboarding.admission.requests", "outcome", "admitted");
+        this.rateLimited = meterRegistry.counter("onboarding.admission.requests", "outcome", "rate_limited");
+        this.shed = meterRegistry.counter("onboarding.admission.requests", "outcome", "shed");
+        if (concurrencyLimiter != null) {
+            meterRegistry.gauge("onboarding.admission.limit", concurrencyLimiter,
+                    AimdConcurrencyLimiter::getLimit);
+            meterRegistry.gauge("onboarding.admission.in-flight", concurrencyLimiter,
+                    AimdConcurrencyLimiter::getInFlight);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (rateLimiter != null) {
+            long waitNanos = rateLimiter.tryAcquire(clients.of(request));
+            if (waitNanos > 0) {
+                rateLimited.increment();
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded", waitNanos);
+                return;
+            }
+        }
+        if (concurrencyLimiter == null) {
+            admitted.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            shed.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Server is at capacity", TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+        admitted.increment();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streaming responses outlive this call; their duration says nothing about saturation
+                concurrencyLimiter.release();
+            } else {
+                concurrencyLimiter.release(System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String detail, long retryAfterNanos)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, (long) Math.ceil(retryAfterNanos / 1_000_000_000d))));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ProblemDetail.forStatusAndDetail(status, detail));
+    }
+}
@@ -0,0 +1,94 @@
+package com.abnamro.assignment.admission;
+
+import com.abnamro.assignment.config.AdmissionProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits concurrent requests to a limit found by additive increase, multiplicative decrease (AIMD) on observed
+ * latency.
+ * <p>
+ * A request slower than {@code latencyThreshold}, or one that failed with an exception, is taken as a sign that a
+ * downstream resource such as the JDBC pool is saturated, and multiplies the limit by {@code backoffRatio}, at most
+ * once per {@code latencyThreshold}: the requests that were already in flight when the first one came back slow
+ * saw the same overload, and must not shrink the limit again. A fast request completed while at least half of the
+ * limit was in use raises it by one. The limit stays within {@code [minLimit, maxLimit]}.
+ */
+public class AimdConcurrencyLimiter {
+
+    private final AdmissionProperties.Concurrency properties;
+    private final long latencyThresholdNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    /**
+     * When the limit was last decreased; guarded by {@code this}.
+     */
+    private long lastDecreaseNanos;
+
+    public AimdConcurrencyLimiter(AdmissionProperties.Concurrency properties) {
+        this(properties, System::nanoTime);
+    }
+
+    AimdConcurrencyLimiter(AdmissionProperties.Concurrency properties, LongSupplier nanoTime) {
+        this.properties = properties;
+        this.latencyThresholdNanos = properties.getLatencyThreshold().toNanos();
+        this.nanoTime = nanoTime;
+        this.limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(),
+                properties.getInitialLimit()));
+        this.lastDecreaseNanos = nanoTime.getAsLong() - latencyThresholdNanos;
+    }
+
+    /**
+     * Admits a request if fewer than the limit are in progress. An admitted request must be ended with
+     * {@link #release}.
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Ends an admitted request and adjusts the limit.
+     *
+     * @param latencyNanos How long the request took.
+     * @param failed       Whether it ended with an exception.
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int wasInFlight = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                long now = nanoTime.getAsLong();
+                if (now - lastDecreaseNanos >= latencyThresholdNanos) {
+                    limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+                    lastDecreaseNanos = now;
+                }
+            } else if (wasInFlight * 2 >= limit) {
+                limit = Math.min(properties.getMaxLimit(), limit + 1);
+            }
+        }
+    }
+
+    /**
+     * Ends an admitted request without adjusting the limit, e.g. one that continues asynchronously.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,30 @@
+package com.abnamro.assignment.admission;
+
+import com.abnamro.assignment.config.AdmissionProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Identifies the client behind a request by the configured client header, or else by remote address. Rate limits
+ * and idempotency keys are scoped to it.
+ */
+@Component
+public class ClientIdentity {
+
+    public static final int MAX_LENGTH = 128;
+
+    private final AdmissionProperties properties;
+
+    public ClientIdentity(AdmissionProperties properties) {
+        this.properties = properties;
+    }
+
+    public String of(HttpServletRequest request) {
+        String client = request.getHeader(properties.getClientHeader());
+        if (client == null || client.isBlank()) {
+            return request.getRemoteAddr();
+        }
+        client = client.strip();
+        return client.length() > MAX_LENGTH ? client.substring(0, MAX_LENGTH) : client;
+    }
+}
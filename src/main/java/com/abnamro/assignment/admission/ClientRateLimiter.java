@@ -0,0 +1,40 @@
+package com.abnamro.assignment.admission;
+
+import com.abnamro.assignment.config.AdmissionProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.function.LongSupplier;
+
+/**
+ * One {@link TokenBucket} per client, held in a bounded cache so that unknown clients cannot exhaust memory.
+ */
+public class ClientRateLimiter {
+
+    private final AdmissionProperties.RateLimit properties;
+    private final LongSupplier nanoTime;
+    private final Cache<String, TokenBucket> buckets;
+
+    public ClientRateLimiter(AdmissionProperties.RateLimit properties) {
+        this(properties, System::nanoTime);
+    }
+
+    ClientRateLimiter(AdmissionProperties.RateLimit properties, LongSupplier nanoTime) {
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumClients())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+    }
+
+    /**
+     * Takes a permit for {@code client}.
+     *
+     * @return 0 if the request may proceed, otherwise the nanoseconds until the client may retry.
+     */
+    public long tryAcquire(String client) {
+        return buckets.get(client, key -> new TokenBucket(properties.getBurst(), properties.getPermitsPerSecond(),
+                nanoTime)).tryAcquire();
+    }
+}
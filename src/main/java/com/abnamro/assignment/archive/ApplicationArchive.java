@@ -0,0 +1,158 @@
+package com.abnamro.assignment.archive;
+
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.AccountType;
+import com.abnamro.assignment.model.ApplicantKey;
+import com.abnamro.assignment.model.ArchivedApplication;
+import com.abnamro.assignment.repository.ApplicationKeyset;
+import com.abnamro.assignment.repository.ArchivedApplicationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Cold tier for COMPLETED applications, which no longer change.
+ * <p>
+ * Each application is one row of {@code archived_applications}: its JSON form, deflated, plus its
+ * {@link ApplicantKey}s, which keep it visible to duplicate detection. A row is a fraction of the size of a
+ * {@code account_applications} row and carries none of its listing indexes, so moving completed applications here
+ * keeps the hot table and its indexes small. Reads by id are counted as {@code onboarding.archive.reads}.
+ */
+@Component
+public class ApplicationArchive {
+
+    private final ArchivedApplicationRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Clock clock = Clock.systemUTC();
+    private final Counter reads;
+
+    public ApplicationArchive(ArchivedApplicationRepository repository, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.reads = meterRegistry.counter("onboarding.archive.reads");
+    }
+
+    public Optional<AccountApplication> findById(UUID id) {
+        Optional<AccountApplication> application = repository.findById(id)
+                .map(archived -> decode(archived.getId(), archived.getPayload()));
+        application.ifPresent(found -> reads.increment());
+        return application;
+    }
+
+    /**
+     * Whether an application with this ID document and account type has been archived; archived applications are
+     * all COMPLETED.
+     */
+    public boolean containsApplicant(String idDocumentKey, AccountType accountType) {
+        return idDocumentKey != null && accountType != null
+                && repository.existsByIdDocumentKeyAndAccountType(idDocumentKey, accountType);
+    }
+
+    /**
+     * The oldest archived application whose {@code key} equals {@code value}.
+     */
+    public Optional<UUID> findByApplicantKey(ApplicantKey key, String value) {
+        PageRequest first = PageRequest.of(0, 1);
+        List<UUID> ids = switch (key) {
+            case ID_DOCUMENT -> repository.findIdsByIdDocumentKey(value, first);
+            case EMAIL -> repository.findIdsByEmailKey(value, first);
+            case NAME_AND_DATE_OF_BIRTH -> repository.findIdsByNameDateOfBirthKey(value, first);
+        };
+        return ids.stream().findFirst();
+    }
+
+    /**
+     * Passes every non-null applicant key of every archived application to {@code action}.
+     */
+    @Transactional(readOnly = true)
+    public void forEachApplicantKey(BiConsumer<ApplicantKey, String> action) {
+        try (Stream<Object[]> rows = repository.streamApplicantKeys()) {
+            rows.forEach(row -> {
+                accept(action, ApplicantKey.ID_DOCUMENT, row[0]);
+                accept(action, ApplicantKey.EMAIL, row[1]);
+                accept(action, ApplicantKey.NAME_AND_DATE_OF_BIRTH, row[2]);
+            });
+        }
+    }
+
+    /**
+     * The archived applications after {@code after} in {@code (updatedAt, id)} order. Must be consumed and closed
+     * inside a transaction.
+     */
+    public Stream<AccountApplication> streamAfter(ApplicationKeyset after) {
+        return repository.streamPayloadsAfter(after.updatedAt(), after.id())
+                .map(row -> decode((UUID) row[0], (byte[]) row[1]));
+    }
+
+    /**
+     * Writes applications to the archive, replacing earlier copies. Commits in a transaction of its own, even when
+     * called inside another one: {@link ApplicationArchiver} deletes the originals from the store only after this
+     * has returned, so the copies must be committed by then.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void saveAll(List<AccountApplication> applications) {
+        Instant now = clock.instant();
+        repository.saveAll(applications.stream().map(application -> new ArchivedApplication(application.getId(),
+                application.getIdDocumentKey(), application.getAccountType(), application.getEmailKey(),
+                application.getNameDateOfBirthKey(), application.getUpdatedAt(), now, encode(application)))
+                .toList());
+    }
+
+    @Transactional
+    public void deleteAllById(Collection<UUID> ids) {
+        repository.deleteAllById(ids);
+    }
+
+    private byte[] encode(AccountApplication application) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(objectMapper.writeValueAsBytes(application));
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+            byte[] buffer = new byte[512];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot archive application " + application.getId(), e);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private AccountApplication decode(UUID id, byte[] payload) {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readValue(in, AccountApplication.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archived application " + id, e);
+        }
+    }
+
+    private static void accept(BiConsumer<ApplicantKey, String> action, ApplicantKey key, Object value) {
+        if (value != null) {
+            action.accept(key, (String) value);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.abnamro.assignment.archive;
+
+import com.abnamro.assignment.config.ArchiveProperties;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.store.ApplicationStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves COMPLETED applications from the {@link ApplicationStore} to the {@link ApplicationArchive} once they have
+ * been completed for {@code onboarding.archive.archive-after}.
+ * <p>
+ * A run every {@code interval} walks them oldest first through the {@code (status, updated_at, id)} index, in
+ * batches of {@code batch-size} with a pause of {@code batch-delay} in between, and stops after
+ * {@code max-per-run}. Each batch is deleted from the store only after its archive write has committed, so a
+ * failure in between leaves an application in both tiers rather than in neither; reads prefer the store, and the
+ * next run moves it again. Moved applications are counted as {@code onboarding.archive.archived} and runs are timed
+ * as {@code onboarding.archive.run}.
+ */
+@Slf4j
+@Component
+public class ApplicationArchiver {
+
+    private final ArchiveProperties properties;
+    private final ApplicationStore store;
+    private final ApplicationArchive archive;
+    private final Clock clock;
+    private final Counter archived;
+    private final Timer runTimer;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public ApplicationArchiver(ArchiveProperties properties, ApplicationStore store, ApplicationArchive archive,
+            MeterRegistry meterRegistry) {
+        this(properties, store, archive, meterRegistry, Clock.systemUTC());
+    }
+
+    ApplicationArchiver(ArchiveProperties properties, ApplicationStore store, ApplicationArchive archive,
+            MeterRegistry meterRegistry, Clock clock) {
+        this.properties = properties;
+        this.store = store;
+        this.archive = archive;
+        this.clock = clock;
+        this.archived = meterRegistry.counter("onboarding.archive.archived");
+        this.runTimer = meterRegistry.timer("onboarding.archive.run");
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "application-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::archiveInBackground, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Archiving applications completed for {}", properties.getArchiveAfter());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            // Interrupts a run between batches; the rest is moved by the next one
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Moves up to {@code max-per-run} applications completed before the cutoff to the archive.
+     *
+     * @return The number of applications moved.
+     */
+    int archive() throws InterruptedException {
+        Instant cutoff = clock.instant().minus(properties.getArchiveAfter());
+        long started = System.nanoTime();
+        int total = 0;
+        try {
+            while (total < properties.getMaxPerRun()) {
+                int limit = Math.min(properties.getBatchSize(), properties.getMaxPerRun() - total);
+                List<UUID> ids = store.findIdsByStatusUpdatedBefore(ApplicationStatus.COMPLETED, cutoff, limit);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                int batch = move(ids, cutoff);
+                archived.increment(batch);
+                total += batch;
+                if (ids.size() < limit || batch == 0) {
+                    break;
+                }
+                TimeUnit.MILLISECONDS.sleep(properties.getBatchDelay().toMillis());
+            }
+        } finally {
+            runTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        if (total > 0) {
+            log.info("Archived {} applications completed before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private int move(List<UUID> ids, Instant cutoff) {
+        List<AccountApplication> applications = store.findAllById(ids).stream()
+                .filter(application -> application.getStatus() == ApplicationStatus.COMPLETED
+                        && application.getUpdatedAt().isBefore(cutoff))
+                .toList();
+        // Commits on its own, before anything is deleted from the store
+        archive.saveAll(applications);
+        int deleted = store.deleteByStatusUpdatedBefore(ids, ApplicationStatus.COMPLETED, cutoff);
+        if (deleted < applications.size()) {
+            // Changed since they were read, which a completed application should not be; the store keeps them
+            List<UUID> kept = store.findAllById(ids).stream().map(AccountApplication::getId).toList();
+            log.warn("Applications {} changed while being archived; keeping them in the store", kept);
+            archive.deleteAllById(kept);
+        }
+        return deleted;
+    }
+
+    private void archiveInBackground() {
+        try {
+            archive();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Archiving completed applications failed", e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.abnamro.assignment.cache;
+
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.config.ApplicationCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bounded cache of application responses keyed by application id.
+ * <p>
+ * Entries carry the entity {@code @Version}; a put only replaces an entry with an equal or newer version, so a
+ * slow reader can never overwrite the result of a later update. Puts made inside a transaction are applied after
+ * commit, so rolled back changes never become visible. Cached responses are shared and must not be mutated.
+ * <p>
+ * Hit, miss, eviction and size metrics are published under the {@code cache.*} meters with {@code cache=applications}.
+ */
+@Component
+public class ApplicationResponseCache {
+
+    private final boolean enabled;
+    private final Cache<UUID, ApplicationResponse> cache;
+
+    public ApplicationResponseCache(ApplicationCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "applications");
+    }
+
+    public Optional<ApplicationResponse> get(UUID id) {
+        return enabled ? Optional.ofNullable(cache.getIfPresent(id)) : Optional.empty();
+    }
+
+    public void put(ApplicationResponse response) {
+        if (!enabled || response == null || response.getId() == null) {
+            return;
+        }
+        afterCommit(() -> cache.asMap().merge(response.getId(), response,
+                (current, candidate) -> isNewer(current, candidate) ? current : candidate));
+    }
+
+    public void evict(UUID id) {
+        if (enabled) {
+            afterCommit(() -> cache.invalidate(id));
+        }
+    }
+
+    private static boolean isNewer(ApplicationResponse current, ApplicationResponse candidate) {
+        return current.getVersion() != null && candidate.getVersion() != null
+                && current.getVersion() > candidate.getVersion();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.abnamro.assignment.config;
+
+import com.abnamro.assignment.admission.AdmissionFilter;
+import com.abnamro.assignment.admission.AimdConcurrencyLimiter;
+import com.abnamro.assignment.admission.ClientIdentity;
+import com.abnamro.assignment.admission.ClientRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(prefix = "onboarding.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(AdmissionProperties properties,
+            ClientIdentity clients, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        ClientRateLimiter rateLimiter = properties.getRateLimit().isEnabled()
+                ? new ClientRateLimiter(properties.getRateLimit()) : null;
+        AimdConcurrencyLimiter concurrencyLimiter = properties.getConcurrency().isEnabled()
+                ? new AimdConcurrencyLimiter(properties.getConcurrency()) : null;
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionFilter(clients, rateLimiter, concurrencyLimiter, objectMapper, meterRegistry));
+        // Only the application API; actuator and API docs stay reachable under load
+        registration.addUrlPatterns("/applications", "/applications/*", "/applications:batch",
+                "/applications:export");
+        // Early, so rejected requests cost as little as possible
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registration;
+    }
+}
@@ -0,0 +1,76 @@
+package com.abnamro.assignment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for admission control of {@code /applications} requests: a rate limit per client and an adaptive
+ * limit on concurrent requests.
+ */
+@Data
+@ConfigurationProperties(prefix = "onboarding.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Header identifying the calling client, e.g. a partner id set by the API gateway. Requests without it are
+     * keyed by remote address.
+     */
+    private String clientHeader = "X-Client-Id";
+
+    private RateLimit rateLimit = new RateLimit();
+
+    private Concurrency concurrency = new Concurrency();
+
+    @Data
+    public static class RateLimit {
+
+        private boolean enabled = true;
+
+        /**
+         * Sustained requests per second allowed per client.
+         */
+        private double permitsPerSecond = 100;
+
+        /**
+         * Requests a client may make in a burst above the sustained rate.
+         */
+        private int burst = 200;
+
+        /**
+         * Upper bound on tracked clients; the least recently seen are forgotten beyond it.
+         */
+        private long maximumClients = 100_000;
+
+        /**
+         * Idle time after which a client's bucket is forgotten (and starts full again).
+         */
+        private Duration idleTimeout = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Concurrency {
+
+        private boolean enabled = true;
+
+        private int initialLimit = 20;
+
+        private int minLimit = 4;
+
+        private int maxLimit = 200;
+
+        /**
+         * Requests slower than this count as overload and shrink the limit multiplicatively; faster ones grow it
+         * by one while the limit is in use.
+         */
+        private Duration latencyThreshold = Duration.ofMillis(500);
+
+        /**
+         * Factor the limit is multiplied by on overload, at most once per {@code latencyThreshold}.
+         */
+        private double backoffRatio = 0.9;
+    }
+}
@@ -0,0 +1,26 @@
+package com.abnamro.assignment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the in-process cache of application responses served by {@code GET /applications/{id}}.
+ */
+@Data
+@ConfigurationProperties(prefix = "onboarding.cache")
+public class ApplicationCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Upper bound on cached applications; Caffeine evicts by W-TinyLFU once reached.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * Safety net for changes made outside of the service (e.g. manual database edits).
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
@@ -0,0 +1,44 @@
+package com.abnamro.assignment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for moving COMPLETED applications to the archive.
+ */
+@Data
+@ConfigurationProperties(prefix = "onboarding.archive")
+public class ArchiveProperties {
+
+    /**
+     * Run the archiver. Archived applications stay readable either way.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long an application stays in the hot store after it was completed.
+     */
+    private Duration archiveAfter = Duration.ofDays(7);
+
+    /**
+     * Delay between the end of one archiving run and the start of the next.
+     */
+    private Duration interval = Duration.ofHours(1);
+
+    /**
+     * Maximum number of applications moved per transaction.
+     */
+    private int batchSize = 200;
+
+    /**
+     * Pause between two batches of a run, leaving the database to live traffic.
+     */
+    private Duration batchDelay = Duration.ofMillis(200);
+
+    /**
+     * Maximum number of applications moved per run; the rest wait for the next run.
+     */
+    private int maxPerRun = 50_000;
+}
@@ -0,0 +1,22 @@
+package com.abnamro.assignment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the bulk create/update endpoints.
+ */
+@Data
+@ConfigurationProperties(prefix = "onboarding.batch")
+public class BatchProperties {
+
+    /**
+     * Maximum number of items accepted in a single batch request.
+     */
+    private int maxItems = 500;
+
+    /**
+     * Number of items persisted per transaction. Keep aligned with {@code hibernate.jdbc.batch_size}.
+     */
+    private int chunkSize = 50;
+}
@@ -0,0 +1,41 @@
+package com.abnamro.assignment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for purging abandoned DRAFT applications.
+ */
+@Data
+@ConfigurationProperties(prefix = "onboarding.draft-retention")
+public class DraftRetentionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How long a draft is kept after its last update.
+     */
+    private Duration retention = Duration.ofDays(30);
+
+    /**
+     * Delay between the end of one purge run and the start of the next.
+     */
+    private Duration interval = Duration.ofHours(1);
+
+    /**
+     * Maximum number of drafts deleted per statement.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Pause between two batches of a run, leaving the database to live traffic.
+     */
+    private Duration batchDelay = Duration.ofMillis(200);
+
+    /**
+     * Maximum number of drafts deleted per run; the rest wait for the next run.
+     */
+    private int maxPerRun = 50_000;
+}
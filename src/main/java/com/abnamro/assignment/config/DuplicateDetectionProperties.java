@@ -0,0 +1,40 @@
+package com.abnamro.assignment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for flagging applications that appear to come from an applicant with an earlier application.
+ */
+@Data
+@ConfigurationProperties(prefix = "onboarding.duplicates")
+public class DuplicateDetectionProperties {
+
+    private boolean enabled = true;
+
+    private BloomFilter bloomFilter = new BloomFilter();
+
+    @Data
+    public static class BloomFilter {
+
+        /**
+         * Answer lookups of keys that were never stored from memory, without a query.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Applicant keys the filter is sized for; beyond it the false positive rate climbs.
+         */
+        private long expectedKeys = 1_000_000;
+
+        private double falsePositiveRate = 0.01;
+
+        /**
+         * How often the filter is rebuilt from the store, to drop keys that changed and to pick up keys stored by
+         * other instances.
+         */
+        private Duration rebuildInterval = Duration.ofMinutes(5);
+    }
+}
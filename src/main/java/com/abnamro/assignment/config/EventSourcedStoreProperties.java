@@ -0,0 +1,41 @@
+package com.abnamro.assignment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the event-sourced application store, active with the {@code event-sourced} profile.
+ */
+@Data
+@ConfigurationProperties(prefix = "onboarding.store.event-sourced")
+public class EventSourcedStoreProperties {
+
+    /**
+     * Directory holding the event log segments and snapshots.
+     */
+    private Path directory = Path.of("data", "events");
+
+    /**
+     * Size of one memory-mapped log segment; also the upper bound of a single save.
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Force every appended event to disk before acknowledging the save.
+     */
+    private boolean fsync = true;
+
+    /**
+     * How often the current state is written as a snapshot, bounding the events replayed on startup.
+     */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+
+    /**
+     * Keep log segments already covered by a snapshot, so the full change history stays available.
+     */
+    private boolean retainSegments = true;
+}
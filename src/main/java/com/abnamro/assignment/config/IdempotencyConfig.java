@@ -0,0 +1,27 @@
+package com.abnamro.assignment.config;
+
+import com.abnamro.assignment.idempotency.DatabaseIdempotencyKeyStore;
+import com.abnamro.assignment.idempotency.IdempotencyKeyStore;
+import com.abnamro.assignment.idempotency.InMemoryIdempotencyKeyStore;
+import com.abnamro.assignment.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyKeyStore idempotencyKeyStore(IdempotencyProperties properties,
+            IdempotencyKeyRepository repository, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return switch (properties.getStore()) {
+            case IN_MEMORY -> new InMemoryIdempotencyKeyStore(properties.getTtl(), properties.getMaximumKeys(),
+                    meterRegistry);
+            case DATABASE -> new DatabaseIdempotencyKeyStore(repository, objectMapper, properties.getTtl(),
+                    properties.getPurgeInterval(), Clock.systemUTC());
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.abnamro.assignment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@code Idempotency-Key} handling of {@code POST /applications} and
+ * {@code POST /applications/{id}/submit}.
+ */
+@Data
+@ConfigurationProperties(prefix = "onboarding.idempotency")
+public class IdempotencyProperties {
+
+    public enum Store {
+        /**
+         * Bounded in-process map; keys are only known to this instance and lost on restart.
+         */
+        IN_MEMORY,
+        /**
+         * The {@code idempotency_keys} table, shared by all instances using the database.
+         */
+        DATABASE
+    }
+
+    private boolean enabled = true;
+
+    private Store store = Store.IN_MEMORY;
+
+    /**
+     * How long a key and its stored response are kept.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Upper bound on keys held by the in-memory store; the least valuable are evicted beyond it.
+     */
+    private long maximumKeys = 100_000;
+
+    /**
+     * How long a repeated request waits for the original one to finish before it is answered with
+     * {@code 409 Conflict}.
+     */
+    private Duration inFlightTimeout = Duration.ofSeconds(10);
+
+    /**
+     * How often the database store deletes expired keys.
+     */
+    private Duration purgeInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,42 @@
+package com.abnamro.assignment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Settings for the bulk import of applications from a CSV or NDJSON file.
+ */
+@Data
+@ConfigurationProperties(prefix = "onboarding.import")
+public class ImportProperties {
+
+    /**
+     * File imported on startup; {@code .csv} with a header line, or {@code .ndjson}/{@code .jsonl}. Nothing is
+     * imported when unset.
+     */
+    private Path file;
+
+    /**
+     * Where rejected records are written, one {@code <byte offset>\t<reason>\t<record>} entry per line.
+     * Defaults to the imported file with a {@code .rejected} suffix.
+     */
+    private Path rejectedFile;
+
+    /**
+     * Size of the file regions parsed, validated and inserted as one unit of work.
+     */
+    private DataSize chunkSize = DataSize.ofMegabytes(4);
+
+    /**
+     * Number of chunks processed concurrently.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of rows per JDBC batch insert.
+     */
+    private int batchSize = 500;
+}
@@ -0,0 +1,25 @@
+package com.abnamro.assignment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the in-memory application store, active with the {@code in-memory} profile.
+ */
+@Data
+@ConfigurationProperties(prefix = "onboarding.store.in-memory")
+public class InMemoryStoreProperties {
+
+    /**
+     * File the applications are loaded from on startup and written to on shutdown. Nothing is persisted when unset.
+     */
+    private Path snapshot;
+
+    /**
+     * Additionally write the snapshot at this interval while running; only on shutdown when unset.
+     */
+    private Duration snapshotInterval;
+}
@@ -0,0 +1,30 @@
+package com.abnamro.assignment.config;
+
+import com.abnamro.assignment.outbox.FileOutboxSink;
+import com.abnamro.assignment.outbox.InMemoryOutboxSink;
+import com.abnamro.assignment.outbox.OutboxSink;
+import com.abnamro.assignment.outbox.WebhookOutboxSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    public OutboxSink outboxSink(OutboxProperties properties, ObjectMapper objectMapper) {
+        return switch (properties.getSink()) {
+            case IN_MEMORY -> new InMemoryOutboxSink(properties.getInMemory().getCapacity(),
+                    properties.getInMemory().getOfferTimeout());
+            case FILE -> new FileOutboxSink(properties.getFile().getPath(), objectMapper,
+                    properties.getFile().isFsync());
+            case WEBHOOK -> {
+                if (properties.getWebhook().getUrl() == null) {
+                    throw new IllegalStateException("onboarding.outbox.webhook.url is required for the webhook sink");
+                }
+                yield new WebhookOutboxSink(properties.getWebhook().getUrl(), properties.getWebhook().getTimeout(),
+                        objectMapper);
+            }
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package com.abnamro.assignment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the transactional outbox of application events and its relay.
+ */
+@Data
+@ConfigurationProperties(prefix = "onboarding.outbox")
+public class OutboxProperties {
+
+    /**
+     * Run the relay that publishes outbox events. Events are recorded either way.
+     */
+    private boolean relayEnabled = true;
+
+    /**
+     * Where the relay publishes events.
+     */
+    private Sink sink = Sink.FILE;
+
+    /**
+     * Delay between polls of an empty outbox. A full batch is followed by the next one immediately.
+     */
+    private Duration pollInterval = Duration.ofMillis(200);
+
+    /**
+     * Maximum number of events published per sink call.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Upper bound of the exponential back-off after failed publications.
+     */
+    private Duration maxBackoff = Duration.ofSeconds(30);
+
+    private InMemory inMemory = new InMemory();
+
+    private File file = new File();
+
+    private Webhook webhook = new Webhook();
+
+    public enum Sink {
+        /**
+         * Bounded in-process queue, a stand-in for a message broker. Nothing in the service consumes it, so once it
+         * is full every relay run fails; meant for tests.
+         */
+        IN_MEMORY,
+        /**
+         * Appends NDJSON to a local file.
+         */
+        FILE,
+        /**
+         * POSTs each batch as a JSON array to an HTTP endpoint.
+         */
+        WEBHOOK
+    }
+
+    @Data
+    public static class InMemory {
+
+        /**
+         * Number of events the queue holds before publication blocks.
+         */
+        private int capacity = 10_000;
+
+        /**
+         * How long publication waits for room in a full queue before failing the batch.
+         */
+        private Duration offerTimeout = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class File {
+
+        private Path path = Path.of("data", "outbox-events.ndjson");
+
+        /**
+         * Force every batch to disk before it is considered delivered.
+         */
+        private boolean fsync = true;
+    }
+
+    @Data
+    public static class Webhook {
+
+        private URI url;
+
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,42 @@
+package com.abnamro.assignment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for application submission.
+ */
+@Data
+@ConfigurationProperties(prefix = "onboarding.submit")
+public class SubmitProperties {
+
+    private Mode mode = Mode.SYNC;
+
+    /**
+     * Number of worker threads processing submitted applications in {@code async} mode.
+     */
+    private int workers = 4;
+
+    /**
+     * Submitted applications waiting for a worker; further submissions are answered with 503 until room frees up.
+     */
+    private int queueCapacity = 1_000;
+
+    /**
+     * Applications left SUBMITTED for longer than this, e.g. by a restart or a failed check, are queued again.
+     */
+    private Duration recoveryInterval = Duration.ofMinutes(1);
+
+    public enum Mode {
+        /**
+         * Validate, check and complete within the submit request; answered with 200.
+         */
+        SYNC,
+        /**
+         * Validate, mark SUBMITTED and answer 202; checks and completion run on the worker pool.
+         */
+        ASYNC
+    }
+}
@@ -0,0 +1,23 @@
+package com.abnamro.assignment.config;
+
+import com.abnamro.assignment.model.validation.ApplicationSubmitValidator;
+import com.abnamro.assignment.model.validation.BeanValidationSubmitValidator;
+import com.abnamro.assignment.model.validation.CompiledSubmitValidator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.SmartValidator;
+
+import java.time.Clock;
+
+@Configuration
+public class ValidationConfig {
+
+    @Bean
+    public ApplicationSubmitValidator applicationSubmitValidator(ValidationProperties properties,
+            SmartValidator validator) {
+        return switch (properties.getEngine()) {
+            case BEAN_VALIDATION -> new BeanValidationSubmitValidator(validator);
+            case COMPILED -> new CompiledSubmitValidator(Clock.systemDefaultZone());
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.abnamro.assignment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the validation performed when an application is submitted.
+ */
+@Data
+@ConfigurationProperties(prefix = "onboarding.validation")
+public class ValidationProperties {
+
+    /**
+     * Implementation of the submit-time constraint checks.
+     */
+    private Engine engine = Engine.BEAN_VALIDATION;
+
+    public enum Engine {
+        /**
+         * Hibernate Validator over the constraint annotations of the entity.
+         */
+        BEAN_VALIDATION,
+        /**
+         * Hand-compiled checks without reflection; same errors and messages.
+         */
+        COMPILED
+    }
+}
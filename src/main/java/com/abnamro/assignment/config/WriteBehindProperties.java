@@ -0,0 +1,43 @@
+package com.abnamro.assignment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the optional write-behind mode of unconditional draft updates ({@code PATCH} without
+ * {@code If-Match}).
+ */
+@Data
+@ConfigurationProperties(prefix = "onboarding.write-behind")
+public class WriteBehindProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * How often pending draft changes are written to the database.
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /**
+     * Number of pending applications that triggers an early background flush.
+     */
+    private int flushThreshold = 200;
+
+    /**
+     * Upper bound on pending applications; a new application beyond it flushes synchronously in the caller.
+     */
+    private int maxPending = 1_000;
+
+    /**
+     * Append-only journal replayed on startup so acknowledged changes survive a crash.
+     */
+    private Path journal = Path.of("data", "write-behind.journal");
+
+    /**
+     * Force every journal append to disk before acknowledging the update.
+     */
+    private boolean fsync = true;
+}
@@ -0,0 +1,117 @@
+package com.abnamro.assignment.controller;
+
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.exception.PreconditionFailedException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Strong entity tags for applications, of the form {@code "<id>-<version>"} for JSON and
+ * {@code "<id>-<version>-cbor"} for CBOR. The two representations differ byte for byte, so each gets its own tag;
+ * the representation is the one the request's {@code Accept} header selects.
+ */
+final class ApplicationETag {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+    private static final String CBOR_SUFFIX = "-cbor";
+
+    private ApplicationETag() {
+    }
+
+    static String of(UUID id, long version, String accept) {
+        return "\"" + id + "-" + version + (prefersCbor(accept) ? CBOR_SUFFIX : "") + "\"";
+    }
+
+    static String of(ApplicationResponse response, String accept) {
+        return response.getVersion() == null ? null : of(response.getId(), response.getVersion(), accept);
+    }
+
+    /**
+     * Evaluates {@code If-None-Match} against the tag of the selected representation, using weak comparison, as
+     * required by RFC 9110.
+     */
+    static boolean matchesNoneMatch(String ifNoneMatch, UUID id, long version, String accept) {
+        String current = of(id, version, accept);
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith(WEAK_PREFIX)) {
+                candidate = candidate.substring(WEAK_PREFIX.length());
+            }
+            if (ANY.equals(candidate) || current.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Translates {@code If-Match} into the version the client expects, using strong comparison. A tag of either
+     * representation identifies the version, since a write replaces both.
+     *
+     * @return The expected version, or {@code null} when the header is absent or {@code *}.
+     * @throws PreconditionFailedException if no tag in the header can ever match this application.
+     */
+    static Long expectedVersion(String ifMatch, UUID id) {
+        if (ifMatch == null || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String prefix = "\"" + id + "-";
+        Long expected = null;
+        for (String tag : ifMatch.split(",")) {
+            String candidate = tag.trim();
+            if (!candidate.startsWith(prefix) || !candidate.endsWith("\"")) {
+                continue;
+            }
+            String value = candidate.substring(prefix.length(), candidate.length() - 1);
+            if (value.endsWith(CBOR_SUFFIX)) {
+                value = value.substring(0, value.length() - CBOR_SUFFIX.length());
+            }
+            try {
+                long version = Long.parseLong(value);
+                if (expected != null && expected != version) {
+                    throw new PreconditionFailedException("If-Match must reference a single version");
+                }
+                expected = version;
+            } catch (NumberFormatException e) {
+                // not one of our tags, can never match
+            }
+        }
+        if (expected == null) {
+            throw new PreconditionFailedException("Application has been modified since it was last fetched");
+        }
+        return expected;
+    }
+
+    /**
+     * Whether {@code accept} selects CBOR: its most preferred type that the API produces is
+     * {@code application/cbor}, with concrete types ahead of wildcards of the same quality. JSON is the default.
+     */
+    private static boolean prefersCbor(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        List<MediaType> types;
+        try {
+            types = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        MediaType preferred = null;
+        for (MediaType type : types) {
+            if (type.getQualityValue() == 0 || !(type.isCompatibleWith(MediaType.APPLICATION_JSON)
+                    || type.isCompatibleWith(MediaType.APPLICATION_CBOR))) {
+                continue;
+            }
+            if (preferred == null || type.getQualityValue() > preferred.getQualityValue()
+                    || type.getQualityValue() == preferred.getQualityValue() && type.isConcrete()
+                    && !preferred.isConcrete()) {
+                preferred = type;
+            }
+        }
+        return preferred != null && preferred.isConcrete() && preferred.isCompatibleWith(MediaType.APPLICATION_CBOR);
+    }
+}
@@ -0,0 +1,80 @@
+package com.abnamro.assignment.controller;
+
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.repository.ApplicationKeyset;
+import com.abnamro.assignment.service.ApplicationExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams applications as NDJSON. Written by hand rather than generated from the {@code Export} tag of the
+ * specification, because the generated interface can only return a fully materialized body.
+ */
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+public class ApplicationExportController {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ApplicationExportService exportService;
+
+    @GetMapping(value = "/applications:export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportApplications(
+            @RequestParam(defaultValue = "COMPLETED") com.abnamro.assignment.api.model.ApplicationStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            OffsetDateTime afterUpdatedAt,
+            @RequestParam(required = false) UUID afterId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if ((afterUpdatedAt == null) != (afterId == null)) {
+            throw new IllegalArgumentException("afterUpdatedAt and afterId must be given together");
+        }
+        ApplicationStatus domainStatus = ApplicationStatus.valueOf(status.name());
+        ApplicationKeyset after = afterId == null ? null : new ApplicationKeyset(afterUpdatedAt.toInstant(), afterId);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, BUFFER_SIZE);
+                exportService.export(domainStatus, after, compressed);
+                compressed.finish();
+            } else {
+                exportService.export(domainStatus, after, out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
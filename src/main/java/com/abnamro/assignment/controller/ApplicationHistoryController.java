@@ -0,0 +1,35 @@
+package com.abnamro.assignment.controller;
+
+import com.abnamro.assignment.exception.ResourceNotFoundException;
+import com.abnamro.assignment.store.ApplicationChangeEvent;
+import com.abnamro.assignment.store.EventSourcedApplicationStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Change history of an application. Only available with the event-sourced store, the one backend that records
+ * history; not part of the specification for that reason.
+ */
+@RestController
+@RequiredArgsConstructor
+@Profile(EventSourcedApplicationStore.PROFILE)
+public class ApplicationHistoryController {
+
+    private final EventSourcedApplicationStore store;
+
+    @GetMapping(value = "/applications/{id}/history", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<ApplicationChangeEvent> getApplicationHistory(@PathVariable UUID id) {
+        List<ApplicationChangeEvent> history = store.history(id);
+        if (history.isEmpty()) {
+            throw new ResourceNotFoundException("Application not found");
+        }
+        return history;
+    }
+}
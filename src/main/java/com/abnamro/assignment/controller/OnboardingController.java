@@ -1,17 +1,30 @@
 package com.abnamro.assignment.controller;
 
+import com.abnamro.assignment.admission.ClientIdentity;
 import com.abnamro.assignment.api.ApplicationsApi;
+import com.abnamro.assignment.api.model.ApplicationBatchCreateRequest;
+import com.abnamro.assignment.api.model.ApplicationBatchResponse;
+import com.abnamro.assignment.api.model.ApplicationBatchUpdateRequest;
+import com.abnamro.assignment.api.model.AccountType;
 import com.abnamro.assignment.api.model.ApplicationCreateRequest;
+import com.abnamro.assignment.api.model.ApplicationPage;
 import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.api.model.ApplicationStatus;
 import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
+import com.abnamro.assignment.idempotency.IdempotencyService;
+import com.abnamro.assignment.mapper.ApplicationMapper;
 import com.abnamro.assignment.service.OnboardingService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @RestController
@@ -20,30 +33,95 @@ import java.util.UUID;
 public class OnboardingController implements ApplicationsApi {
 
     private final OnboardingService service;
+    private final ApplicationMapper mapper;
+    private final IdempotencyService idempotency;
+    private final ClientIdentity clients;
+    private final HttpServletRequest currentRequest;
 
     @Override
-    public ResponseEntity<ApplicationResponse> createApplication(ApplicationCreateRequest request) {
-        ApplicationResponse response = service.createApplication(request);
-        URI location = ServletUriComponentsBuilder
-                .fromCurrentRequest()
-                .path("/{id}")
-                .buildAndExpand(response.getId())
-                .toUri();
-        return ResponseEntity.created(location).body(response);
+    public ResponseEntity<ApplicationResponse> createApplication(ApplicationCreateRequest request,
+            String idempotencyKey) {
+        ResponseEntity<ApplicationResponse> created = idempotency.execute(clients.of(currentRequest), idempotencyKey,
+                "POST /applications", request, () -> {
+            ApplicationResponse response = service.createApplication(request);
+            URI location = ServletUriComponentsBuilder
+                    .fromCurrentRequest()
+                    .path("/{id}")
+                    .buildAndExpand(response.getId())
+                    .toUri();
+            return ResponseEntity.created(location).body(response);
+        });
+        // Tagged after the idempotency check, so a replay gets the tag of the representation it asks for
+        return withETag(created);
     }
 
     @Override
-    public ResponseEntity<ApplicationResponse> getApplication(UUID id) {
-        return ResponseEntity.ok(service.getApplication(id));
+    public ResponseEntity<ApplicationPage> listApplications(ApplicationStatus status, AccountType accountType,
+            OffsetDateTime createdFrom, OffsetDateTime createdTo, OffsetDateTime updatedFrom, OffsetDateTime updatedTo,
+            String email, Integer limit, String cursor) {
+        return ResponseEntity.ok(service.listApplications(
+                mapper.toSearchCriteria(status, accountType, createdFrom, createdTo, updatedFrom, updatedTo, email),
+                cursor, limit));
     }
 
     @Override
-    public ResponseEntity<ApplicationResponse> updateApplication(UUID id, ApplicationUpdateRequest request) {
-        return ResponseEntity.ok(service.updateApplication(id, request));
+    public ResponseEntity<ApplicationResponse> getApplication(UUID id, String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            long version = service.getApplicationVersion(id);
+            String accept = currentRequest.getHeader(HttpHeaders.ACCEPT);
+            if (ApplicationETag.matchesNoneMatch(ifNoneMatch, id, version, accept)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ApplicationETag.of(id, version, accept))
+                        .build();
+            }
+        }
+        return withETag(service.getApplication(id));
     }
 
     @Override
-    public ResponseEntity<ApplicationResponse> submitApplication(UUID id) {
-        return ResponseEntity.ok(service.submitApplication(id));
+    public ResponseEntity<ApplicationResponse> updateApplication(UUID id, ApplicationUpdateRequest request,
+            String ifMatch) {
+        return withETag(service.updateApplication(id, request, ApplicationETag.expectedVersion(ifMatch, id)));
+    }
+
+    @Override
+    public ResponseEntity<ApplicationResponse> submitApplication(UUID id, String ifMatch, String idempotencyKey) {
+        ResponseEntity<ApplicationResponse> submitted = idempotency.execute(clients.of(currentRequest),
+                idempotencyKey, "POST /applications/" + id + "/submit", ifMatch, () -> {
+            ApplicationResponse response = service.submitApplication(id, ApplicationETag.expectedVersion(ifMatch, id));
+            if (response.getStatus() == ApplicationStatus.SUBMITTED) {
+                // Accepted for asynchronous processing; the application resource reports the outcome
+                URI status = ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/applications/{id}")
+                        .buildAndExpand(id)
+                        .toUri();
+                return ResponseEntity.accepted().location(status).body(response);
+            }
+            return ResponseEntity.ok(response);
+        });
+        return withETag(submitted);
+    }
+
+    @Override
+    public ResponseEntity<ApplicationBatchResponse> createApplicationsBatch(ApplicationBatchCreateRequest request) {
+        return ResponseEntity.ok(service.createApplications(request.getItems()));
+    }
+
+    @Override
+    public ResponseEntity<ApplicationBatchResponse> updateApplicationsBatch(ApplicationBatchUpdateRequest request) {
+        return ResponseEntity.ok(service.updateApplications(request.getItems()));
+    }
+
+    private ResponseEntity<ApplicationResponse> withETag(ApplicationResponse response) {
+        return withETag(ResponseEntity.ok(response));
+    }
+
+    private ResponseEntity<ApplicationResponse> withETag(ResponseEntity<ApplicationResponse> entity) {
+        ApplicationResponse response = entity.getBody();
+        String eTag = response == null ? null
+                : ApplicationETag.of(response, currentRequest.getHeader(HttpHeaders.ACCEPT));
+        if (eTag == null) {
+            return entity;
+        }
+        return ResponseEntity.status(entity.getStatusCode()).headers(entity.getHeaders()).eTag(eTag).body(response);
     }
 }
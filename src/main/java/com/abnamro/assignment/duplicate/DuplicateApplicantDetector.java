@@ -0,0 +1,229 @@
+package com.abnamro.assignment.duplicate;
+
+import com.abnamro.assignment.archive.ApplicationArchive;
+import com.abnamro.assignment.config.DuplicateDetectionProperties;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.ApplicantKey;
+import com.abnamro.assignment.repository.ApplicantMatch;
+import com.abnamro.assignment.store.ApplicationStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Finds an earlier application of the same applicant by {@link ApplicantKey}: ID document, email address, or name
+ * and date of birth, in that order.
+ * <p>
+ * Every key is one indexed lookup in the {@link ApplicationStore}, and one in the {@link ApplicationArchive} when
+ * the store has no match. Most applicants are new, so a {@link BloomFilter}
+ * of all stored keys sits in front of the lookups and answers those for unknown keys from memory. It is filled on
+ * startup, fed through {@link #register} before every save that may change keys, and rebuilt every
+ * {@code rebuild-interval}, which also picks up keys saved by other instances. A rebuild may scan the store before
+ * a registered save commits, so it also adds every key registered since the previous rebuild started. A match is a hint for review, not a
+ * guarantee: a key saved by another instance since the last rebuild can be missed. Lookups are counted as
+ * {@code onboarding.duplicates.lookups{result}}.
+ */
+@Slf4j
+@Component
+public class DuplicateApplicantDetector {
+
+    private final DuplicateDetectionProperties properties;
+    private final ApplicationStore store;
+    private final ApplicationArchive archive;
+    private final Counter filtered;
+    private final Counter matched;
+    private final Counter unmatched;
+
+    /**
+     * {@code null} while disabled or not built yet; every key then goes to the store.
+     */
+    private volatile BloomFilter filter;
+
+    /**
+     * The filter being rebuilt, which must receive registered keys too.
+     */
+    private volatile BloomFilter rebuilding;
+
+    /**
+     * Filter keys registered since the last rebuild started; swapped under the write lock, so every key lands either
+     * in the queue the next rebuild carries over or in the filter being rebuilt.
+     */
+    private Queue<String> registered = new ConcurrentLinkedQueue<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private ScheduledExecutorService rebuilds;
+
+    public DuplicateApplicantDetector(DuplicateDetectionProperties properties, ApplicationStore store,
+            ApplicationArchive archive, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.store = store;
+        this.archive = archive;
+        this.filtered = meterRegistry.counter("onboarding.duplicates.lookups", "result", "filtered");
+        this.matched = meterRegistry.counter("onboarding.duplicates.lookups", "result", "matched");
+        this.unmatched = meterRegistry.counter("onboarding.duplicates.lookups", "result", "unmatched");
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled() || !properties.getBloomFilter().isEnabled()) {
+            return;
+        }
+        rebuild();
+        long interval = properties.getBloomFilter().getRebuildInterval().toMillis();
+        rebuilds = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "duplicate-filter-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuilds.scheduleWithFixedDelay(this::rebuildInBackground, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (rebuilds != null) {
+            rebuilds.shutdownNow();
+        }
+    }
+
+    /**
+     * The oldest other application in the store, or else in the archive, that shares the strongest key with
+     * {@code application}, if any.
+     */
+    public Optional<DuplicateMatch> findDuplicate(AccountApplication application) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        for (ApplicantKey key : ApplicantKey.values()) {
+            String value = key.of(application);
+            if (value == null) {
+                continue;
+            }
+            BloomFilter current = filter;
+            if (current != null && !current.mightContain(filterKey(key, value))) {
+                filtered.increment();
+                continue;
+            }
+            // One more than needed, in case the application itself is among the matches
+            for (ApplicantMatch match : store.findByApplicantKey(key, value, 2)) {
+                if (!match.id().equals(application.getId())) {
+                    matched.increment();
+                    return Optional.of(new DuplicateMatch(match.id(), key));
+                }
+            }
+            Optional<UUID> archived = archive.findByApplicantKey(key, value);
+            if (archived.isPresent()) {
+                matched.increment();
+                return Optional.of(new DuplicateMatch(archived.get(), key));
+            }
+            unmatched.increment();
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Adds the keys of an application to the filter; to be called before it is saved, so a concurrent lookup can
+     * never skip a key that is already stored. The keys are also kept for the next rebuild, whose scan may run
+     * before the save commits.
+     */
+    public void register(AccountApplication application) {
+        if (!properties.isEnabled() || !properties.getBloomFilter().isEnabled()) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            BloomFilter current = filter;
+            BloomFilter next = rebuilding;
+            for (ApplicantKey key : ApplicantKey.values()) {
+                String value = key.of(application);
+                if (value != null) {
+                    String filterKey = filterKey(key, value);
+                    registered.add(filterKey);
+                    if (current != null) {
+                        current.put(filterKey);
+                    }
+                    if (next != null) {
+                        next.put(filterKey);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the filter with one built from the keys in the store and the archive.
+     */
+    void rebuild() {
+        DuplicateDetectionProperties.BloomFilter settings = properties.getBloomFilter();
+        BloomFilter next = new BloomFilter(settings.getExpectedKeys(), settings.getFalsePositiveRate());
+        Queue<String> carried;
+        lock.writeLock().lock();
+        try {
+            carried = registered;
+            registered = new ConcurrentLinkedQueue<>();
+            rebuilding = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long[] keys = new long[1];
+        boolean published = false;
+        try {
+            BiConsumer<ApplicantKey, String> add = (key, value) -> {
+                next.put(filterKey(key, value));
+                keys[0]++;
+            };
+            store.forEachApplicantKey(add);
+            archive.forEachApplicantKey(add);
+            // Registered before this rebuild started, but their saves may have committed after the scan above
+            carried.forEach(next::put);
+            lock.writeLock().lock();
+            try {
+                filter = next;
+                rebuilding = null;
+                published = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            if (!published) {
+                lock.writeLock().lock();
+                try {
+                    rebuilding = null;
+                    // Still needed by the next rebuild
+                    registered.addAll(carried);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+        log.debug("Rebuilt duplicate applicant filter with {} keys", keys[0]);
+    }
+
+    private void rebuildInBackground() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Rebuilding the duplicate applicant filter failed", e);
+        }
+    }
+
+    private static String filterKey(ApplicantKey key, String value) {
+        return key.ordinal() + ":" + value;
+    }
+}
@@ -0,0 +1,11 @@
+package com.abnamro.assignment.duplicate;
+
+import com.abnamro.assignment.model.ApplicantKey;
+
+import java.util.UUID;
+
+/**
+ * An earlier application of what appears to be the same applicant, and the key that matched.
+ */
+public record DuplicateMatch(UUID applicationId, ApplicantKey key) {
+}
@@ -1,5 +1,10 @@
 package com.abnamro.assignment.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -13,9 +18,27 @@ import java.util.HashMap;
 import java.util.Map;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
-    private ResponseEntity<ProblemDetail> handleBindingResult(BindingResult bindingResult) {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    /**
+     * Counts every handled outcome as {@code onboarding.errors{status, exception}} before returning it.
+     */
+    private ResponseEntity<ProblemDetail> respond(HttpStatus status, ProblemDetail problemDetail, Exception ex) {
+        return respond(status, problemDetail, ex, HttpHeaders.EMPTY);
+    }
+
+    private ResponseEntity<ProblemDetail> respond(HttpStatus status, ProblemDetail problemDetail, Exception ex,
+            HttpHeaders headers) {
+        meterRegistry.ifAvailable(registry -> registry.counter("onboarding.errors",
+                "status", String.valueOf(status.value()),
+                "exception", ex.getClass().getSimpleName()).increment());
+        return ResponseEntity.status(status).headers(headers).body(problemDetail);
+    }
+
+    private ResponseEntity<ProblemDetail> handleBindingResult(BindingResult bindingResult, Exception ex) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Validation Failed");
         Map<String, String> errors = new HashMap<>();
         bindingResult.getAllErrors().forEach((error) -> {
@@ -26,35 +49,48 @@ public class GlobalExceptionHandler {
             }
         });
         problemDetail.setProperty("errors", errors);
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(problemDetail);
+        return respond(HttpStatus.BAD_REQUEST, problemDetail, ex);
     }
 
     @ExceptionHandler(org.springframework.validation.BindException.class)
     public ResponseEntity<ProblemDetail> handleValidationExceptions(org.springframework.validation.BindException ex) {
-        return handleBindingResult(ex.getBindingResult());
+        return handleBindingResult(ex.getBindingResult(), ex);
     }
 
     @ExceptionHandler(ApplicationValidationException.class)
     public ResponseEntity<ProblemDetail> handleApplicationValidationException(ApplicationValidationException ex) {
-        return handleBindingResult(ex.getBindingResult());
+        return handleBindingResult(ex.getBindingResult(), ex);
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ProblemDetail> handleIllegalArgument(IllegalArgumentException ex) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(problemDetail);
+        return respond(HttpStatus.BAD_REQUEST, problemDetail, ex);
     }
 
     @ExceptionHandler(IllegalStateException.class)
     public ResponseEntity<ProblemDetail> handleIllegalState(IllegalStateException ex) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage());
-        return ResponseEntity.status(HttpStatus.CONFLICT).body(problemDetail);
+        return respond(HttpStatus.CONFLICT, problemDetail, ex);
     }
 
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ProblemDetail> handleResourceNotFound(ResourceNotFoundException ex) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(problemDetail);
+        return respond(HttpStatus.NOT_FOUND, problemDetail, ex);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ProblemDetail> handlePreconditionFailed(PreconditionFailedException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+        return respond(HttpStatus.PRECONDITION_FAILED, problemDetail, ex);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ProblemDetail> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                "Application was modified concurrently, please retry");
+        return respond(HttpStatus.CONFLICT, problemDetail, ex);
     }
 
     @ExceptionHandler(jakarta.validation.ConstraintViolationException.class)
@@ -67,7 +103,7 @@ public class GlobalExceptionHandler {
             errors.put(propertyPath, message);
         });
         problemDetail.setProperty("errors", errors);
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(problemDetail);
+        return respond(HttpStatus.BAD_REQUEST, problemDetail, ex);
     }
 
     @ExceptionHandler(org.springframework.transaction.TransactionSystemException.class)
@@ -78,13 +114,37 @@ public class GlobalExceptionHandler {
         }
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR,
                 "Transaction failed");
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(problemDetail);
+        return respond(HttpStatus.INTERNAL_SERVER_ERROR, problemDetail, ex);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ProblemDetail> handleServiceOverloaded(ServiceOverloadedException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+                ex.getMessage());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())));
+        return respond(HttpStatus.SERVICE_UNAVAILABLE, problemDetail, ex, headers);
+    }
+
+    @ExceptionHandler(IdempotencyKeyInUseException.class)
+    public ResponseEntity<ProblemDetail> handleIdempotencyKeyInUse(IdempotencyKeyInUseException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())));
+        return respond(HttpStatus.CONFLICT, problemDetail, ex, headers);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ProblemDetail> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.UNPROCESSABLE_ENTITY,
+                ex.getMessage());
+        return respond(HttpStatus.UNPROCESSABLE_ENTITY, problemDetail, ex);
     }
 
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<ProblemDetail> handleHttpMessageNotReadable(HttpMessageNotReadableException ex) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST,
                 "Malformed JSON request");
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(problemDetail);
+        return respond(HttpStatus.BAD_REQUEST, problemDetail, ex);
     }
 }
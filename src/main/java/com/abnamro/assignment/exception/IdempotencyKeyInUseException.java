@@ -0,0 +1,21 @@
+package com.abnamro.assignment.exception;
+
+import java.time.Duration;
+
+/**
+ * Another request with the same {@code Idempotency-Key} is still in progress; answered with {@code 409 Conflict}
+ * and a {@code Retry-After} hint.
+ */
+public class IdempotencyKeyInUseException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public IdempotencyKeyInUseException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
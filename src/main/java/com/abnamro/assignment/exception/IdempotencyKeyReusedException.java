@@ -0,0 +1,11 @@
+package com.abnamro.assignment.exception;
+
+/**
+ * The {@code Idempotency-Key} was already used for a different request; answered with
+ * {@code 422 Unprocessable Entity}.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
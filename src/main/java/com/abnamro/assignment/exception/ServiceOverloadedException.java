@@ -0,0 +1,21 @@
+package com.abnamro.assignment.exception;
+
+import java.time.Duration;
+
+/**
+ * The request was not processed because the service is temporarily at capacity; answered with
+ * {@code 503 Service Unavailable} and a {@code Retry-After} hint.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
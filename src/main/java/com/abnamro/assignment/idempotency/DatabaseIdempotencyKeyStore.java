@@ -0,0 +1,132 @@
+package com.abnamro.assignment.idempotency;
+
+import com.abnamro.assignment.model.IdempotencyKey;
+import com.abnamro.assignment.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IdempotencyKeyStore} in the {@code idempotency_keys} table, so a key is honoured by every instance sharing
+ * the database. The primary key makes claims atomic; requests waiting for another instance poll the row. Expired
+ * keys are ignored and deleted every {@code purgeInterval}.
+ */
+@Slf4j
+public class DatabaseIdempotencyKeyStore implements IdempotencyKeyStore {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+
+    private final IdempotencyKeyRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration purgeInterval;
+    private final Clock clock;
+
+    private ScheduledExecutorService purger;
+
+    public DatabaseIdempotencyKeyStore(IdempotencyKeyRepository repository, ObjectMapper objectMapper, Duration ttl,
+            Duration purgeInterval, Clock clock) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.purgeInterval = purgeInterval;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void start() {
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-key-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = purgeInterval.toMillis();
+        purger.scheduleWithFixedDelay(this::purge, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        purger.shutdown();
+    }
+
+    @Override
+    public Optional<KeyState> claim(String key, String fingerprint) {
+        Instant now = clock.instant();
+        try {
+            repository.saveAndFlush(new IdempotencyKey(key, fingerprint, null, now, now.plus(ttl)));
+            return Optional.empty();
+        } catch (DataIntegrityViolationException e) {
+            Optional<IdempotencyKey> existing = repository.findById(key);
+            if (existing.isEmpty()) {
+                // Released in the meantime
+                return claim(key, fingerprint);
+            }
+            if (existing.get().getExpiresAt().isBefore(now)) {
+                repository.release(key);
+                return claim(key, fingerprint);
+            }
+            return existing.map(this::stateOf);
+        }
+    }
+
+    @Override
+    public Optional<KeyState> await(String key, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            Optional<KeyState> state = repository.findById(key).map(this::stateOf);
+            if (state.isEmpty() || !state.get().inProgress() || System.nanoTime() >= deadline) {
+                return state;
+            }
+            Thread.sleep(Math.min(POLL_INTERVAL.toMillis(),
+                    Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()))));
+        }
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        try {
+            repository.complete(key, objectMapper.writeValueAsString(response));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot serialize stored response", e);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        repository.release(key);
+    }
+
+    void purge() {
+        try {
+            int deleted = repository.deleteExpired(clock.instant());
+            if (deleted > 0) {
+                log.debug("Deleted {} expired idempotency keys", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.error("Purging expired idempotency keys failed", e);
+        }
+    }
+
+    private KeyState stateOf(IdempotencyKey key) {
+        if (key.getResponse() == null) {
+            return new KeyState(key.getFingerprint(), null);
+        }
+        try {
+            return new KeyState(key.getFingerprint(), objectMapper.readValue(key.getResponse(), StoredResponse.class));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot read stored response of idempotency key " + key.getKey(), e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.abnamro.assignment.idempotency;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Keeps idempotency keys with the fingerprint of the request that claimed them and, once it finished, its response.
+ */
+public interface IdempotencyKeyStore {
+
+    /**
+     * The state of a claimed key.
+     *
+     * @param fingerprint Identifies the request that claimed the key.
+     * @param response    The stored response, or {@code null} while that request is still in progress.
+     */
+    record KeyState(String fingerprint, StoredResponse response) {
+
+        public boolean inProgress() {
+            return response == null;
+        }
+    }
+
+    /**
+     * Claims {@code key} for a request, unless it is already claimed.
+     *
+     * @return Empty if this call claimed the key, otherwise its current state.
+     */
+    Optional<KeyState> claim(String key, String fingerprint);
+
+    /**
+     * Waits up to {@code timeout} for the request holding {@code key} to finish.
+     *
+     * @return The state at the end of the wait, or empty if the key was released, so it can be claimed again.
+     */
+    Optional<KeyState> await(String key, Duration timeout) throws InterruptedException;
+
+    /**
+     * Stores the response of the request holding {@code key}.
+     */
+    void complete(String key, StoredResponse response);
+
+    /**
+     * Forgets a claimed key after its request failed.
+     */
+    void release(String key);
+}
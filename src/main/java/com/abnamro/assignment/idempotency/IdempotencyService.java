@@ -0,0 +1,159 @@
+package com.abnamro.assignment.idempotency;
+
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.config.IdempotencyProperties;
+import com.abnamro.assignment.exception.IdempotencyKeyInUseException;
+import com.abnamro.assignment.exception.IdempotencyKeyReusedException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Executes a request at most once per client and {@code Idempotency-Key}.
+ * <p>
+ * The first request with a key claims it, runs and stores its response; a repeat with the same key and an equal
+ * request gets the stored response without running again. A repeat that arrives while the first is still running
+ * waits for it up to {@code onboarding.idempotency.in-flight-timeout}. A request that throws releases its key, so
+ * nothing is stored for failures and the client can retry with the same key. Outcomes are counted as
+ * {@code onboarding.idempotency.requests{outcome}}. Keys are scoped to the client, so two clients that pick the same
+ * key never see each other's requests.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyProperties properties;
+    private final IdempotencyKeyStore store;
+    private final ObjectMapper objectMapper;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter inUse;
+    private final Counter reused;
+
+    public IdempotencyService(IdempotencyProperties properties, IdempotencyKeyStore store, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.executed = meterRegistry.counter("onboarding.idempotency.requests", "outcome", "executed");
+        this.replayed = meterRegistry.counter("onboarding.idempotency.requests", "outcome", "replayed");
+        this.inUse = meterRegistry.counter("onboarding.idempotency.requests", "outcome", "in_use");
+        this.reused = meterRegistry.counter("onboarding.idempotency.requests", "outcome", "reused");
+    }
+
+    /**
+     * Runs {@code action} unless a request of {@code client} with {@code key} already did.
+     *
+     * @param client    Identifies the client, as resolved by {@code ClientIdentity}; the key is scoped to it.
+     * @param key       The {@code Idempotency-Key} header; {@code action} simply runs when it is {@code null}.
+     * @param operation Identifies the endpoint and target, e.g. {@code POST /applications}; part of the request
+     *                  fingerprint, so a key cannot be replayed against another operation.
+     * @param request   The request body, or {@code null}; part of the request fingerprint.
+     * @throws IdempotencyKeyReusedException if the key was used for a different request.
+     * @throws IdempotencyKeyInUseException  if the request holding the key did not finish in time.
+     */
+    public ResponseEntity<ApplicationResponse> execute(String client, String idempotencyKey, String operation,
+            Object request, Supplier<ResponseEntity<ApplicationResponse>> action) {
+        if (idempotencyKey == null || !properties.isEnabled()) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must have 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        // The client goes first and is length-prefixed, so no client/key pair can collide with another
+        String key = client.length() + ":" + client + ":" + idempotencyKey;
+        String fingerprint = fingerprint(operation, request);
+        long deadline = System.nanoTime() + properties.getInFlightTimeout().toNanos();
+        while (true) {
+            Optional<IdempotencyKeyStore.KeyState> existing = store.claim(key, fingerprint);
+            if (existing.isEmpty()) {
+                return executeClaimed(key, action);
+            }
+            checkFingerprint(existing.get(), fingerprint);
+            if (!existing.get().inProgress()) {
+                replayed.increment();
+                return existing.get().response().toResponseEntity();
+            }
+            Optional<IdempotencyKeyStore.KeyState> finished = await(key, deadline);
+            if (finished.isEmpty()) {
+                // The request holding the key failed and released it; this one may run instead
+                continue;
+            }
+            checkFingerprint(finished.get(), fingerprint);
+            if (finished.get().inProgress()) {
+                inUse.increment();
+                throw new IdempotencyKeyInUseException("A request with this Idempotency-Key is still in progress",
+                        Duration.ofSeconds(1));
+            }
+            replayed.increment();
+            return finished.get().response().toResponseEntity();
+        }
+    }
+
+    private ResponseEntity<ApplicationResponse> executeClaimed(String key,
+            Supplier<ResponseEntity<ApplicationResponse>> action) {
+        ResponseEntity<ApplicationResponse> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            store.release(key);
+            throw e;
+        }
+        try {
+            store.complete(key, StoredResponse.of(response));
+        } catch (RuntimeException e) {
+            // Better a possible second execution on retry than a key that stays in progress until it expires
+            log.error("Cannot store the response for an Idempotency-Key; releasing it", e);
+            store.release(key);
+        }
+        executed.increment();
+        return response;
+    }
+
+    private Optional<IdempotencyKeyStore.KeyState> await(String key, long deadline) {
+        try {
+            return store.await(key, Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInUseException("Interrupted while waiting for a request with this "
+                    + "Idempotency-Key", Duration.ofSeconds(1));
+        }
+    }
+
+    private void checkFingerprint(IdempotencyKeyStore.KeyState state, String fingerprint) {
+        if (!state.fingerprint().equals(fingerprint)) {
+            reused.increment();
+            throw new IdempotencyKeyReusedException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    /**
+     * The operation followed by a SHA-256 digest of the request body as JSON.
+     */
+    private String fingerprint(String operation, Object request) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(request);
+            return operation + " " + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot fingerprint request", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.abnamro.assignment.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link IdempotencyKeyStore} in a bounded Caffeine cache whose entries expire {@code ttl} after the claim.
+ * Waiting requests block on a future completed by the request holding the key, so they are woken without polling.
+ * <p>
+ * Hit, miss, eviction and size metrics are published under the {@code cache.*} meters with
+ * {@code cache=idempotency-keys}.
+ */
+public class InMemoryIdempotencyKeyStore implements IdempotencyKeyStore {
+
+    /**
+     * @param response Completed with the stored response, or with {@code null} when the key is released.
+     */
+    private record Entry(String fingerprint, CompletableFuture<StoredResponse> response) {
+
+        KeyState state() {
+            return new KeyState(fingerprint, response.getNow(null));
+        }
+    }
+
+    private final Cache<String, Entry> keys;
+
+    public InMemoryIdempotencyKeyStore(Duration ttl, long maximumKeys, MeterRegistry meterRegistry) {
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, keys, "idempotency-keys");
+    }
+
+    @Override
+    public Optional<KeyState> claim(String key, String fingerprint) {
+        Entry existing = keys.asMap().putIfAbsent(key, new Entry(fingerprint, new CompletableFuture<>()));
+        return Optional.ofNullable(existing).map(Entry::state);
+    }
+
+    @Override
+    public Optional<KeyState> await(String key, Duration timeout) throws InterruptedException {
+        Entry entry = keys.getIfPresent(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        try {
+            StoredResponse response = entry.response().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return response == null ? Optional.empty() : Optional.of(new KeyState(entry.fingerprint(), response));
+        } catch (TimeoutException e) {
+            return Optional.of(entry.state());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Idempotency key future failed", e);
+        }
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        Entry entry = keys.getIfPresent(key);
+        if (entry != null) {
+            entry.response().complete(response);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        Entry entry = keys.asMap().remove(key);
+        if (entry != null) {
+            entry.response().complete(null);
+        }
+    }
+}
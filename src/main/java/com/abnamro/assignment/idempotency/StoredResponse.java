@@ -0,0 +1,31 @@
+package com.abnamro.assignment.idempotency;
+
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+
+/**
+ * The parts of a response that are replayed for a repeated request.
+ */
+public record StoredResponse(int status, String location, String eTag, ApplicationResponse body) {
+
+    public static StoredResponse of(ResponseEntity<ApplicationResponse> response) {
+        HttpHeaders headers = response.getHeaders();
+        return new StoredResponse(response.getStatusCode().value(), headers.getFirst(HttpHeaders.LOCATION),
+                headers.getETag(), response.getBody());
+    }
+
+    ResponseEntity<ApplicationResponse> toResponseEntity() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .header(IdempotencyService.REPLAYED_HEADER, "true");
+        if (location != null) {
+            response.location(URI.create(location));
+        }
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return response.body(body);
+    }
+}
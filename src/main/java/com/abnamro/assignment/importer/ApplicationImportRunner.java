@@ -0,0 +1,26 @@
+package com.abnamro.assignment.importer;
+
+import com.abnamro.assignment.config.ImportProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Imports {@code onboarding.import.file} on startup, e.g.
+ * {@code java -jar app.jar --onboarding.import.file=legacy-applications.csv}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "onboarding.import", name = "file")
+@RequiredArgsConstructor
+public class ApplicationImportRunner implements ApplicationRunner {
+
+    private final ApplicationImporter importer;
+    private final ImportProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        importer.importFile(properties.getFile());
+    }
+}
@@ -0,0 +1,371 @@
+package com.abnamro.assignment.importer;
+
+import com.abnamro.assignment.config.ImportProperties;
+import com.abnamro.assignment.duplicate.DuplicateApplicantDetector;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.AccountType;
+import com.abnamro.assignment.model.Address;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.model.id.TimeOrderedUuidGenerator;
+import com.abnamro.assignment.model.validation.OnSubmit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of applications from a CSV or NDJSON file.
+ * <p>
+ * The file is cut into {@code chunk-size} regions at line boundaries. Chunks are memory-mapped, parsed and
+ * validated against the {@link AccountApplication} constraints in parallel, and their valid records are inserted
+ * with JDBC batch statements, one transaction per chunk, bypassing the persistence context entirely. If a chunk
+ * fails to insert, its records are retried in transactions of {@code batch-size} records, and those of a failing
+ * batch one at a time, so only the offending records are lost. Records that cannot be parsed, fail validation or
+ * fail to insert are written to the rejected-record file. Inserted records are registered with the
+ * {@link DuplicateApplicantDetector}, so later applications of the same applicant are matched against them.
+ * <p>
+ * Imported applications get new time-ordered ids. {@code createdAt}/{@code updatedAt} are taken from the record
+ * when present, so the legacy history is kept; {@code status} defaults to {@code DRAFT}, and non-draft records are
+ * also held to the submit constraints. {@code SUBMITTED} records are rejected, since they would wait for processing
+ * that never comes.
+ */
+@Slf4j
+@Component
+public class ApplicationImporter {
+
+    private static final String INSERT = """
+            insert into account_applications (id, version, status, street_name, house_number, post_code, city, name,
+                date_of_birth, id_document, account_type, starting_balance, monthly_salary,
+                interested_in_other_products, email, created_at, updated_at, id_document_key, email_key,
+                name_date_of_birth_key, submitted_applicant_key)
+            values (?, 0, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private final ImportProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final DuplicateApplicantDetector duplicates;
+    private final Counter importedCounter;
+    private final Counter rejectedCounter;
+
+    public ApplicationImporter(ImportProperties properties, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, Validator validator, ObjectMapper objectMapper,
+            DuplicateApplicantDetector duplicates, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.duplicates = duplicates;
+        this.importedCounter = meterRegistry.counter("onboarding.import.records", "outcome", "imported");
+        this.rejectedCounter = meterRegistry.counter("onboarding.import.records", "outcome", "rejected");
+    }
+
+    public ImportReport importFile(Path file) {
+        ImportFormat format = ImportFormat.of(file);
+        Path rejectedFile = properties.getRejectedFile() != null
+                ? properties.getRejectedFile()
+                : file.resolveSibling(file.getFileName() + ".rejected");
+        long start = System.nanoTime();
+        log.info("Importing {} applications from {}", format, file);
+
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, properties.getParallelism()),
+                workerThreadFactory());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                RejectedRecordWriter rejected = new RejectedRecordWriter(rejectedFile)) {
+            long size = channel.size();
+            long offset = 0;
+            RecordParser parser;
+            if (format == ImportFormat.CSV) {
+                long headerEnd = lineEnd(channel, 0, size);
+                parser = RecordParser.csv(decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, headerEnd)));
+                offset = Math.min(size, headerEnd + 1);
+            } else {
+                parser = RecordParser.ndjson(objectMapper);
+            }
+
+            LongAdder imported = new LongAdder();
+            List<Future<?>> chunks = new ArrayList<>();
+            long chunkSize = Math.max(1, properties.getChunkSize().toBytes());
+            while (offset < size) {
+                long end = lineEnd(channel, Math.min(size, offset + chunkSize), size);
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, offset, end - offset);
+                long chunkOffset = offset;
+                chunks.add(workers.submit(() -> imported.add(importChunk(region, chunkOffset, parser, rejected))));
+                offset = end + 1;
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+
+            ImportReport report = new ImportReport(imported.sum(), rejected.count(), rejected.path(),
+                    Duration.ofNanos(System.nanoTime() - start));
+            log.info("Imported {} and rejected {} applications from {} in {} ({} rows/s){}", report.imported(),
+                    report.rejected(), file, report.elapsed(), Math.round(report.rowsPerSecond()),
+                    report.rejectedFile() == null ? "" : ", rejected records in " + report.rejectedFile());
+            return report;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot import " + file, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Import of " + file + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import of " + file + " was interrupted", e);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Parses, validates and inserts the records of one chunk.
+     *
+     * @return The number of records inserted.
+     */
+    private long importChunk(ByteBuffer region, long regionOffset, RecordParser parser,
+            RejectedRecordWriter rejected) {
+        List<AccountApplication> valid = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        int lineStart = 0;
+        int limit = region.limit();
+        for (int i = 0; i <= limit; i++) {
+            if (i < limit && region.get(i) != '\n') {
+                continue;
+            }
+            int lineEnd = i > lineStart && region.get(i - 1) == '\r' ? i - 1 : i;
+            if (lineEnd > lineStart) {
+                String line = decode(region.slice(lineStart, lineEnd - lineStart));
+                long offset = regionOffset + lineStart;
+                String error;
+                try {
+                    AccountApplication application = toApplication(parser.parse(line));
+                    error = validate(application);
+                    if (error == null) {
+                        valid.add(application);
+                        lines.add(line);
+                        offsets.add(offset);
+                    }
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    error = e.getMessage();
+                }
+                if (error != null) {
+                    rejected.reject(offset, error, line);
+                    rejectedCounter.increment();
+                }
+            }
+            lineStart = i + 1;
+        }
+
+        long inserted = insert(valid, lines, offsets, regionOffset, rejected);
+        importedCounter.increment(inserted);
+        return inserted;
+    }
+
+    /**
+     * Inserts the valid records of a chunk in one transaction, falling back to transactions of {@code batch-size}
+     * records and then to single records if that fails. Records that still fail are rejected.
+     *
+     * @return The number of records inserted.
+     */
+    private long insert(List<AccountApplication> applications, List<String> lines, List<Long> offsets,
+            long regionOffset, RejectedRecordWriter rejected) {
+        // Before the insert, so a concurrent lookup can never skip a stored key
+        applications.forEach(duplicates::register);
+        try {
+            insert(applications);
+            return applications.size();
+        } catch (DataAccessException e) {
+            log.warn("Batch insert of {} applications at offset {} failed, retrying in smaller batches",
+                    applications.size(), regionOffset, e);
+        }
+
+        long inserted = 0;
+        int batchSize = Math.max(1, properties.getBatchSize());
+        for (int from = 0; from < applications.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, applications.size());
+            try {
+                insert(applications.subList(from, to));
+                inserted += to - from;
+                continue;
+            } catch (DataAccessException e) {
+                log.debug("Batch insert at offset {} failed, retrying records individually", offsets.get(from), e);
+            }
+            for (int i = from; i < to; i++) {
+                try {
+                    insert(List.of(applications.get(i)));
+                    inserted++;
+                } catch (DataAccessException e) {
+                    rejected.reject(offsets.get(i), "Insert failed: " + e.getMostSpecificCause().getMessage(),
+                            lines.get(i));
+                    rejectedCounter.increment();
+                }
+            }
+        }
+        return inserted;
+    }
+
+    private void insert(List<AccountApplication> applications) {
+        if (applications.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(tx -> jdbcTemplate.batchUpdate(INSERT, applications,
+                properties.getBatchSize(), ApplicationImporter::bind));
+    }
+
+    private static void bind(PreparedStatement ps, AccountApplication application) throws SQLException {
+        Address address = application.getAddress() != null ? application.getAddress() : new Address();
+        ps.setObject(1, application.getId());
+        ps.setString(2, application.getStatus().name());
+        ps.setString(3, address.getStreetName());
+        ps.setString(4, address.getHouseNumber());
+        ps.setString(5, address.getPostCode());
+        ps.setString(6, address.getCity());
+        ps.setString(7, application.getName());
+        ps.setObject(8, application.getDateOfBirth(), Types.DATE);
+        ps.setString(9, application.getIdDocument());
+        ps.setString(10, application.getAccountType() == null ? null : application.getAccountType().name());
+        ps.setBigDecimal(11, application.getStartingBalance());
+        ps.setBigDecimal(12, application.getMonthlySalary());
+        ps.setObject(13, application.getInterestedInOtherProducts(), Types.BOOLEAN);
+        ps.setString(14, application.getEmail());
+        ps.setObject(15, OffsetDateTime.ofInstant(application.getCreatedAt(), ZoneOffset.UTC),
+                Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setObject(16, OffsetDateTime.ofInstant(application.getUpdatedAt(), ZoneOffset.UTC),
+                Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setString(17, application.getIdDocumentKey());
+        ps.setString(18, application.getEmailKey());
+        ps.setString(19, application.getNameDateOfBirthKey());
+        ps.setString(20, application.getSubmittedApplicantKey());
+    }
+
+    private AccountApplication toApplication(Map<String, String> record) {
+        AccountApplication application = new AccountApplication();
+        application.setId(TimeOrderedUuidGenerator.shared().generate());
+        if (record.containsKey("status")) {
+            application.setStatus(ApplicationStatus.valueOf(record.get("status")));
+            if (application.getStatus() == ApplicationStatus.SUBMITTED) {
+                // Nothing would ever complete it: only a submit queues an application for processing
+                throw new IllegalArgumentException("status: SUBMITTED applications cannot be imported");
+            }
+        }
+        application.setName(record.get("name"));
+        application.setDateOfBirth(parse(record.get("dateOfBirth"), LocalDate::parse));
+        application.setIdDocument(record.get("idDocument"));
+        application.setAccountType(parse(record.get("accountType"), AccountType::valueOf));
+        application.setStartingBalance(parse(record.get("startingBalance"), BigDecimal::new));
+        application.setMonthlySalary(parse(record.get("monthlySalary"), BigDecimal::new));
+        application.setInterestedInOtherProducts(parse(record.get("interestedInOtherProducts"), Boolean::valueOf));
+        application.setEmail(record.get("email"));
+        if (record.containsKey("streetName") || record.containsKey("houseNumber") || record.containsKey("postCode")
+                || record.containsKey("city")) {
+            application.setAddress(new Address(record.get("streetName"), record.get("houseNumber"),
+                    record.get("postCode"), record.get("city")));
+        }
+        Instant now = Instant.now();
+        Instant createdAt = parse(record.get("createdAt"), ApplicationImporter::parseInstant);
+        application.setCreatedAt(createdAt != null ? createdAt : now);
+        Instant updatedAt = parse(record.get("updatedAt"), ApplicationImporter::parseInstant);
+        application.setUpdatedAt(updatedAt != null ? updatedAt : application.getCreatedAt());
+        return application;
+    }
+
+    /**
+     * @return The violations as one message, or {@code null} if the application is valid.
+     */
+    private String validate(AccountApplication application) {
+        Set<ConstraintViolation<AccountApplication>> violations = application.getStatus() == ApplicationStatus.DRAFT
+                ? validator.validate(application, Default.class)
+                : validator.validate(application, Default.class, OnSubmit.class);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static <T> T parse(String value, Function<String, T> parser) {
+        return value == null ? null : parser.apply(value);
+    }
+
+    private static Instant parseInstant(String value) {
+        return OffsetDateTime.parse(value).toInstant();
+    }
+
+    private static String decode(ByteBuffer bytes) {
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    /**
+     * @return The position of the first {@code '\n'} at or after {@code from}, or {@code size} if there is none.
+     */
+    private static long lineEnd(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static ThreadFactory workerThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "application-import-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.abnamro.assignment.importer;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Supported import file formats, chosen by file extension.
+ */
+public enum ImportFormat {
+
+    /**
+     * Comma-separated values with a header line naming the columns. Records cannot span lines.
+     */
+    CSV,
+
+    /**
+     * One JSON object per line, e.g. the output of {@code GET /applications:export}.
+     */
+    NDJSON;
+
+    public static ImportFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unsupported import file " + file + ", expected .csv, .ndjson or .jsonl");
+    }
+}
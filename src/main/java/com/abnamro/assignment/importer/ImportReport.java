@@ -0,0 +1,20 @@
+package com.abnamro.assignment.importer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Outcome of a bulk import.
+ *
+ * @param imported     Records inserted.
+ * @param rejected     Records written to {@code rejectedFile} instead.
+ * @param rejectedFile The rejected-record file, or {@code null} when nothing was rejected.
+ * @param elapsed      Wall-clock time of the whole import.
+ */
+public record ImportReport(long imported, long rejected, Path rejectedFile, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long millis = Math.max(1, elapsed.toMillis());
+        return (imported + rejected) * 1000.0 / millis;
+    }
+}
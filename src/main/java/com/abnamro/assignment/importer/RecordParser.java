@@ -0,0 +1,113 @@
+package com.abnamro.assignment.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns one line of an import file into field values keyed by {@code ApplicationResponse} property name, with
+ * the address fields flattened ({@code streetName}, {@code houseNumber}, {@code postCode}, {@code city}).
+ * Implementations are stateless and shared by all import workers.
+ */
+interface RecordParser {
+
+    /**
+     * @throws IllegalArgumentException when the line is malformed.
+     */
+    Map<String, String> parse(String line);
+
+    static RecordParser csv(String headerLine) {
+        List<String> columns = Csv.split(headerLine).stream().map(String::trim).toList();
+        return line -> {
+            List<String> values = Csv.split(line);
+            if (values.size() != columns.size()) {
+                throw new IllegalArgumentException(
+                        "Expected " + columns.size() + " columns but found " + values.size());
+            }
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                String value = values.get(i);
+                if (!value.isEmpty()) {
+                    record.put(columns.get(i), value);
+                }
+            }
+            return record;
+        };
+    }
+
+    static RecordParser ndjson(ObjectMapper objectMapper) {
+        return line -> {
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+            }
+            if (node == null || !node.isObject()) {
+                throw new IllegalArgumentException("Expected a JSON object");
+            }
+            Map<String, String> record = new HashMap<>();
+            flatten(node, record);
+            return record;
+        };
+    }
+
+    private static void flatten(JsonNode object, Map<String, String> record) {
+        for (Iterator<Map.Entry<String, JsonNode>> it = object.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = it.next();
+            JsonNode value = field.getValue();
+            if (value.isObject()) {
+                flatten(value, record);
+            } else if (!value.isNull()) {
+                record.put(field.getKey(), value.asText());
+            }
+        }
+    }
+
+    /**
+     * RFC 4180 field splitting for a single line: quoted fields may contain commas and doubled quotes, but not line
+     * breaks.
+     */
+    final class Csv {
+
+        private Csv() {
+        }
+
+        static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.abnamro.assignment.importer;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Collects rejected records, one {@code <byte offset>\t<reason>\t<record>} line each. The file is only created
+ * once the first record is rejected. Thread-safe.
+ */
+class RejectedRecordWriter implements Closeable {
+
+    private final Path path;
+    private BufferedWriter writer;
+    private long count;
+
+    /**
+     * Removes the rejected records of a previous run, so the file only ever describes the current import.
+     */
+    RejectedRecordWriter(Path path) throws IOException {
+        this.path = path;
+        Files.deleteIfExists(path);
+    }
+
+    synchronized void reject(long offset, String reason, String record) {
+        try {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            }
+            writer.write(Long.toString(offset));
+            writer.write('\t');
+            writer.write(reason.replace('\t', ' ').replace('\n', ' '));
+            writer.write('\t');
+            writer.write(record);
+            writer.newLine();
+            count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write rejected records to " + path, e);
+        }
+    }
+
+    synchronized long count() {
+        return count;
+    }
+
+    /**
+     * @return The rejected-record file, or {@code null} if nothing was rejected.
+     */
+    synchronized Path path() {
+        return writer == null ? null : path;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
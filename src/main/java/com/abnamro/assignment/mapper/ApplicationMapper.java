@@ -2,14 +2,85 @@ package com.abnamro.assignment.mapper;
 
 import com.abnamro.assignment.api.model.ApplicationCreateRequest;
 import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.api.model.ApplicationSummary;
 import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
+import com.abnamro.assignment.api.model.DuplicateMatch;
 import com.abnamro.assignment.model.AccountApplication;
 import com.abnamro.assignment.model.AccountType;
+import com.abnamro.assignment.model.ApplicantKey;
+import com.abnamro.assignment.repository.ApplicationSearchCriteria;
+import com.abnamro.assignment.repository.ApplicationSummaryView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Deliberately not @Timed: conversions run per row, and an advised bean would put every one of them behind a proxy
+// and a timer sample; the onboarding.service timers of the callers include them
 @Component
 public class ApplicationMapper {
 
+    // Domain and API enums share constant names; resolved once instead of by valueOf(name()) per call
+    private static final Map<com.abnamro.assignment.model.ApplicationStatus,
+            com.abnamro.assignment.api.model.ApplicationStatus> API_STATUSES =
+            byName(com.abnamro.assignment.model.ApplicationStatus.class,
+                    com.abnamro.assignment.api.model.ApplicationStatus.class);
+    private static final Map<com.abnamro.assignment.api.model.ApplicationStatus,
+            com.abnamro.assignment.model.ApplicationStatus> DOMAIN_STATUSES =
+            byName(com.abnamro.assignment.api.model.ApplicationStatus.class,
+                    com.abnamro.assignment.model.ApplicationStatus.class);
+    private static final Map<AccountType, com.abnamro.assignment.api.model.AccountType> API_ACCOUNT_TYPES =
+            byName(AccountType.class, com.abnamro.assignment.api.model.AccountType.class);
+    private static final Map<com.abnamro.assignment.api.model.AccountType, AccountType> DOMAIN_ACCOUNT_TYPES =
+            byName(com.abnamro.assignment.api.model.AccountType.class, AccountType.class);
+    private static final Map<ApplicantKey, DuplicateMatch> API_DUPLICATE_MATCHES =
+            byName(ApplicantKey.class, DuplicateMatch.class);
+
+    // Field names and enum values of the ApplicationResponse JSON, encoded once
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString VERSION = new SerializedString("version");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString ADDRESS = new SerializedString("address");
+    private static final SerializableString STREET_NAME = new SerializedString("streetName");
+    private static final SerializableString HOUSE_NUMBER = new SerializedString("houseNumber");
+    private static final SerializableString POST_CODE = new SerializedString("postCode");
+    private static final SerializableString CITY = new SerializedString("city");
+    private static final SerializableString DATE_OF_BIRTH = new SerializedString("dateOfBirth");
+    private static final SerializableString ID_DOCUMENT = new SerializedString("idDocument");
+    private static final SerializableString ACCOUNT_TYPE = new SerializedString("accountType");
+    private static final SerializableString STARTING_BALANCE = new SerializedString("startingBalance");
+    private static final SerializableString MONTHLY_SALARY = new SerializedString("monthlySalary");
+    private static final SerializableString INTERESTED_IN_OTHER_PRODUCTS =
+            new SerializedString("interestedInOtherProducts");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializableString POSSIBLE_DUPLICATE_OF = new SerializedString("possibleDuplicateOf");
+    private static final SerializableString DUPLICATE_MATCH = new SerializedString("duplicateMatch");
+    private static final Map<com.abnamro.assignment.model.ApplicationStatus, SerializableString> STATUS_VALUES =
+            values(API_STATUSES, com.abnamro.assignment.model.ApplicationStatus.class);
+    private static final Map<AccountType, SerializableString> ACCOUNT_TYPE_VALUES =
+            values(API_ACCOUNT_TYPES, AccountType.class);
+    private static final Map<ApplicantKey, SerializableString> DUPLICATE_MATCH_VALUES =
+            values(API_DUPLICATE_MATCHES, ApplicantKey.class);
+
+    // The format Jackson writes an OffsetDateTime in; only needed for years that do not have four digits
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ISO_OFFSET_DATE_TIME.withZone(ZoneOffset.UTC);
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     public ApplicationResponse toResponse(AccountApplication entity) {
         if (entity == null) {
             return null;
@@ -17,6 +88,7 @@ public class ApplicationMapper {
 
         ApplicationResponse response = new ApplicationResponse();
         response.setId(entity.getId());
+        response.setVersion(entity.getVersion());
         response.setStatus(toApiStatus(entity.getStatus()));
         response.setName(entity.getName());
         response.setAddress(toApiAddress(entity.getAddress()));
@@ -27,15 +99,85 @@ public class ApplicationMapper {
         response.setMonthlySalary(entity.getMonthlySalary());
         response.setInterestedInOtherProducts(entity.getInterestedInOtherProducts());
         response.setEmail(entity.getEmail());
+        response.setPossibleDuplicateOf(entity.getPossibleDuplicateOf());
+        response.setDuplicateMatch(lookup(API_DUPLICATE_MATCHES, entity.getDuplicateMatch()));
+        response.setCreatedAt(toUtc(entity.getCreatedAt()));
+        response.setUpdatedAt(toUtc(entity.getUpdatedAt()));
 
-        if (entity.getCreatedAt() != null) {
-            response.setCreatedAt(entity.getCreatedAt().atZone(java.time.ZoneOffset.UTC).toOffsetDateTime());
+        return response;
+    }
+
+    /**
+     * Writes {@code entity} as the JSON of {@link #toResponse}, field for field, without building the
+     * {@link ApplicationResponse} and its nested objects. For bulk output, where the response is written once and
+     * then discarded.
+     */
+    public void writeResponse(AccountApplication entity, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeUuid(generator, ID, entity.getId());
+        generator.writeFieldName(VERSION);
+        if (entity.getVersion() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(entity.getVersion());
         }
-        if (entity.getUpdatedAt() != null) {
-            response.setUpdatedAt(entity.getUpdatedAt().atZone(java.time.ZoneOffset.UTC).toOffsetDateTime());
+        writeValue(generator, STATUS, lookup(STATUS_VALUES, entity.getStatus()));
+        writeString(generator, NAME, entity.getName());
+        generator.writeFieldName(ADDRESS);
+        com.abnamro.assignment.model.Address address = entity.getAddress();
+        if (address == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartObject();
+            writeString(generator, STREET_NAME, address.getStreetName());
+            writeString(generator, HOUSE_NUMBER, address.getHouseNumber());
+            writeString(generator, POST_CODE, address.getPostCode());
+            writeString(generator, CITY, address.getCity());
+            generator.writeEndObject();
         }
+        writeDate(generator, DATE_OF_BIRTH, entity.getDateOfBirth());
+        writeString(generator, ID_DOCUMENT, entity.getIdDocument());
+        writeValue(generator, ACCOUNT_TYPE, lookup(ACCOUNT_TYPE_VALUES, entity.getAccountType()));
+        writeDecimal(generator, STARTING_BALANCE, entity.getStartingBalance());
+        writeDecimal(generator, MONTHLY_SALARY, entity.getMonthlySalary());
+        generator.writeFieldName(INTERESTED_IN_OTHER_PRODUCTS);
+        if (entity.getInterestedInOtherProducts() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeBoolean(entity.getInterestedInOtherProducts());
+        }
+        writeString(generator, EMAIL, entity.getEmail());
+        writeTimestamp(generator, CREATED_AT, entity.getCreatedAt());
+        writeTimestamp(generator, UPDATED_AT, entity.getUpdatedAt());
+        writeUuid(generator, POSSIBLE_DUPLICATE_OF, entity.getPossibleDuplicateOf());
+        writeValue(generator, DUPLICATE_MATCH, lookup(DUPLICATE_MATCH_VALUES, entity.getDuplicateMatch()));
+        generator.writeEndObject();
+    }
 
-        return response;
+    public ApplicationSummary toSummary(ApplicationSummaryView view) {
+        ApplicationSummary summary = new ApplicationSummary();
+        summary.setId(view.id());
+        summary.setStatus(toApiStatus(view.status()));
+        summary.setName(view.name());
+        summary.setEmail(view.email());
+        summary.setAccountType(toApiAccountType(view.accountType()));
+        summary.setCreatedAt(toUtc(view.createdAt()));
+        summary.setUpdatedAt(toUtc(view.updatedAt()));
+        return summary;
+    }
+
+    public ApplicationSearchCriteria toSearchCriteria(com.abnamro.assignment.api.model.ApplicationStatus status,
+            com.abnamro.assignment.api.model.AccountType accountType, OffsetDateTime createdFrom,
+            OffsetDateTime createdTo, OffsetDateTime updatedFrom, OffsetDateTime updatedTo, String email) {
+        return ApplicationSearchCriteria.builder()
+                .status(lookup(DOMAIN_STATUSES, status))
+                .accountType(toDomainAccountType(accountType))
+                .createdFrom(createdFrom == null ? null : createdFrom.toInstant())
+                .createdTo(createdTo == null ? null : createdTo.toInstant())
+                .updatedFrom(updatedFrom == null ? null : updatedFrom.toInstant())
+                .updatedTo(updatedTo == null ? null : updatedTo.toInstant())
+                .email(email)
+                .build();
     }
 
     public void updateFromRequest(AccountApplication application, ApplicationCreateRequest request) {
@@ -91,37 +233,65 @@ public class ApplicationMapper {
         }
     }
 
+    /**
+     * Folds {@code changes} into {@code target} so that applying the result equals applying both requests in order.
+     * Address fields are copied, never shared.
+     */
+    public void mergeUpdate(ApplicationUpdateRequest target, ApplicationUpdateRequest changes) {
+        if (changes == null) {
+            return;
+        }
+
+        if (changes.getName() != null)
+            target.setName(changes.getName());
+        if (changes.getDateOfBirth() != null)
+            target.setDateOfBirth(changes.getDateOfBirth());
+        if (changes.getIdDocument() != null)
+            target.setIdDocument(changes.getIdDocument());
+        if (changes.getEmail() != null)
+            target.setEmail(changes.getEmail());
+        if (changes.getAccountType() != null)
+            target.setAccountType(changes.getAccountType());
+        if (changes.getStartingBalance() != null)
+            target.setStartingBalance(changes.getStartingBalance());
+        if (changes.getMonthlySalary() != null)
+            target.setMonthlySalary(changes.getMonthlySalary());
+        if (changes.getInterestedInOtherProducts() != null)
+            target.setInterestedInOtherProducts(changes.getInterestedInOtherProducts());
+
+        if (changes.getAddress() != null) {
+            if (target.getAddress() == null) {
+                target.setAddress(new com.abnamro.assignment.api.model.Address());
+            }
+            com.abnamro.assignment.api.model.Address address = target.getAddress();
+            if (changes.getAddress().getStreetName() != null)
+                address.setStreetName(changes.getAddress().getStreetName());
+            if (changes.getAddress().getHouseNumber() != null)
+                address.setHouseNumber(changes.getAddress().getHouseNumber());
+            if (changes.getAddress().getPostCode() != null)
+                address.setPostCode(changes.getAddress().getPostCode());
+            if (changes.getAddress().getCity() != null)
+                address.setCity(changes.getAddress().getCity());
+        }
+    }
+
     // Helper Methods
 
     private com.abnamro.assignment.api.model.ApplicationStatus toApiStatus(
             com.abnamro.assignment.model.ApplicationStatus status) {
-        if (status == null)
-            return null;
-        try {
-            return com.abnamro.assignment.api.model.ApplicationStatus.valueOf(status.name());
-        } catch (IllegalArgumentException e) {
-            return null; // Or handle as error
-        }
+        return lookup(API_STATUSES, status);
     }
 
     private com.abnamro.assignment.api.model.AccountType toApiAccountType(AccountType type) {
-        if (type == null)
-            return null;
-        try {
-            return com.abnamro.assignment.api.model.AccountType.valueOf(type.name());
-        } catch (IllegalArgumentException e) {
-            return null;
-        }
+        return lookup(API_ACCOUNT_TYPES, type);
     }
 
     private AccountType toDomainAccountType(com.abnamro.assignment.api.model.AccountType type) {
-        if (type == null)
-            return null;
-        try {
-            return AccountType.valueOf(type.getValue());
-        } catch (IllegalArgumentException e) {
-            return null;
-        }
+        return lookup(DOMAIN_ACCOUNT_TYPES, type);
+    }
+
+    private static OffsetDateTime toUtc(Instant instant) {
+        return instant == null ? null : instant.atOffset(ZoneOffset.UTC);
     }
 
     private com.abnamro.assignment.api.model.Address toApiAddress(com.abnamro.assignment.model.Address address) {
@@ -149,4 +319,166 @@ public class ApplicationMapper {
         if (apiAddress.getCity() != null)
             application.getAddress().setCity(apiAddress.getCity());
     }
+
+    private static void writeString(JsonGenerator generator, SerializableString field, String value)
+            throws IOException {
+        generator.writeFieldName(field);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    private static void writeValue(JsonGenerator generator, SerializableString field, SerializableString value)
+            throws IOException {
+        generator.writeFieldName(field);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    /**
+     * Writes the canonical form of {@code value}, as {@link UUID#toString()} would, without creating the string.
+     */
+    private static void writeUuid(JsonGenerator generator, SerializableString field, UUID value) throws IOException {
+        generator.writeFieldName(field);
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        long most = value.getMostSignificantBits();
+        long least = value.getLeastSignificantBits();
+        char[] chars = new char[36];
+        hex(chars, 0, most >>> 32, 8);
+        chars[8] = '-';
+        hex(chars, 9, most >>> 16, 4);
+        chars[13] = '-';
+        hex(chars, 14, most, 4);
+        chars[18] = '-';
+        hex(chars, 19, least >>> 48, 4);
+        chars[23] = '-';
+        hex(chars, 24, least, 12);
+        generator.writeString(chars, 0, chars.length);
+    }
+
+    /**
+     * Writes {@code value} as {@code yyyy-MM-dd}, as {@link LocalDate#toString()} would, without creating the string.
+     */
+    private static void writeDate(JsonGenerator generator, SerializableString field, LocalDate value)
+            throws IOException {
+        generator.writeFieldName(field);
+        if (value == null) {
+            generator.writeNull();
+        } else if (value.getYear() < 0 || value.getYear() > 9999) {
+            generator.writeString(value.toString());
+        } else {
+            char[] chars = new char[10];
+            date(chars, value.getYear(), value.getMonthValue(), value.getDayOfMonth());
+            generator.writeString(chars, 0, chars.length);
+        }
+    }
+
+    private static void writeDecimal(JsonGenerator generator, SerializableString field, BigDecimal value)
+            throws IOException {
+        generator.writeFieldName(field);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    /**
+     * Writes {@code value} in UTC as {@link DateTimeFormatter#ISO_OFFSET_DATE_TIME} would, e.g.
+     * {@code 2023-10-27T10:15:30.1234Z}, without going through a formatter.
+     */
+    private static void writeTimestamp(JsonGenerator generator, SerializableString field, Instant value)
+            throws IOException {
+        generator.writeFieldName(field);
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        LocalDateTime utc = LocalDateTime.ofEpochSecond(value.getEpochSecond(), value.getNano(), ZoneOffset.UTC);
+        if (utc.getYear() < 0 || utc.getYear() > 9999) {
+            generator.writeString(TIMESTAMP.format(value));
+            return;
+        }
+        char[] chars = new char[30];
+        date(chars, utc.getYear(), utc.getMonthValue(), utc.getDayOfMonth());
+        chars[10] = 'T';
+        decimal(chars, 11, utc.getHour(), 2);
+        chars[13] = ':';
+        decimal(chars, 14, utc.getMinute(), 2);
+        chars[16] = ':';
+        decimal(chars, 17, utc.getSecond(), 2);
+        int length = 19;
+        int nano = utc.getNano();
+        if (nano > 0) {
+            chars[length++] = '.';
+            decimal(chars, length, nano, 9);
+            length += 9;
+            // Fractions are written without trailing zeros
+            while (chars[length - 1] == '0') {
+                length--;
+            }
+        }
+        chars[length++] = 'Z';
+        generator.writeString(chars, 0, length);
+    }
+
+    private static void date(char[] chars, int year, int month, int day) {
+        decimal(chars, 0, year, 4);
+        chars[4] = '-';
+        decimal(chars, 5, month, 2);
+        chars[7] = '-';
+        decimal(chars, 8, day, 2);
+    }
+
+    private static void decimal(char[] chars, int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static void hex(char[] chars, int offset, long value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = HEX_DIGITS[(int) value & 0xF];
+            value >>>= 4;
+        }
+    }
+
+    private static <K extends Enum<K>, V> V lookup(Map<K, V> table, K key) {
+        return key == null ? null : table.get(key);
+    }
+
+    /**
+     * Maps each constant of {@code source} to the constant of {@code target} with the same name; constants
+     * without a counterpart map to {@code null}.
+     */
+    private static <S extends Enum<S>, T extends Enum<T>> Map<S, T> byName(Class<S> source, Class<T> target) {
+        Map<S, T> table = new EnumMap<>(source);
+        for (S constant : source.getEnumConstants()) {
+            for (T candidate : target.getEnumConstants()) {
+                if (candidate.name().equals(constant.name())) {
+                    table.put(constant, candidate);
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * The JSON values of the API constants in {@code table}, as the generated enums serialize them.
+     */
+    private static <S extends Enum<S>> Map<S, SerializableString> values(Map<S, ? extends Enum<?>> table,
+            Class<S> source) {
+        Map<S, SerializableString> values = new EnumMap<>(source);
+        table.forEach((constant, api) -> values.put(constant, new SerializedString(api.toString())));
+        return values;
+    }
 }
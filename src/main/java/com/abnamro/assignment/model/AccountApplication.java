@@ -1,14 +1,20 @@
 package com.abnamro.assignment.model;
 
+import com.abnamro.assignment.model.id.TimeOrderedUuidGenerator;
 import com.abnamro.assignment.model.validation.OnSubmit;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UuidGenerator;
+import org.springframework.data.annotation.AccessType;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -17,16 +23,40 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.UUID;
 
+/**
+ * Account application aggregate.
+ * <p>
+ * Updates only write the changed columns ({@link DynamicUpdate}); changed fields are recorded by the setters,
+ * which are instrumented at build time by {@code hibernate-enhance-maven-plugin}.
+ * <p>
+ * The {@link ApplicantKey} columns are derived by the setters of the fields they are made of and have no setters
+ * of their own, so they cannot go out of step; they are left out of JSON, which restores them through the same
+ * setters.
+ */
 @Entity
-@Table(name = "account_applications")
+@DynamicUpdate
+@Table(name = "account_applications", indexes = {
+        // Keyset pagination of GET /applications, unfiltered and by status / account type
+        @Index(name = "idx_applications_updated_at_id", columnList = "updated_at, id"),
+        @Index(name = "idx_applications_status_updated_at_id", columnList = "status, updated_at, id"),
+        @Index(name = "idx_applications_account_type_updated_at_id", columnList = "account_type, updated_at, id"),
+        @Index(name = "idx_applications_email", columnList = "email"),
+        // Duplicate-applicant lookups; see ApplicantKey
+        @Index(name = "idx_applications_id_document_key", columnList = "id_document_key"),
+        @Index(name = "idx_applications_email_key", columnList = "email_key"),
+        @Index(name = "idx_applications_name_date_of_birth_key", columnList = "name_date_of_birth_key")
+}, uniqueConstraints = {
+        // Null while DRAFT, and nulls never collide: in effect a partial unique index on submitted applications
+        @UniqueConstraint(name = "uk_applications_submitted_applicant", columnNames = "submitted_applicant_key")
+})
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class AccountApplication {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedValue
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @Version
@@ -68,7 +98,67 @@ public class AccountApplication {
     @Column(nullable = false, updatable = false)
     private java.time.Instant createdAt;
 
+    // Set through the setter, so the enhanced dirty tracking sees the audit update
     @LastModifiedDate
+    @AccessType(AccessType.Type.PROPERTY)
     @Column(nullable = false)
     private java.time.Instant updatedAt;
+
+    /**
+     * Earlier application of what appears to be the same applicant, found when this one was created or submitted.
+     */
+    private UUID possibleDuplicateOf;
+
+    /**
+     * The key on which {@link #possibleDuplicateOf} matched.
+     */
+    @Enumerated(EnumType.STRING)
+    private ApplicantKey duplicateMatch;
+
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private String idDocumentKey;
+
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private String emailKey;
+
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private String nameDateOfBirthKey;
+
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private String submittedApplicantKey;
+
+    public void setStatus(ApplicationStatus status) {
+        this.status = status;
+        this.submittedApplicantKey = ApplicantKey.submittedApplicant(idDocumentKey, accountType, status);
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        this.nameDateOfBirthKey = ApplicantKey.nameAndDateOfBirth(name, dateOfBirth);
+    }
+
+    public void setDateOfBirth(LocalDate dateOfBirth) {
+        this.dateOfBirth = dateOfBirth;
+        this.nameDateOfBirthKey = ApplicantKey.nameAndDateOfBirth(name, dateOfBirth);
+    }
+
+    public void setIdDocument(String idDocument) {
+        this.idDocument = idDocument;
+        this.idDocumentKey = ApplicantKey.idDocument(idDocument);
+        this.submittedApplicantKey = ApplicantKey.submittedApplicant(idDocumentKey, accountType, status);
+    }
+
+    public void setAccountType(AccountType accountType) {
+        this.accountType = accountType;
+        this.submittedApplicantKey = ApplicantKey.submittedApplicant(idDocumentKey, accountType, status);
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+        this.emailKey = ApplicantKey.email(email);
+    }
 }
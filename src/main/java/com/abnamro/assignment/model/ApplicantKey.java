@@ -0,0 +1,70 @@
+package com.abnamro.assignment.model;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalized identifiers of the person behind an application, compared to find the same applicant across
+ * applications.
+ * <p>
+ * Normalization removes the differences that come from retyping the same data: case, spacing and punctuation of
+ * document numbers, case and surrounding whitespace of email addresses, and case, accents and spacing of names.
+ * {@link AccountApplication} derives its keys whenever one of the underlying fields is set.
+ */
+public enum ApplicantKey {
+
+    ID_DOCUMENT,
+    EMAIL,
+    NAME_AND_DATE_OF_BIRTH;
+
+    private static final Pattern NOT_ALPHANUMERIC = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * This key of {@code application}, or {@code null} if it lacks the fields it is made of.
+     */
+    public String of(AccountApplication application) {
+        return switch (this) {
+            case ID_DOCUMENT -> application.getIdDocumentKey();
+            case EMAIL -> application.getEmailKey();
+            case NAME_AND_DATE_OF_BIRTH -> application.getNameDateOfBirthKey();
+        };
+    }
+
+    public static String idDocument(String idDocument) {
+        if (idDocument == null) {
+            return null;
+        }
+        String key = NOT_ALPHANUMERIC.matcher(idDocument).replaceAll("").toUpperCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
+
+    public static String email(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return email.strip().toLowerCase(Locale.ROOT);
+    }
+
+    public static String nameAndDateOfBirth(String name, LocalDate dateOfBirth) {
+        if (name == null || name.isBlank() || dateOfBirth == null) {
+            return null;
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(name.strip(), Normalizer.Form.NFKD)).replaceAll("");
+        return WHITESPACE.matcher(folded).replaceAll(" ").toLowerCase(Locale.ROOT) + "|" + dateOfBirth;
+    }
+
+    /**
+     * The key of an application that holds its applicant's one submitted application of an account type, or
+     * {@code null} for applications that are not (yet) submitted.
+     */
+    public static String submittedApplicant(String idDocumentKey, AccountType accountType, ApplicationStatus status) {
+        if (idDocumentKey == null || accountType == null || status == null || status == ApplicationStatus.DRAFT) {
+            return null;
+        }
+        return idDocumentKey + "|" + accountType;
+    }
+}
@@ -2,5 +2,9 @@ package com.abnamro.assignment.model;
 
 public enum ApplicationStatus {
     DRAFT,
+    /**
+     * Passed the submit validation and waiting for, or going through, asynchronous processing. Read-only.
+     */
+    SUBMITTED,
     COMPLETED
 }
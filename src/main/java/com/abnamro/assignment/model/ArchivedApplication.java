@@ -0,0 +1,61 @@
+package com.abnamro.assignment.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A COMPLETED application moved out of {@code account_applications}: the whole application as one compressed
+ * document, next to the few columns it is still looked up by.
+ */
+@Entity
+@Table(name = "archived_applications", indexes = {
+        // Duplicate-applicant lookups and the one-submission-per-account-type check; see ApplicantKey
+        @Index(name = "idx_archived_applications_id_document_key", columnList = "id_document_key, account_type"),
+        @Index(name = "idx_archived_applications_email_key", columnList = "email_key"),
+        @Index(name = "idx_archived_applications_name_date_of_birth_key", columnList = "name_date_of_birth_key"),
+        // The export, which merges archived applications into the store's (updated_at, id) order
+        @Index(name = "idx_archived_applications_updated_at_id", columnList = "updated_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedApplication {
+
+    @Id
+    private UUID id;
+
+    private String idDocumentKey;
+
+    @Enumerated(EnumType.STRING)
+    private AccountType accountType;
+
+    private String emailKey;
+
+    private String nameDateOfBirthKey;
+
+    /**
+     * The {@code updatedAt} of the application, which no longer changes once it is COMPLETED.
+     */
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+
+    /**
+     * The {@link AccountApplication} as deflated JSON.
+     */
+    @Column(nullable = false, length = 8192)
+    private byte[] payload;
+}
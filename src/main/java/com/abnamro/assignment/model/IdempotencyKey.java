@@ -0,0 +1,61 @@
+package com.abnamro.assignment.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * An idempotency key claimed by a request, with the response stored once the request finished.
+ * <p>
+ * Always new to Spring Data, so {@code save} inserts and a concurrent claim of the same key fails on the primary
+ * key instead of being merged; the response is set with {@code IdempotencyKeyRepository#complete}.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKey implements Persistable<String> {
+
+    /**
+     * The client, length-prefixed, followed by its {@code Idempotency-Key}.
+     */
+    @Id
+    @Column(name = "idempotency_key", length = 400)
+    private String key;
+
+    @Column(nullable = false, updatable = false)
+    private String fingerprint;
+
+    /**
+     * JSON of the stored response; {@code null} while the request is in progress.
+     */
+    @Column(length = 16384)
+    private String response;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false, updatable = false)
+    private Instant expiresAt;
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+package com.abnamro.assignment.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An event recorded in the same transaction as the state change it describes, and deleted once the relay has
+ * published it. The generated id gives the publication order.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private UUID aggregateId;
+
+    @Column(nullable = false, updatable = false)
+    private String type;
+
+    /**
+     * JSON document describing the event.
+     */
+    @Column(nullable = false, updatable = false, length = 8192)
+    private String payload;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+}
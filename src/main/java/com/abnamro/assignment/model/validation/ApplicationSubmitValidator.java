@@ -0,0 +1,20 @@
+package com.abnamro.assignment.model.validation;
+
+import com.abnamro.assignment.model.AccountApplication;
+import org.springframework.validation.BindingResult;
+
+import java.util.Optional;
+
+/**
+ * Checks an application against the {@code Default} and {@link OnSubmit} constraints before it is submitted.
+ * Selected with {@code onboarding.validation.engine}.
+ */
+public interface ApplicationSubmitValidator {
+
+    String OBJECT_NAME = "accountApplication";
+
+    /**
+     * @return The field errors, or empty if the application may be submitted.
+     */
+    Optional<BindingResult> validate(AccountApplication application);
+}
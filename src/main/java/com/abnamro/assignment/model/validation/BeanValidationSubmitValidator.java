@@ -0,0 +1,26 @@
+package com.abnamro.assignment.model.validation;
+
+import com.abnamro.assignment.model.AccountApplication;
+import jakarta.validation.groups.Default;
+import lombok.RequiredArgsConstructor;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.SmartValidator;
+
+import java.util.Optional;
+
+/**
+ * Evaluates the constraint annotations on {@link AccountApplication} through Bean Validation.
+ */
+@RequiredArgsConstructor
+public class BeanValidationSubmitValidator implements ApplicationSubmitValidator {
+
+    private final SmartValidator validator;
+
+    @Override
+    public Optional<BindingResult> validate(AccountApplication application) {
+        BindingResult errors = new BeanPropertyBindingResult(application, OBJECT_NAME);
+        validator.validate(application, errors, Default.class, OnSubmit.class);
+        return errors.hasErrors() ? Optional.of(errors) : Optional.empty();
+    }
+}
@@ -0,0 +1,135 @@
+package com.abnamro.assignment.model.validation;
+
+import com.abnamro.assignment.model.AccountApplication;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.MapBindingResult;
+
+import java.math.BigDecimal;
+import java.net.IDN;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Hand-compiled equivalent of the {@code Default} and {@link OnSubmit} constraints declared on
+ * {@link AccountApplication}: plain field checks, no reflection, and nothing allocated when the application is
+ * valid. Produces the same fields and messages as {@link BeanValidationSubmitValidator}.
+ * <p>
+ * Must be kept in sync with the annotations on {@link AccountApplication}. Like the annotations, it does not
+ * cascade into {@code Address}.
+ */
+public class CompiledSubmitValidator implements ApplicationSubmitValidator {
+
+    private static final BigDecimal ZERO = new BigDecimal("0.0");
+
+    // The expressions and length limits of Hibernate Validator's @Email, so both engines accept the same addresses
+    private static final int MAX_EMAIL_LOCAL_PART_LENGTH = 64;
+    private static final int MAX_EMAIL_DOMAIN_LENGTH = 255;
+    private static final String LOCAL_PART_ATOM = "[a-z0-9!#$%&'*+/=?^_`{|}~\u0080-\uFFFF-]";
+    private static final String LOCAL_PART_INSIDE_QUOTES_ATOM =
+            "(?:[a-z0-9!#$%&'*.(),<>\\[\\]:;  @+/=?^_`{|}~\u0080-\uFFFF-]|\\\\\\\\|\\\\\\\")";
+    private static final String LOCAL_PART_WORD =
+            "(?:" + LOCAL_PART_ATOM + "+|\"" + LOCAL_PART_INSIDE_QUOTES_ATOM + "+\")";
+    private static final Pattern EMAIL_LOCAL_PART = Pattern.compile(
+            LOCAL_PART_WORD + "(?:\\." + LOCAL_PART_WORD + ")*", Pattern.CASE_INSENSITIVE);
+    private static final String DOMAIN_CHAR = "[a-z\u0080-\uFFFF0-9!#$%&'*+/=?^_`{|}~]";
+    private static final String DOMAIN_LABEL = "(?:" + DOMAIN_CHAR + "-*)*" + DOMAIN_CHAR + "+";
+    private static final String IP_V4 = "[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}";
+    private static final String IP_V4_SEGMENT = "(?:25[0-5]|(?:2[0-4]|1{0,1}[0-9]){0,1}[0-9])";
+    private static final String IP_V4_STRICT = "(?:" + IP_V4_SEGMENT + "\\.){3,3}" + IP_V4_SEGMENT;
+    private static final String H16 = "[0-9a-fA-F]{1,4}";
+    private static final String IP_V6 = "(?:(?:" + H16 + ":){7,7}" + H16
+            + "|(?:" + H16 + ":){1,7}:"
+            + "|(?:" + H16 + ":){1,6}:" + H16
+            + "|(?:" + H16 + ":){1,5}(?::" + H16 + "){1,2}"
+            + "|(?:" + H16 + ":){1,4}(?::" + H16 + "){1,3}"
+            + "|(?:" + H16 + ":){1,3}(?::" + H16 + "){1,4}"
+            + "|(?:" + H16 + ":){1,2}(?::" + H16 + "){1,5}"
+            + "|" + H16 + ":(?:(?::" + H16 + "){1,6})"
+            + "|:(?:(?::" + H16 + "){1,7}|:)"
+            + "|fe80:(?::[0-9a-fA-F]{0,4}){0,4}%[0-9a-zA-Z]{1,}"
+            + "|::(?:ffff(:0{1,4}){0,1}:){0,1}" + IP_V4_STRICT
+            + "|(?:" + H16 + ":){1,4}:" + IP_V4_STRICT + ")";
+    private static final Pattern EMAIL_DOMAIN = Pattern.compile(
+            DOMAIN_LABEL + "+(?:\\." + DOMAIN_LABEL + "+)*|\\[" + IP_V4 + "\\]|\\[IPv6:" + IP_V6 + "\\]",
+            Pattern.CASE_INSENSITIVE);
+
+    private final Clock clock;
+
+    public CompiledSubmitValidator(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public Optional<BindingResult> validate(AccountApplication application) {
+        BindingResult errors = null;
+
+        if (application.getName() == null) {
+            errors = reject(errors, "name", null, "NotNull", "Name is required");
+        }
+        LocalDate dateOfBirth = application.getDateOfBirth();
+        if (dateOfBirth == null) {
+            errors = reject(errors, "dateOfBirth", null, "NotNull", "Date of Birth is required");
+        } else if (!dateOfBirth.isBefore(LocalDate.now(clock))) {
+            errors = reject(errors, "dateOfBirth", dateOfBirth, "Past", "Date of Birth must be in the past");
+        }
+        if (application.getIdDocument() == null) {
+            errors = reject(errors, "idDocument", null, "NotNull", "ID Document is required");
+        }
+        if (application.getAccountType() == null) {
+            errors = reject(errors, "accountType", null, "NotNull", "Account Type is required");
+        }
+        if (isNegative(application.getStartingBalance())) {
+            errors = reject(errors, "startingBalance", application.getStartingBalance(), "DecimalMin",
+                    "Starting Balance must be positive");
+        }
+        if (isNegative(application.getMonthlySalary())) {
+            errors = reject(errors, "monthlySalary", application.getMonthlySalary(), "DecimalMin",
+                    "Monthly Salary must be positive");
+        }
+        if (application.getEmail() != null && !isValidEmail(application.getEmail())) {
+            errors = reject(errors, "email", application.getEmail(), "Email", "Email must be valid");
+        }
+
+        return Optional.ofNullable(errors);
+    }
+
+    private static boolean isValidEmail(String email) {
+        if (email.isEmpty()) {
+            return true;
+        }
+        // The local part may be quoted and contain '@' itself
+        int at = email.lastIndexOf('@');
+        if (at < 0 || at > MAX_EMAIL_LOCAL_PART_LENGTH || !EMAIL_LOCAL_PART.matcher(email.substring(0, at)).matches()) {
+            return false;
+        }
+        String domain = email.substring(at + 1);
+        if (domain.endsWith(".")) {
+            return false;
+        }
+        try {
+            // Also enforces the 63 character limit per label
+            if (IDN.toASCII(domain).length() > MAX_EMAIL_DOMAIN_LENGTH) {
+                return false;
+            }
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return EMAIL_DOMAIN.matcher(domain).matches();
+    }
+
+    private static boolean isNegative(BigDecimal value) {
+        return value != null && value.compareTo(ZERO) < 0;
+    }
+
+    private static BindingResult reject(BindingResult errors, String field, Object rejectedValue, String code,
+            String message) {
+        BindingResult result = errors != null ? errors : new MapBindingResult(new HashMap<>(), OBJECT_NAME);
+        String[] codes = {code + "." + OBJECT_NAME + "." + field, code + "." + field, code};
+        result.addError(new FieldError(OBJECT_NAME, field, rejectedValue, false, codes, null, message));
+        return result;
+    }
+}
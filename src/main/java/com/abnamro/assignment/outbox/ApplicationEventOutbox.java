@@ -0,0 +1,38 @@
+package com.abnamro.assignment.outbox;
+
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.model.OutboxEvent;
+import com.abnamro.assignment.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Records application events in the outbox. Must be called inside the transaction that makes the change, so the
+ * event is stored if and only if the change commits.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplicationEventOutbox {
+
+    public static final String APPLICATION_SUBMITTED = "ApplicationSubmitted";
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applicationSubmitted(ApplicationResponse application) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(application);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize application " + application.getId(), e);
+        }
+        repository.save(new OutboxEvent(null, application.getId(), APPLICATION_SUBMITTED, payload, Instant.now()));
+    }
+}
@@ -0,0 +1,55 @@
+package com.abnamro.assignment.outbox;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-process queue standing in for a message broker. When consumers fall behind and the queue is full,
+ * publication waits for room and then fails, so the relay backs off and events stay in the outbox table.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final BlockingQueue<OutboxMessage> queue;
+    private final Duration offerTimeout;
+
+    public InMemoryOutboxSink(int capacity, Duration offerTimeout) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.offerTimeout = offerTimeout;
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        try {
+            for (OutboxMessage message : messages) {
+                if (!queue.offer(message, offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException("In-memory broker is full");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing", e);
+        }
+    }
+
+    /**
+     * Takes the next message, waiting up to {@code timeout} for one to arrive.
+     *
+     * @return The message, or {@code null} if none arrived in time.
+     */
+    public OutboxMessage poll(Duration timeout) throws InterruptedException {
+        return queue.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes all messages currently queued.
+     */
+    public List<OutboxMessage> drain() {
+        List<OutboxMessage> messages = new ArrayList<>();
+        queue.drainTo(messages);
+        return messages;
+    }
+}
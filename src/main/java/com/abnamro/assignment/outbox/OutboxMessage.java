@@ -0,0 +1,20 @@
+package com.abnamro.assignment.outbox;
+
+import com.abnamro.assignment.model.OutboxEvent;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An event as handed to an {@link OutboxSink}. {@code id} increases in publication order, so consumers can
+ * discard the duplicates that at-least-once delivery may produce.
+ */
+public record OutboxMessage(long id, String type, UUID aggregateId, Instant occurredAt,
+        @JsonRawValue String payload) {
+
+    static OutboxMessage of(OutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getType(), event.getAggregateId(), event.getCreatedAt(),
+                event.getPayload());
+    }
+}
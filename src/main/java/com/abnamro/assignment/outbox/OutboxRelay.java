@@ -0,0 +1,146 @@
+package com.abnamro.assignment.outbox;
+
+import com.abnamro.assignment.config.OutboxProperties;
+import com.abnamro.assignment.model.OutboxEvent;
+import com.abnamro.assignment.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes outbox events to the configured {@link OutboxSink}, oldest first, from a single background thread.
+ * <p>
+ * Events are deleted only after the sink has acknowledged them, so delivery is at-least-once: a crash or failure
+ * between publication and deletion publishes the batch again. After a failure the relay backs off exponentially up
+ * to {@code max-backoff}; meanwhile events accumulate in the table rather than in memory, which is what throttles
+ * the relay to the pace of a slow sink.
+ * <p>
+ * Publishes {@code onboarding.outbox.pending} and {@code onboarding.outbox.lag} (age of the oldest unpublished
+ * event, in seconds) gauges, and times {@code onboarding.outbox.delivery} from commit of an event to its
+ * acknowledgement.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxProperties properties;
+    private final OutboxEventRepository repository;
+    private final OutboxSink sink;
+    private final Timer deliveryTimer;
+    private final Counter publishedCounter;
+    private final Counter failureCounter;
+
+    /**
+     * Creation time of the oldest event seen by the last poll, or {@code null} if the outbox was empty.
+     */
+    private final AtomicReference<Instant> oldestPending = new AtomicReference<>();
+
+    private ScheduledExecutorService scheduler;
+    private int consecutiveFailures;
+
+    public OutboxRelay(OutboxProperties properties, OutboxEventRepository repository, OutboxSink sink,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.repository = repository;
+        this.sink = sink;
+        this.deliveryTimer = meterRegistry.timer("onboarding.outbox.delivery");
+        this.publishedCounter = meterRegistry.counter("onboarding.outbox.published");
+        this.failureCounter = meterRegistry.counter("onboarding.outbox.failures");
+        meterRegistry.gauge("onboarding.outbox.pending", repository, OutboxEventRepository::count);
+        meterRegistry.gauge("onboarding.outbox.lag", this, OutboxRelay::lagSeconds);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isRelayEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        schedule(properties.getPollInterval());
+        log.info("Outbox relay publishing to {}", sink.getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(properties.getMaxBackoff().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Publishes one batch of the oldest events and deletes them once acknowledged.
+     *
+     * @return The number of events published.
+     * @throws RuntimeException if the sink fails; the batch stays in the outbox.
+     */
+    public int relay() {
+        List<OutboxEvent> batch = repository.findAllByOrderByIdAsc(PageRequest.of(0, properties.getBatchSize()));
+        oldestPending.set(batch.isEmpty() ? null : batch.get(0).getCreatedAt());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        sink.publish(batch.stream().map(OutboxMessage::of).toList());
+        repository.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+
+        Instant now = Instant.now();
+        for (OutboxEvent event : batch) {
+            deliveryTimer.record(Duration.between(event.getCreatedAt(), now));
+        }
+        publishedCounter.increment(batch.size());
+        if (batch.size() < properties.getBatchSize()) {
+            oldestPending.set(null);
+        }
+        return batch.size();
+    }
+
+    double lagSeconds() {
+        Instant oldest = oldestPending.get();
+        return oldest == null ? 0 : Duration.between(oldest, Instant.now()).toMillis() / 1000.0;
+    }
+
+    private void relayInBackground() {
+        Duration next;
+        try {
+            int published = relay();
+            consecutiveFailures = 0;
+            next = published == properties.getBatchSize() ? Duration.ZERO : properties.getPollInterval();
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            consecutiveFailures++;
+            next = backoff();
+            log.warn("Publishing outbox events failed {} time(s) in a row, retrying in {}", consecutiveFailures,
+                    next, e);
+        }
+        schedule(next);
+    }
+
+    private Duration backoff() {
+        long factor = 1L << Math.min(consecutiveFailures, 20);
+        Duration delay = properties.getPollInterval().multipliedBy(factor);
+        return delay.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : delay;
+    }
+
+    private void schedule(Duration delay) {
+        if (!scheduler.isShutdown()) {
+            scheduler.schedule(this::relayInBackground, delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.abnamro.assignment.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of the events published by {@link OutboxRelay}.
+ */
+public interface OutboxSink {
+
+    /**
+     * Delivers a batch, in order. Returning normally acknowledges the whole batch; throwing makes the relay retry
+     * it later, so messages delivered before the failure may be delivered again.
+     */
+    void publish(List<OutboxMessage> messages);
+}
@@ -0,0 +1,11 @@
+package com.abnamro.assignment.repository;
+
+import com.abnamro.assignment.model.ApplicationStatus;
+
+import java.util.UUID;
+
+/**
+ * An application found by one of its {@code ApplicantKey}s.
+ */
+public record ApplicantMatch(UUID id, ApplicationStatus status) {
+}
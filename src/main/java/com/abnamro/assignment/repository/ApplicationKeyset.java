@@ -0,0 +1,22 @@
+package com.abnamro.assignment.repository;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Position in the {@code (updatedAt, id)} ordering of applications; a page starts strictly after it.
+ */
+public record ApplicationKeyset(Instant updatedAt, UUID id) {
+
+    /**
+     * Orders ids like the database does: as unsigned 128-bit values.
+     */
+    public static final Comparator<UUID> ID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    public static final Comparator<ApplicationKeyset> ORDER = Comparator
+            .comparing(ApplicationKeyset::updatedAt)
+            .thenComparing(ApplicationKeyset::id, ID_ORDER);
+}
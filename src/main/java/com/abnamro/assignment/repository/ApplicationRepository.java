@@ -1,11 +1,85 @@
 package com.abnamro.assignment.repository;
 
 import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.ApplicationStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface ApplicationRepository extends JpaRepository<AccountApplication, UUID> {
+public interface ApplicationRepository extends JpaRepository<AccountApplication, UUID>, ApplicationSearchRepository {
+
+    @Query("select a.version from AccountApplication a where a.id = :id")
+    Optional<Long> findVersionById(UUID id);
+
+    /**
+     * Forward-only, read-only cursor over applications with the given status that come after
+     * {@code (afterUpdatedAt, afterId)}, in {@code (updatedAt, id)} order. Must be consumed and closed inside a
+     * transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select a from AccountApplication a
+            where a.status = :status
+              and (a.updatedAt > :afterUpdatedAt or (a.updatedAt = :afterUpdatedAt and a.id > :afterId))
+            order by a.updatedAt, a.id""")
+    Stream<AccountApplication> streamByStatusAfter(ApplicationStatus status, Instant afterUpdatedAt, UUID afterId);
+
+    @Query("""
+            select new com.abnamro.assignment.repository.ApplicantMatch(a.id, a.status) from AccountApplication a
+            where a.idDocumentKey = :key
+            order by a.id""")
+    List<ApplicantMatch> findByIdDocumentKey(String key, Pageable page);
+
+    @Query("""
+            select new com.abnamro.assignment.repository.ApplicantMatch(a.id, a.status) from AccountApplication a
+            where a.emailKey = :key
+            order by a.id""")
+    List<ApplicantMatch> findByEmailKey(String key, Pageable page);
+
+    @Query("""
+            select new com.abnamro.assignment.repository.ApplicantMatch(a.id, a.status) from AccountApplication a
+            where a.nameDateOfBirthKey = :key
+            order by a.id""")
+    List<ApplicantMatch> findByNameDateOfBirthKey(String key, Pageable page);
+
+    /**
+     * The applicant keys of all applications, as {@code [idDocumentKey, emailKey, nameDateOfBirthKey]}. Must be
+     * consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select a.idDocumentKey, a.emailKey, a.nameDateOfBirthKey from AccountApplication a")
+    Stream<Object[]> streamApplicantKeys();
+
+    @Query("""
+            select a.id from AccountApplication a
+            where a.status = :status and a.updatedAt < :before
+            order by a.updatedAt, a.id""")
+    List<UUID> findIdsByStatusAndUpdatedAtBefore(ApplicationStatus status, Instant before, Pageable page);
+
+    long countByStatusAndUpdatedAtBefore(ApplicationStatus status, Instant before);
+
+    @Modifying
+    @Query("""
+            delete from AccountApplication a
+            where a.id in :ids and a.status = :status and a.updatedAt < :before""")
+    int deleteByIdInAndStatusAndUpdatedAtBefore(Collection<UUID> ids, ApplicationStatus status, Instant before);
 }
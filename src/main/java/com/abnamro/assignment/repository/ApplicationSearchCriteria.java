@@ -0,0 +1,22 @@
+package com.abnamro.assignment.repository;
+
+import com.abnamro.assignment.model.AccountType;
+import com.abnamro.assignment.model.ApplicationStatus;
+import lombok.Builder;
+
+import java.time.Instant;
+
+/**
+ * Optional filters of an application search; {@code null} components are ignored. Lower bounds are inclusive,
+ * upper bounds exclusive.
+ */
+@Builder
+public record ApplicationSearchCriteria(
+        ApplicationStatus status,
+        AccountType accountType,
+        Instant createdFrom,
+        Instant createdTo,
+        Instant updatedFrom,
+        Instant updatedTo,
+        String email) {
+}
@@ -0,0 +1,17 @@
+package com.abnamro.assignment.repository;
+
+import java.util.List;
+
+/**
+ * Filtered listing of applications with keyset pagination on {@code (updatedAt, id)}.
+ */
+public interface ApplicationSearchRepository {
+
+    /**
+     * @param criteria The filters to apply.
+     * @param after    The last row of the previous page, or {@code null} for the first page.
+     * @param limit    The maximum number of rows to return.
+     * @return Matching applications in ascending {@code (updatedAt, id)} order.
+     */
+    List<ApplicationSummaryView> search(ApplicationSearchCriteria criteria, ApplicationKeyset after, int limit);
+}
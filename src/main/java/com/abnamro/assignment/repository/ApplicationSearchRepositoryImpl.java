@@ -0,0 +1,80 @@
+package com.abnamro.assignment.repository;
+
+import com.abnamro.assignment.model.AccountApplication;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Criteria API implementation of {@link ApplicationSearchRepository}. The seek predicate and ordering match the
+ * {@code (updated_at, id)} and {@code (status, updated_at, id)} indexes of {@code account_applications}, so a page
+ * reads {@code limit} index entries no matter how deep it is.
+ */
+class ApplicationSearchRepositoryImpl implements ApplicationSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ApplicationSummaryView> search(ApplicationSearchCriteria criteria, ApplicationKeyset after,
+            int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ApplicationSummaryView> query = cb.createQuery(ApplicationSummaryView.class);
+        Root<AccountApplication> application = query.from(AccountApplication.class);
+        Path<Instant> updatedAt = application.get("updatedAt");
+        Path<Instant> createdAt = application.get("createdAt");
+        Path<UUID> id = application.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.status() != null) {
+            predicates.add(cb.equal(application.get("status"), criteria.status()));
+        }
+        if (criteria.accountType() != null) {
+            predicates.add(cb.equal(application.get("accountType"), criteria.accountType()));
+        }
+        if (criteria.email() != null) {
+            predicates.add(cb.equal(application.get("email"), criteria.email()));
+        }
+        if (criteria.createdFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(createdAt, criteria.createdFrom()));
+        }
+        if (criteria.createdTo() != null) {
+            predicates.add(cb.lessThan(createdAt, criteria.createdTo()));
+        }
+        if (criteria.updatedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(updatedAt, criteria.updatedFrom()));
+        }
+        if (criteria.updatedTo() != null) {
+            predicates.add(cb.lessThan(updatedAt, criteria.updatedTo()));
+        }
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.greaterThan(updatedAt, after.updatedAt()),
+                    cb.and(cb.equal(updatedAt, after.updatedAt()), cb.greaterThan(id, after.id()))));
+        }
+
+        query.select(cb.construct(ApplicationSummaryView.class,
+                        id,
+                        application.get("status"),
+                        application.get("name"),
+                        application.get("email"),
+                        application.get("accountType"),
+                        createdAt,
+                        updatedAt))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(updatedAt), cb.asc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,20 @@
+package com.abnamro.assignment.repository;
+
+import com.abnamro.assignment.model.AccountType;
+import com.abnamro.assignment.model.ApplicationStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Listing projection of {@code AccountApplication}; selected directly, without loading or tracking entities.
+ */
+public record ApplicationSummaryView(
+        UUID id,
+        ApplicationStatus status,
+        String name,
+        String email,
+        AccountType accountType,
+        Instant createdAt,
+        Instant updatedAt) {
+}
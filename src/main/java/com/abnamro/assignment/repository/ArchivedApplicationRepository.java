@@ -0,0 +1,56 @@
+package com.abnamro.assignment.repository;
+
+import com.abnamro.assignment.model.AccountType;
+import com.abnamro.assignment.model.ArchivedApplication;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedApplicationRepository extends JpaRepository<ArchivedApplication, UUID> {
+
+    boolean existsByIdDocumentKeyAndAccountType(String idDocumentKey, AccountType accountType);
+
+    @Query("select a.id from ArchivedApplication a where a.idDocumentKey = :key order by a.id")
+    List<UUID> findIdsByIdDocumentKey(String key, Pageable page);
+
+    @Query("select a.id from ArchivedApplication a where a.emailKey = :key order by a.id")
+    List<UUID> findIdsByEmailKey(String key, Pageable page);
+
+    @Query("select a.id from ArchivedApplication a where a.nameDateOfBirthKey = :key order by a.id")
+    List<UUID> findIdsByNameDateOfBirthKey(String key, Pageable page);
+
+    /**
+     * The applicant keys of all archived applications, as {@code [idDocumentKey, emailKey, nameDateOfBirthKey]}.
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select a.idDocumentKey, a.emailKey, a.nameDateOfBirthKey from ArchivedApplication a")
+    Stream<Object[]> streamApplicantKeys();
+
+    /**
+     * The archived applications after the given position in {@code (updatedAt, id)} order, as
+     * {@code [id, payload]}. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select a.id, a.payload from ArchivedApplication a
+            where a.updatedAt > :afterUpdatedAt or (a.updatedAt = :afterUpdatedAt and a.id > :afterId)
+            order by a.updatedAt, a.id""")
+    Stream<Object[]> streamPayloadsAfter(Instant afterUpdatedAt, UUID afterId);
+}
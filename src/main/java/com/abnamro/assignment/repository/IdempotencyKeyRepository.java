@@ -0,0 +1,32 @@
+package com.abnamro.assignment.repository;
+
+import com.abnamro.assignment.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyKey k set k.response = :response where k.key = :key")
+    int complete(String key, String response);
+
+    /**
+     * Deletes a key. {@code deleteById} would skip it, because keys are always new to Spring Data.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.key = :key")
+    int release(String key);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.expiresAt < :now")
+    int deleteExpired(Instant now);
+}
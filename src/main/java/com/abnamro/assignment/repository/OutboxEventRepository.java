@@ -0,0 +1,17 @@
+package com.abnamro.assignment.repository;
+
+import com.abnamro.assignment.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * The oldest unpublished events, in publication order.
+     */
+    List<OutboxEvent> findAllByOrderByIdAsc(Pageable page);
+}
@@ -0,0 +1,139 @@
+package com.abnamro.assignment.retention;
+
+import com.abnamro.assignment.cache.ApplicationResponseCache;
+import com.abnamro.assignment.config.DraftRetentionProperties;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.store.ApplicationStore;
+import com.abnamro.assignment.writebehind.DraftWriteBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes DRAFT applications that have not been updated for {@code onboarding.draft-retention.retention}.
+ * <p>
+ * A run every {@code interval} walks the expired drafts oldest first through the {@code (status, updated_at, id)}
+ * index and deletes them in batches of {@code batch-size}, each its own short transaction, pausing
+ * {@code batch-delay} in between and stopping after {@code max-per-run}, so it never holds locks or connections for
+ * long. A draft updated after it was selected is kept, and drafts with changes pending in the
+ * {@link DraftWriteBuffer} are skipped; the buffer records no updates while a batch is deleted. Deleted drafts are counted as {@code onboarding.draft-purge.deleted}, runs
+ * are timed as {@code onboarding.draft-purge.run}, and {@code onboarding.draft-purge.backlog} is the number of
+ * expired drafts left after the last run.
+ */
+@Slf4j
+@Component
+public class DraftPurger {
+
+    private final DraftRetentionProperties properties;
+    private final ApplicationStore store;
+    private final DraftWriteBuffer writeBuffer;
+    private final ApplicationResponseCache cache;
+    private final Clock clock;
+    private final Counter deleted;
+    private final Timer runTimer;
+    private final AtomicLong backlog = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public DraftPurger(DraftRetentionProperties properties, ApplicationStore store, DraftWriteBuffer writeBuffer,
+            ApplicationResponseCache cache, MeterRegistry meterRegistry) {
+        this(properties, store, writeBuffer, cache, meterRegistry, Clock.systemUTC());
+    }
+
+    DraftPurger(DraftRetentionProperties properties, ApplicationStore store, DraftWriteBuffer writeBuffer,
+            ApplicationResponseCache cache, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = properties;
+        this.store = store;
+        this.writeBuffer = writeBuffer;
+        this.cache = cache;
+        this.clock = clock;
+        this.deleted = meterRegistry.counter("onboarding.draft-purge.deleted");
+        this.runTimer = meterRegistry.timer("onboarding.draft-purge.run");
+        meterRegistry.gauge("onboarding.draft-purge.backlog", backlog);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "draft-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::purgeInBackground, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Purging drafts not updated for {}", properties.getRetention());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            // Interrupts a run between batches; the rest is deleted by the next one
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Deletes up to {@code max-per-run} expired drafts.
+     *
+     * @return The number of drafts deleted.
+     */
+    int purge() throws InterruptedException {
+        Instant cutoff = clock.instant().minus(properties.getRetention());
+        long started = System.nanoTime();
+        int total = 0;
+        try {
+            while (total < properties.getMaxPerRun()) {
+                int limit = Math.min(properties.getBatchSize(), properties.getMaxPerRun() - total);
+                List<UUID> ids = store.findIdsByStatusUpdatedBefore(ApplicationStatus.DRAFT, cutoff, limit);
+                int batch = writeBuffer.excludingUpdates(() -> {
+                    List<UUID> idle = ids.stream().filter(id -> writeBuffer.find(id).isEmpty()).toList();
+                    int count = store.deleteByStatusUpdatedBefore(idle, ApplicationStatus.DRAFT, cutoff);
+                    idle.forEach(cache::evict);
+                    return count;
+                });
+                deleted.increment(batch);
+                total += batch;
+                // A short batch was the last one; one without deletions holds only drafts that are being written
+                if (ids.size() < limit || batch == 0) {
+                    break;
+                }
+                TimeUnit.MILLISECONDS.sleep(properties.getBatchDelay().toMillis());
+            }
+        } finally {
+            runTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            backlog.set(store.countByStatusUpdatedBefore(ApplicationStatus.DRAFT, cutoff));
+        }
+        if (total > 0) {
+            log.info("Purged {} drafts not updated since {}; {} left", total, cutoff, backlog.get());
+        }
+        return total;
+    }
+
+    private void purgeInBackground() {
+        try {
+            purge();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Purging expired drafts failed", e);
+        }
+    }
+}
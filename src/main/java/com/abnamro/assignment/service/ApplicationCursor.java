@@ -0,0 +1,39 @@
+package com.abnamro.assignment.service;
+
+import com.abnamro.assignment.repository.ApplicationKeyset;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque page cursors for {@code GET /applications}: the URL-safe Base64 form of {@code <updatedAt>|<id>}.
+ */
+final class ApplicationCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private ApplicationCursor() {
+    }
+
+    static String encode(ApplicationKeyset keyset) {
+        String raw = keyset.updatedAt().toString() + SEPARATOR + keyset.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode(ApplicationKeyset)}.
+     */
+    static ApplicationKeyset decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new ApplicationKeyset(Instant.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.abnamro.assignment.service;
+
+import com.abnamro.assignment.archive.ApplicationArchive;
+import com.abnamro.assignment.mapper.ApplicationMapper;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.repository.ApplicationKeyset;
+import com.abnamro.assignment.repository.ApplicationRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Writes applications as NDJSON, one {@code ApplicationResponse} per line, straight from a database cursor.
+ * <p>
+ * Each row is written and detached before the next one is read, so memory use does not grow with the number of
+ * applications. Rows are written by {@link ApplicationMapper#writeResponse} rather than mapped to a response
+ * first, which leaves only the row itself to be collected. Lines are in {@code (updatedAt, id)} order, so the last
+ * line written is a checkpoint from which an interrupted export can be resumed.
+ * <p>
+ * COMPLETED applications moved to the {@link ApplicationArchive} are read from a second cursor in the same order and
+ * merged in; one that is in both tiers while it is being archived is written once.
+ */
+@Slf4j
+@Service
+public class ApplicationExportService {
+
+    private static final ApplicationKeyset START = new ApplicationKeyset(Instant.EPOCH, new UUID(0, 0));
+
+    private final ApplicationRepository repository;
+    private final ApplicationArchive archive;
+    private final ApplicationMapper mapper;
+    private final EntityManager entityManager;
+    private final JsonFactory jsonFactory;
+    private final TransactionTemplate readOnly;
+    private final MeterRegistry meterRegistry;
+
+    public ApplicationExportService(ApplicationRepository repository, ApplicationArchive archive,
+            ApplicationMapper mapper, EntityManager entityManager, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.archive = archive;
+        this.mapper = mapper;
+        this.entityManager = entityManager;
+        this.jsonFactory = objectMapper.getFactory();
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param status The status of the applications to export.
+     * @param after  The checkpoint to resume after, or {@code null} to export from the start.
+     * @param out    The stream to write to; flushed but not closed.
+     * @return The number of applications written.
+     */
+    public long export(ApplicationStatus status, ApplicationKeyset after, OutputStream out) {
+        ApplicationKeyset from = after != null ? after : START;
+        log.info("Exporting {} applications after {}", status, from);
+        long count = readOnly.execute(tx -> {
+            try (Stream<AccountApplication> rows = repository.streamByStatusAfter(status, from.updatedAt(), from.id());
+                    // Archived applications are all COMPLETED
+                    Stream<AccountApplication> archived = status == ApplicationStatus.COMPLETED
+                            ? archive.streamAfter(from) : Stream.empty();
+                    JsonGenerator lines = jsonFactory.createGenerator(out)) {
+                lines.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                lines.setRootValueSeparator(new SerializedString("\n"));
+                long written = 0;
+                for (Iterator<AccountApplication> it = new Merge(rows.iterator(), archived.iterator()); it.hasNext();
+                        written++) {
+                    AccountApplication application = it.next();
+                    mapper.writeResponse(application, lines);
+                    if (entityManager.contains(application)) {
+                        entityManager.detach(application);
+                    }
+                }
+                lines.flush();
+                if (written > 0) {
+                    // The separator only goes between documents; terminate the last line as well
+                    out.write('\n');
+                }
+                return written;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        meterRegistry.counter("onboarding.export.applications").increment(count);
+        log.info("Exported {} {} applications", count, status);
+        return count;
+    }
+
+    /**
+     * Merges two iterators that are each in {@code (updatedAt, id)} order, taking an application present in both
+     * from the first.
+     */
+    private static final class Merge implements Iterator<AccountApplication> {
+
+        private final Iterator<AccountApplication> first;
+        private final Iterator<AccountApplication> second;
+        private AccountApplication nextFirst;
+        private AccountApplication nextSecond;
+
+        private Merge(Iterator<AccountApplication> first, Iterator<AccountApplication> second) {
+            this.first = first;
+            this.second = second;
+            this.nextFirst = first.hasNext() ? first.next() : null;
+            this.nextSecond = second.hasNext() ? second.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextFirst != null || nextSecond != null;
+        }
+
+        @Override
+        public AccountApplication next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int order = nextFirst == null ? 1 : nextSecond == null ? -1
+                    : ApplicationKeyset.ORDER.compare(keyset(nextFirst), keyset(nextSecond));
+            AccountApplication next;
+            if (order <= 0) {
+                next = nextFirst;
+                nextFirst = first.hasNext() ? first.next() : null;
+                if (order == 0) {
+                    nextSecond = second.hasNext() ? second.next() : null;
+                }
+            } else {
+                next = nextSecond;
+                nextSecond = second.hasNext() ? second.next() : null;
+            }
+            return next;
+        }
+
+        private static ApplicationKeyset keyset(AccountApplication application) {
+            return new ApplicationKeyset(application.getUpdatedAt(), application.getId());
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.abnamro.assignment.service;
 
+import com.abnamro.assignment.api.model.ApplicationBatchResponse;
+import com.abnamro.assignment.api.model.ApplicationBatchUpdateItem;
 import com.abnamro.assignment.api.model.ApplicationCreateRequest;
+import com.abnamro.assignment.api.model.ApplicationPage;
 import com.abnamro.assignment.api.model.ApplicationResponse;
 import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
+import com.abnamro.assignment.repository.ApplicationSearchCriteria;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface OnboardingService {
@@ -11,7 +16,24 @@ public interface OnboardingService {
 
     ApplicationResponse getApplication(UUID id);
 
-    ApplicationResponse updateApplication(UUID id, ApplicationUpdateRequest request);
+    long getApplicationVersion(UUID id);
 
-    ApplicationResponse submitApplication(UUID id);
+    /**
+     * @param expectedVersion The version the change is based on, or {@code null} to skip the check.
+     */
+    ApplicationResponse updateApplication(UUID id, ApplicationUpdateRequest request, Long expectedVersion);
+
+    /**
+     * @param expectedVersion The version the submission is based on, or {@code null} to skip the check.
+     */
+    ApplicationResponse submitApplication(UUID id, Long expectedVersion);
+
+    ApplicationBatchResponse createApplications(List<ApplicationCreateRequest> requests);
+
+    ApplicationBatchResponse updateApplications(List<ApplicationBatchUpdateItem> items);
+
+    /**
+     * @param cursor The {@code nextCursor} of the previous page, or {@code null} for the first page.
+     */
+    ApplicationPage listApplications(ApplicationSearchCriteria criteria, String cursor, int limit);
 }
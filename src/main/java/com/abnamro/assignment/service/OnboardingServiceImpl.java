@@ -1,39 +1,82 @@
 package com.abnamro.assignment.service;
 
+import com.abnamro.assignment.api.model.ApplicationBatchResponse;
+import com.abnamro.assignment.api.model.ApplicationBatchResult;
+import com.abnamro.assignment.api.model.ApplicationBatchUpdateItem;
 import com.abnamro.assignment.api.model.ApplicationCreateRequest;
+import com.abnamro.assignment.api.model.ApplicationPage;
 import com.abnamro.assignment.api.model.ApplicationResponse;
 import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
+import com.abnamro.assignment.archive.ApplicationArchive;
+import com.abnamro.assignment.cache.ApplicationResponseCache;
+import com.abnamro.assignment.config.BatchProperties;
+import com.abnamro.assignment.duplicate.DuplicateApplicantDetector;
 import com.abnamro.assignment.exception.ApplicationValidationException;
+import com.abnamro.assignment.exception.PreconditionFailedException;
 import com.abnamro.assignment.exception.ResourceNotFoundException;
+import com.abnamro.assignment.exception.ServiceOverloadedException;
 import com.abnamro.assignment.mapper.ApplicationMapper;
 import com.abnamro.assignment.model.AccountApplication;
 import com.abnamro.assignment.model.ApplicationStatus;
-import com.abnamro.assignment.model.validation.OnSubmit;
-import com.abnamro.assignment.repository.ApplicationRepository;
-import jakarta.validation.groups.Default;
+import com.abnamro.assignment.model.validation.ApplicationSubmitValidator;
+import com.abnamro.assignment.repository.ApplicationKeyset;
+import com.abnamro.assignment.repository.ApplicationSearchCriteria;
+import com.abnamro.assignment.repository.ApplicationSummaryView;
+import com.abnamro.assignment.store.ApplicationStore;
+import com.abnamro.assignment.submission.SubmissionProcessor;
+import com.abnamro.assignment.writebehind.DraftWriteBuffer;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionSystemException;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.validation.BindingResult;
-import org.springframework.validation.SmartValidator;
-import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Service for managing the onboarding lifecycle of bank account applications.
  * Handles creation, updates, retrieval, and final submission of applications.
+ * Single applications not in the store are looked up in the {@link ApplicationArchive}.
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class OnboardingServiceImpl implements OnboardingService {
 
-    private final ApplicationRepository repository;
+    private static final String ALREADY_SUBMITTED =
+            "An application for this ID document and account type has already been submitted";
+
+    private final ApplicationStore store;
     private final ApplicationMapper mapper;
-    private final SmartValidator validator;
+    private final ApplicationSubmitValidator submitValidator;
+    private final TransactionOperations transactionOperations;
+    private final BatchProperties batchProperties;
+    private final ApplicationResponseCache cache;
+    private final MeterRegistry meterRegistry;
+    private final DraftWriteBuffer writeBuffer;
+    private final SubmissionProcessor submissionProcessor;
+    private final DuplicateApplicantDetector duplicates;
+    private final ApplicationArchive archive;
 
     /**
      * Creates a new account application in DRAFT status.
@@ -41,103 +84,415 @@ public class OnboardingServiceImpl implements OnboardingService {
      * @param request The initial application details (optional).
      * @return The created application response.
      */
+    @Timed(value = "onboarding.service", extraTags = {"operation", "create"})
     @Transactional
     public ApplicationResponse createApplication(ApplicationCreateRequest request) {
         log.info("Creating new application");
-        AccountApplication application = new AccountApplication();
-        application.setStatus(ApplicationStatus.DRAFT);
-
-        // Map fields from request
-        if (request != null) {
-            mapper.updateFromRequest(application, request);
-        }
-
-        AccountApplication saved = repository.save(application);
+        AccountApplication saved = store.save(newDraft(request));
         log.info("Created application with ID: {}", saved.getId());
-        return mapper.toResponse(saved);
+        return toCachedResponse(saved);
     }
 
     /**
      * Retrieves an application by its ID.
+     * Pending write-behind changes are included. Otherwise served from the response cache when possible; not
+     * transactional so that a cache hit never acquires a database connection.
      *
      * @param id The unique identifier of the application.
      * @return The application response.
      * @throws ResourceNotFoundException if the application is not found.
      */
-    @Transactional(readOnly = true)
+    @Timed(value = "onboarding.service", extraTags = {"operation", "get"})
     public ApplicationResponse getApplication(UUID id) {
-        return repository.findById(id)
-                .map(mapper::toResponse)
+        return writeBuffer.find(id).or(() -> cache.get(id)).orElseGet(() -> find(id)
+                .map(this::toCachedResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Application not found")));
+    }
+
+    /**
+     * Returns the current version of an application without loading or mapping the full entity.
+     * Pending write-behind changes are flushed first, so the version always matches the stored state.
+     *
+     * @param id The unique identifier of the application.
+     * @return The current {@code @Version} value.
+     * @throws ResourceNotFoundException if the application is not found.
+     */
+    @Timed(value = "onboarding.service", extraTags = {"operation", "getVersion"})
+    public long getApplicationVersion(UUID id) {
+        writeBuffer.flush(id);
+        return cache.get(id)
+                .map(ApplicationResponse::getVersion)
+                .or(() -> store.findVersionById(id))
+                .or(() -> archive.findById(id).map(AccountApplication::getVersion))
                 .orElseThrow(() -> new ResourceNotFoundException("Application not found"));
     }
 
     /**
      * Updates an existing application with new details.
-     * Validates the allowed fields and updates the entity.
+     * Validates the allowed fields and updates the entity. With write-behind enabled, unconditional updates are
+     * buffered and the response carries no version until they are flushed.
      *
-     * @param id      The unique identifier of the application.
-     * @param request The partial update request containing fields to change.
+     * @param id              The unique identifier of the application.
+     * @param request         The partial update request containing fields to change.
+     * @param expectedVersion The version the change is based on, or {@code null} to skip the check.
      * @return The updated application response.
-     * @throws ResourceNotFoundException if the application is not found.
-     * @throws IllegalStateException     if the application is already COMPLETED.
+     * @throws ResourceNotFoundException   if the application is not found.
+     * @throws PreconditionFailedException if the application is no longer at the expected version.
+     * @throws IllegalStateException       if the application is no longer a DRAFT.
      */
+    @Timed(value = "onboarding.service", extraTags = {"operation", "update"})
     @Transactional
-    public ApplicationResponse updateApplication(UUID id, ApplicationUpdateRequest request) {
+    public ApplicationResponse updateApplication(UUID id, ApplicationUpdateRequest request, Long expectedVersion) {
+        if (expectedVersion == null && writeBuffer.isEnabled()) {
+            log.info("Buffering update for application with ID: {}", id);
+            return writeBuffer.update(id, request);
+        }
+        writeBuffer.flush(id);
+
         log.info("Updating application with ID: {}", id);
-        AccountApplication application = repository.findById(id)
+        AccountApplication application = find(id)
                 .orElseThrow(() -> {
                     log.error("Application not found with ID: {}", id);
                     return new ResourceNotFoundException("Application not found");
                 });
 
-        if (application.getStatus() == ApplicationStatus.COMPLETED) {
-            log.error("Cannot update completed application with ID: {}", id);
-            throw new IllegalStateException("Application is already completed and cannot be updated");
+        assertVersion(application, expectedVersion);
+
+        if (application.getStatus() != ApplicationStatus.DRAFT) {
+            log.error("Cannot update {} application with ID: {}", application.getStatus(), id);
+            throw new IllegalStateException(notUpdatable(application));
         }
 
-        mapper.updateFromRequest(application, request);
+        applyUpdate(application, request);
 
-        AccountApplication saved = repository.save(application);
+        // Flush so the response carries the incremented version and audit timestamp
+        AccountApplication saved = store.save(application);
         log.info("Updated application with ID: {}", saved.getId());
-        return mapper.toResponse(saved);
+        return toCachedResponse(saved);
     }
 
     /**
      * Submits an application for final processing.
      * Performs comprehensive validation of all mandatory fields.
      *
-     * @param id The unique identifier of the application.
-     * @return The submitted application response with status COMPLETED.
-     * @throws IllegalArgumentException if the application is not found.
-     * @throws IllegalStateException    if the application is already COMPLETED.
-     * @throws ResponseStatusException  if validation fails.
+     * @param id              The unique identifier of the application.
+     * @param expectedVersion The version the submission is based on, or {@code null} to skip the check.
+     * @return The application with status COMPLETED, or SUBMITTED in {@code async} submit mode, where the
+     *         submission checks and completion run later on the submission workers.
+     * @throws IllegalArgumentException       if the application is not found.
+     * @throws PreconditionFailedException    if the application is no longer at the expected version.
+     * @throws IllegalStateException          if the application is already SUBMITTED or COMPLETED, or another
+     *                                        application with the same ID document and account type is.
+     * @throws ApplicationValidationException if validation fails.
+     * @throws ServiceOverloadedException     if the submission queue is full ({@code async} mode).
      */
-    public ApplicationResponse submitApplication(UUID id) {
+    @Timed(value = "onboarding.service", extraTags = {"operation", "submit"})
+    public ApplicationResponse submitApplication(UUID id, Long expectedVersion) {
         log.info("Submitting application with ID: {}", id);
-        AccountApplication application = repository.findById(id)
+        writeBuffer.flush(id);
+        AccountApplication application = find(id)
                 .orElseThrow(() -> {
                     log.error("Application not found with ID: {}", id);
                     return new IllegalArgumentException("Application not found");
                 });
 
-        if (application.getStatus() == ApplicationStatus.COMPLETED) {
-            log.error("Cannot submit completed application with ID: {}", id);
-            throw new IllegalStateException("Application is already completed");
+        assertVersion(application, expectedVersion);
+
+        if (application.getStatus() != ApplicationStatus.DRAFT) {
+            log.error("Cannot submit {} application with ID: {}", application.getStatus(), id);
+            throw new IllegalStateException(
+                    "Application is already " + application.getStatus().name().toLowerCase(Locale.ROOT));
         }
 
         // Validate the entity state
-        BindingResult errors = new BeanPropertyBindingResult(application,
-                "accountApplication");
-        validator.validate(application, errors, Default.class, OnSubmit.class);
+        Optional<BindingResult> errors = meterRegistry.timer("onboarding.validation")
+                .record(() -> submitValidator.validate(application));
+
+        if (errors.isPresent()) {
+            log.error("Validation failed for application ID: {}. Errors: {}", id, errors.get().getAllErrors());
+            throw new ApplicationValidationException(errors.get());
+        }
+
+        flagDuplicate(application);
+        if (archive.containsApplicant(application.getIdDocumentKey(), application.getAccountType())) {
+            log.warn("Rejected submission of application ID {}: applicant has an archived {} application", id,
+                    application.getAccountType());
+            throw new IllegalStateException(ALREADY_SUBMITTED);
+        }
+
+        try {
+            if (submissionProcessor.isAsync()) {
+                submissionProcessor.assertCapacity();
+                application.setStatus(ApplicationStatus.SUBMITTED);
+                ApplicationResponse response = toCachedResponse(store.save(application));
+                submissionProcessor.enqueue(id);
+                log.info("Queued submitted application with ID: {}", id);
+                return response;
+            }
+
+            ApplicationResponse response = submissionProcessor.complete(application);
+            log.info("Submitted application with ID: {}", id);
+            return response;
+        } catch (DataIntegrityViolationException e) {
+            // The submitted-applicant unique key: one submitted application per ID document and account type
+            log.warn("Rejected submission of application ID {}: applicant already has a submitted {} application",
+                    id, application.getAccountType(), e);
+            throw new IllegalStateException(ALREADY_SUBMITTED);
+        }
+    }
+
+    /**
+     * Creates many DRAFT applications at once.
+     * Items are persisted in chunks, one transaction per chunk, so Hibernate can group the inserts into JDBC
+     * batches. If a chunk fails, its items are retried one by one so a single bad item only fails itself.
+     *
+     * @param requests The applications to create.
+     * @return One result per request, in request order.
+     * @throws IllegalArgumentException if the batch exceeds the configured maximum size.
+     */
+    @Timed(value = "onboarding.service", extraTags = {"operation", "createBatch"})
+    public ApplicationBatchResponse createApplications(List<ApplicationCreateRequest> requests) {
+        checkBatchSize(requests.size());
+        log.info("Creating {} applications in batch", requests.size());
+        ApplicationBatchResult[] results = new ApplicationBatchResult[requests.size()];
+        int chunkSize = batchProperties.getChunkSize();
+
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            int offset = from;
+            List<ApplicationCreateRequest> chunk = requests.subList(from, Math.min(from + chunkSize, requests.size()));
+            try {
+                List<AccountApplication> saved = transactionOperations.execute(status -> store.saveAll(
+                        chunk.stream().map(this::newDraft).toList()));
+                for (int i = 0; i < saved.size(); i++) {
+                    results[offset + i] = success(offset + i, HttpStatus.CREATED, saved.get(i));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Batch create chunk at index {} failed, retrying items individually", offset, e);
+                for (int i = 0; i < chunk.size(); i++) {
+                    ApplicationCreateRequest request = chunk.get(i);
+                    results[offset + i] = attempt(offset + i, HttpStatus.CREATED,
+                            () -> store.save(newDraft(request)));
+                }
+            }
+        }
+        return new ApplicationBatchResponse().results(Arrays.asList(results));
+    }
+
+    /**
+     * Applies many partial updates at once.
+     * Each chunk loads its applications with a single query and flushes all changes in one transaction.
+     * Unknown and completed applications are reported per item; if the flush itself fails the chunk is
+     * retried one item at a time.
+     *
+     * @param items The partial updates to apply.
+     * @return One result per item, in request order.
+     * @throws IllegalArgumentException if the batch exceeds the configured maximum size.
+     */
+    @Timed(value = "onboarding.service", extraTags = {"operation", "updateBatch"})
+    public ApplicationBatchResponse updateApplications(List<ApplicationBatchUpdateItem> items) {
+        checkBatchSize(items.size());
+        log.info("Updating {} applications in batch", items.size());
+        writeBuffer.flush(items.stream().map(ApplicationBatchUpdateItem::getId).toList());
+        ApplicationBatchResult[] results = new ApplicationBatchResult[items.size()];
+        int chunkSize = batchProperties.getChunkSize();
+
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            int offset = from;
+            List<ApplicationBatchUpdateItem> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+            try {
+                List<ApplicationBatchResult> chunkResults = transactionOperations.execute(
+                        status -> updateChunk(offset, chunk));
+                for (int i = 0; i < chunkResults.size(); i++) {
+                    results[offset + i] = chunkResults.get(i);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Batch update chunk at index {} failed, retrying items individually", offset, e);
+                for (int i = 0; i < chunk.size(); i++) {
+                    ApplicationBatchUpdateItem item = chunk.get(i);
+                    results[offset + i] = attempt(offset + i, HttpStatus.OK, () -> {
+                        AccountApplication application = find(item.getId())
+                                .orElseThrow(() -> new ResourceNotFoundException("Application not found"));
+                        assertUpdatable(application);
+                        applyUpdate(application, item.getChanges());
+                        return store.save(application);
+                    });
+                }
+            }
+        }
+        return new ApplicationBatchResponse().results(Arrays.asList(results));
+    }
+
+    /**
+     * Lists applications matching the criteria, ordered by {@code (updatedAt, id)}.
+     * Reads one row more than requested to tell whether another page follows, and projects rows straight into
+     * summaries without loading entities.
+     *
+     * @param criteria The filters to apply.
+     * @param cursor   The {@code nextCursor} of the previous page, or {@code null} for the first page.
+     * @param limit    The page size.
+     * @return One page of summaries and the cursor of the next page, if any.
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    @Timed(value = "onboarding.service", extraTags = {"operation", "list"})
+    @Transactional(readOnly = true)
+    public ApplicationPage listApplications(ApplicationSearchCriteria criteria, String cursor, int limit) {
+        ApplicationKeyset after = cursor == null ? null : ApplicationCursor.decode(cursor);
+        List<ApplicationSummaryView> rows = store.search(criteria, after, limit + 1);
+
+        ApplicationPage page = new ApplicationPage();
+        page.setItems(rows.stream().limit(limit).map(mapper::toSummary).toList());
+        if (rows.size() > limit) {
+            ApplicationSummaryView last = rows.get(limit - 1);
+            page.setNextCursor(ApplicationCursor.encode(new ApplicationKeyset(last.updatedAt(), last.id())));
+        }
+        return page;
+    }
+
+    private List<ApplicationBatchResult> updateChunk(int offset, List<ApplicationBatchUpdateItem> chunk) {
+        Set<UUID> ids = chunk.stream().map(ApplicationBatchUpdateItem::getId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<UUID, AccountApplication> found = store.findAllById(ids).stream()
+                .collect(Collectors.toMap(AccountApplication::getId, Function.identity()));
+
+        List<AccountApplication> updated = new ArrayList<>(chunk.size());
+        List<ApplicationBatchResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            ApplicationBatchUpdateItem item = chunk.get(i);
+            // Archived applications are COMPLETED: looked up only to report that instead of not found
+            AccountApplication application = found.containsKey(item.getId()) ? found.get(item.getId())
+                    : archive.findById(item.getId()).orElse(null);
+            if (application == null) {
+                results.add(failure(offset + i, new ResourceNotFoundException("Application not found")));
+            } else if (application.getStatus() != ApplicationStatus.DRAFT) {
+                results.add(failure(offset + i, new IllegalStateException(notUpdatable(application))));
+            } else {
+                applyUpdate(application, item.getChanges());
+                updated.add(application);
+                results.add(null);
+            }
+        }
+
+        store.saveAll(updated).forEach(saved -> found.put(saved.getId(), saved));
+
+        for (int i = 0; i < chunk.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, success(offset + i, HttpStatus.OK, found.get(chunk.get(i).getId())));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The application from the store, or else from the archive.
+     */
+    private Optional<AccountApplication> find(UUID id) {
+        return store.findById(id).or(() -> archive.findById(id));
+    }
+
+    private ApplicationResponse toCachedResponse(AccountApplication application) {
+        ApplicationResponse response = mapper.toResponse(application);
+        cache.put(response);
+        return response;
+    }
+
+    private AccountApplication newDraft(ApplicationCreateRequest request) {
+        AccountApplication application = new AccountApplication();
+        application.setStatus(ApplicationStatus.DRAFT);
+
+        // Map fields from request
+        if (request != null) {
+            mapper.updateFromRequest(application, request);
+        }
+        flagDuplicate(application);
+        return application;
+    }
+
+    private void applyUpdate(AccountApplication application, ApplicationUpdateRequest request) {
+        mapper.updateFromRequest(application, request);
+        duplicates.register(application);
+    }
+
+    /**
+     * Records the earliest other application of the same applicant, if there is one, and registers the
+     * application's own keys for later lookups.
+     */
+    private void flagDuplicate(AccountApplication application) {
+        duplicates.findDuplicate(application).ifPresent(match -> {
+            log.info("Possible duplicate of application {} found by {}", match.applicationId(), match.key());
+            application.setPossibleDuplicateOf(match.applicationId());
+            application.setDuplicateMatch(match.key());
+        });
+        duplicates.register(application);
+    }
+
+    private void assertVersion(AccountApplication application, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(application.getVersion())) {
+            log.error("Version mismatch for application ID: {}. Expected {}, found {}", application.getId(),
+                    expectedVersion, application.getVersion());
+            throw new PreconditionFailedException("Application has been modified since it was last fetched");
+        }
+    }
+
+    private void assertUpdatable(AccountApplication application) {
+        if (application.getStatus() != ApplicationStatus.DRAFT) {
+            throw new IllegalStateException(notUpdatable(application));
+        }
+    }
+
+    private static String notUpdatable(AccountApplication application) {
+        return "Application is already " + application.getStatus().name().toLowerCase(Locale.ROOT)
+                + " and cannot be updated";
+    }
 
-        if (errors.hasErrors()) {
-            log.error("Validation failed for application ID: {}. Errors: {}", id, errors.getAllErrors());
-            throw new ApplicationValidationException(errors);
+    private void checkBatchSize(int size) {
+        if (size > batchProperties.getMaxItems()) {
+            throw new IllegalArgumentException(
+                    "Batch size " + size + " exceeds the maximum of " + batchProperties.getMaxItems());
         }
+    }
+
+    private ApplicationBatchResult attempt(int index, HttpStatus status,
+            Supplier<AccountApplication> operation) {
+        try {
+            AccountApplication saved = transactionOperations.execute(tx -> operation.get());
+            return success(index, status, saved);
+        } catch (RuntimeException e) {
+            return failure(index, e);
+        }
+    }
 
-        application.setStatus(ApplicationStatus.COMPLETED);
-        AccountApplication saved = repository.save(application);
-        log.info("Submitted application with ID: {}", id);
-        return mapper.toResponse(saved);
+    private ApplicationBatchResult success(int index, HttpStatus status, AccountApplication application) {
+        return new ApplicationBatchResult()
+                .index(index)
+                .status(status.value())
+                .application(toCachedResponse(application));
+    }
+
+    /**
+     * Translates a per-item failure into the same status the single-item endpoint would have returned via
+     * {@link com.abnamro.assignment.exception.GlobalExceptionHandler}.
+     */
+    private ApplicationBatchResult failure(int index, RuntimeException e) {
+        ApplicationBatchResult result = new ApplicationBatchResult().index(index);
+        Throwable cause = e instanceof TransactionSystemException tse && tse.getRootCause() != null
+                ? tse.getRootCause() : e;
+
+        if (cause instanceof ConstraintViolationException cve) {
+            Map<String, String> errors = new HashMap<>();
+            cve.getConstraintViolations().forEach(violation -> errors.put(violation.getPropertyPath().toString(),
+                    violation.getMessage()));
+            return result.status(HttpStatus.BAD_REQUEST.value()).detail("Validation Failed").errors(errors);
+        }
+        if (cause instanceof ResourceNotFoundException) {
+            return result.status(HttpStatus.NOT_FOUND.value()).detail(cause.getMessage());
+        }
+        if (cause instanceof IllegalStateException || cause instanceof OptimisticLockingFailureException) {
+            return result.status(HttpStatus.CONFLICT.value()).detail(cause.getMessage());
+        }
+        if (cause instanceof IllegalArgumentException) {
+            return result.status(HttpStatus.BAD_REQUEST.value()).detail(cause.getMessage());
+        }
+        log.error("Unexpected failure for batch item {}", index, e);
+        return result.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).detail("Unexpected error");
     }
 }
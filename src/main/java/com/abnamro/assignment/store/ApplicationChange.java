@@ -0,0 +1,12 @@
+package com.abnamro.assignment.store;
+
+import com.abnamro.assignment.model.AccountApplication;
+
+/**
+ * One application changed by a save or deleted.
+ *
+ * @param before The previous state, or {@code null} for a new application.
+ * @param after  The new state, including version and audit timestamps, or {@code null} for a deletion.
+ */
+record ApplicationChange(AccountApplication before, AccountApplication after) {
+}
@@ -0,0 +1,19 @@
+package com.abnamro.assignment.store;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One change of an application as recorded by {@link EventSourcedApplicationStore}.
+ *
+ * @param sequence Position of the save in the event log; changes saved together share it.
+ * @param id       The application.
+ * @param version  The version the change produced; 0 creates the application.
+ * @param at       When the change was saved; the new {@code updatedAt}.
+ * @param changes  The changed {@code AccountApplication} properties and their new values, in its JSON form, or
+ *                 {@code null} when the application was deleted.
+ */
+public record ApplicationChangeEvent(long sequence, UUID id, long version, Instant at, ObjectNode changes) {
+}
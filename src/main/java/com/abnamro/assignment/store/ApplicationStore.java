@@ -0,0 +1,88 @@
+package com.abnamro.assignment.store;
+
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.ApplicantKey;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.repository.ApplicantMatch;
+import com.abnamro.assignment.repository.ApplicationKeyset;
+import com.abnamro.assignment.repository.ApplicationSearchCriteria;
+import com.abnamro.assignment.repository.ApplicationSummaryView;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Storage of account applications behind {@code OnboardingService}.
+ * <p>
+ * Applications handed out are detached: changing one has no effect until it is passed to {@link #save}. Saves
+ * follow the {@code @Version} semantics of the JPA mapping: a new application gets a time-ordered id and version
+ * 0, every save that changes something increments the version and {@code updatedAt}, a save without changes
+ * leaves both alone, and a save based on an outdated version fails with an
+ * {@link org.springframework.dao.OptimisticLockingFailureException}. A save that would give two applications the
+ * same {@code submittedApplicantKey} fails with a {@link org.springframework.dao.DataIntegrityViolationException}.
+ * <p>
+ * Implementations are selected by Spring profile: {@link JpaApplicationStore} by default,
+ * {@link InMemoryApplicationStore} with the {@code in-memory} profile and {@link EventSourcedApplicationStore} with
+ * the {@code event-sourced} profile.
+ */
+public interface ApplicationStore {
+
+    Optional<AccountApplication> findById(UUID id);
+
+    /**
+     * @return The applications found, in no particular order; unknown ids are skipped.
+     */
+    List<AccountApplication> findAllById(Collection<UUID> ids);
+
+    Optional<Long> findVersionById(UUID id);
+
+    /**
+     * Inserts or updates an application and returns its stored state, including id, version and audit timestamps.
+     */
+    AccountApplication save(AccountApplication application);
+
+    /**
+     * Saves all applications, or none of them if one fails.
+     *
+     * @return The stored states, in argument order.
+     */
+    List<AccountApplication> saveAll(List<AccountApplication> applications);
+
+    /**
+     * Up to {@code limit} summaries matching {@code criteria}, ordered by {@code (updatedAt, id)}, starting after
+     * {@code after} when given.
+     */
+    List<ApplicationSummaryView> search(ApplicationSearchCriteria criteria, ApplicationKeyset after, int limit);
+
+    /**
+     * Up to {@code limit} ids of applications with {@code status} last updated before {@code before}, oldest first.
+     */
+    List<UUID> findIdsByStatusUpdatedBefore(ApplicationStatus status, Instant before, int limit);
+
+    /**
+     * Number of applications with {@code status} last updated before {@code before}.
+     */
+    long countByStatusUpdatedBefore(ApplicationStatus status, Instant before);
+
+    /**
+     * Deletes those of {@code ids} that still have {@code status} and were last updated before {@code before}; an
+     * application changed since its id was read is kept.
+     *
+     * @return The number of applications deleted.
+     */
+    int deleteByStatusUpdatedBefore(Collection<UUID> ids, ApplicationStatus status, Instant before);
+
+    /**
+     * Up to {@code limit} applications whose {@code key} equals {@code value}, oldest first.
+     */
+    List<ApplicantMatch> findByApplicantKey(ApplicantKey key, String value, int limit);
+
+    /**
+     * Passes every non-null applicant key of every application to {@code action}, for warming lookup filters.
+     */
+    void forEachApplicantKey(BiConsumer<ApplicantKey, String> action);
+}
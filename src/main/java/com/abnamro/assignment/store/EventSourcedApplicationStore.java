@@ -0,0 +1,322 @@
+package com.abnamro.assignment.store;
+
+import com.abnamro.assignment.config.EventSourcedStoreProperties;
+import com.abnamro.assignment.config.InMemoryStoreProperties;
+import com.abnamro.assignment.model.AccountApplication;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * {@link InMemoryApplicationStore} whose changes are appended to an event log, for an audit history of every
+ * application and sequential instead of in-place writes.
+ * <p>
+ * Each save appends one record to a memory-mapped {@link SegmentLog} before its changes become visible: the
+ * changed properties of every application it touches, with the resulting version and time. A deletion is recorded
+ * as a change without properties that is marked {@code deleted}. The in-memory state is
+ * the materialized view of the log. It is written to {@code snapshot-<sequence>.ndjson} every
+ * {@code snapshot-interval} and on shutdown, and on startup the latest snapshot is loaded and the records after
+ * its sequence are replayed.
+ */
+@Slf4j
+@Component
+@Profile(EventSourcedApplicationStore.PROFILE)
+public class EventSourcedApplicationStore extends InMemoryApplicationStore {
+
+    public static final String PROFILE = "event-sourced";
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".ndjson";
+
+    /**
+     * Properties that are part of every change rather than its delta.
+     */
+    private static final Set<String> IMPLICIT_PROPERTIES = Set.of("id", "version", "createdAt", "updatedAt");
+
+    private final EventSourcedStoreProperties properties;
+    private final ObjectMapper objectMapper;
+    private final JavaType recordType;
+    private final SegmentLog eventLog;
+
+    /**
+     * Saves append and publish under the read lock; a snapshot takes the write lock to find a log position whose
+     * changes are all visible.
+     */
+    private final ReentrantReadWriteLock commits = new ReentrantReadWriteLock();
+
+    private ScheduledExecutorService snapshots;
+    private long snapshotSequence;
+
+    @Autowired
+    public EventSourcedApplicationStore(EventSourcedStoreProperties properties, ObjectMapper objectMapper) {
+        this(properties, objectMapper, Clock.systemUTC());
+    }
+
+    EventSourcedApplicationStore(EventSourcedStoreProperties properties, ObjectMapper objectMapper, Clock clock) {
+        super(new InMemoryStoreProperties(), objectMapper, clock);
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.recordType = objectMapper.getTypeFactory().constructCollectionType(List.class, LoggedChange.class);
+        this.eventLog = new SegmentLog(properties.getDirectory(), (int) properties.getSegmentSize().toBytes(),
+                properties.isFsync());
+    }
+
+    @PostConstruct
+    @Override
+    void start() {
+        latestSnapshot().ifPresent(snapshot -> {
+            readFrom(snapshot);
+            snapshotSequence = sequenceOf(snapshot);
+        });
+        long[] replayed = new long[1];
+        eventLog.open(snapshotSequence, (sequence, payload) -> {
+            replay(sequence, payload);
+            replayed[0]++;
+        });
+        log.info("Replayed {} event log records after snapshot {}; {} applications", replayed[0], snapshotSequence,
+                size());
+        long interval = properties.getSnapshotInterval().toMillis();
+        snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-store-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshots.scheduleWithFixedDelay(this::snapshotInBackground, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    @Override
+    void stop() {
+        snapshots.shutdown();
+        snapshot();
+        eventLog.close();
+    }
+
+    @Override
+    void commit(List<ApplicationChange> changes, Runnable publish) {
+        byte[] record = serialize(changes);
+        commits.readLock().lock();
+        try {
+            eventLog.append(record);
+            publish.run();
+        } finally {
+            commits.readLock().unlock();
+        }
+    }
+
+    /**
+     * All recorded changes of an application, oldest first, read from the retained log segments.
+     *
+     * @return The changes, or an empty list for an unknown application.
+     */
+    public List<ApplicationChangeEvent> history(UUID id) {
+        String idText = id.toString();
+        List<ApplicationChangeEvent> events = new ArrayList<>();
+        eventLog.forEach((sequence, payload) -> {
+            // Cheap pre-filter; most records are about other applications
+            if (!new String(payload, StandardCharsets.UTF_8).contains(idText)) {
+                return;
+            }
+            for (LoggedChange change : deserialize(sequence, payload)) {
+                if (change.id().equals(id)) {
+                    events.add(new ApplicationChangeEvent(sequence, id, change.version(), change.at(),
+                            change.changes()));
+                }
+            }
+        });
+        return events;
+    }
+
+    /**
+     * Writes the current state as a snapshot of the log position all of whose changes it contains, and removes
+     * older snapshots (and the segments they cover, unless retained).
+     */
+    synchronized void snapshot() {
+        long sequence;
+        commits.writeLock().lock();
+        try {
+            sequence = eventLog.lastSequence();
+        } finally {
+            commits.writeLock().unlock();
+        }
+        if (sequence == snapshotSequence) {
+            return;
+        }
+        Path directory = properties.getDirectory();
+        try {
+            Path tmp = directory.resolve(SNAPSHOT_PREFIX + "next" + SNAPSHOT_SUFFIX + ".tmp");
+            int count;
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                count = writeTo(out);
+            }
+            Path snapshot = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            List<Path> older;
+            try (Stream<Path> snapshots = snapshots()) {
+                older = snapshots.filter(path -> sequenceOf(path) < sequence).toList();
+            }
+            for (Path path : older) {
+                Files.deleteIfExists(path);
+            }
+            snapshotSequence = sequence;
+            log.info("Wrote {} applications to {}", count, snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write event store snapshot to " + directory, e);
+        }
+        if (!properties.isRetainSegments()) {
+            eventLog.deleteUpTo(sequence);
+        }
+    }
+
+    private void snapshotInBackground() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.error("Event store snapshot failed", e);
+        }
+    }
+
+    /**
+     * Applies the changes of a record that the snapshot does not contain yet. The snapshot is not a single point
+     * in time, so it may already hold a later version of an application; such changes are skipped.
+     */
+    private void replay(long sequence, byte[] payload) {
+        for (LoggedChange change : deserialize(sequence, payload)) {
+            AccountApplication current = stored(change.id());
+            if (change.deleted()) {
+                remove(change.id());
+                continue;
+            }
+            if (current != null && current.getVersion() >= change.version()) {
+                continue;
+            }
+            long expected = current == null ? 0 : current.getVersion() + 1;
+            if (change.version() != expected) {
+                throw new IllegalStateException("Event log record " + sequence + " changes application "
+                        + change.id() + " to version " + change.version() + ", expected " + expected);
+            }
+            AccountApplication application = current == null ? new AccountApplication() : copyOf(current);
+            try {
+                objectMapper.readerForUpdating(application).readValue(change.changes());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot apply event log record " + sequence, e);
+            }
+            application.setId(change.id());
+            application.setVersion(change.version());
+            if (current == null) {
+                application.setCreatedAt(change.at());
+            }
+            application.setUpdatedAt(change.at());
+            restore(application);
+        }
+    }
+
+    private byte[] serialize(List<ApplicationChange> changes) {
+        List<LoggedChange> record = new ArrayList<>(changes.size());
+        for (ApplicationChange change : changes) {
+            AccountApplication after = change.after();
+            if (after == null) {
+                AccountApplication before = change.before();
+                record.add(new LoggedChange(before.getId(), before.getVersion() + 1, now(), null, true));
+            } else {
+                record.add(new LoggedChange(after.getId(), after.getVersion(), after.getUpdatedAt(),
+                        delta(change.before(), after), false));
+            }
+        }
+        try {
+            return objectMapper.writeValueAsBytes(record);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot serialize application changes", e);
+        }
+    }
+
+    /**
+     * The properties of {@code after} that differ from {@code before}, or from a new application for an insert.
+     */
+    private ObjectNode delta(AccountApplication before, AccountApplication after) {
+        ObjectNode previous = objectMapper.valueToTree(before == null ? new AccountApplication() : before);
+        ObjectNode next = objectMapper.valueToTree(after);
+        ObjectNode changes = objectMapper.createObjectNode();
+        for (Iterator<Map.Entry<String, JsonNode>> fields = next.fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!IMPLICIT_PROPERTIES.contains(field.getKey())
+                    && !Objects.equals(previous.get(field.getKey()), field.getValue())) {
+                changes.set(field.getKey(), field.getValue());
+            }
+        }
+        return changes;
+    }
+
+    private List<LoggedChange> deserialize(long sequence, byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, recordType);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read event log record " + sequence, e);
+        }
+    }
+
+    private Optional<Path> latestSnapshot() {
+        if (!Files.isDirectory(properties.getDirectory())) {
+            return Optional.empty();
+        }
+        try (Stream<Path> snapshots = snapshots()) {
+            return snapshots.max((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)));
+        }
+    }
+
+    private Stream<Path> snapshots() {
+        try {
+            return Files.list(properties.getDirectory()).filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX)
+                        && Character.isDigit(name.charAt(SNAPSHOT_PREFIX.length()));
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list event store snapshots in " + properties.getDirectory(), e);
+        }
+    }
+
+    private static long sequenceOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    /**
+     * A change as stored in a log record; the sequence is the record's position.
+     */
+    private record LoggedChange(UUID id, long version, Instant at, ObjectNode changes,
+            @JsonInclude(JsonInclude.Include.NON_DEFAULT) boolean deleted) {
+    }
+}
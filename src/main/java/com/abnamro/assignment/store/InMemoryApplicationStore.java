@@ -0,0 +1,596 @@
+package com.abnamro.assignment.store;
+
+import com.abnamro.assignment.config.InMemoryStoreProperties;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.Address;
+import com.abnamro.assignment.model.ApplicantKey;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.model.id.TimeOrderedUuidGenerator;
+import com.abnamro.assignment.repository.ApplicantMatch;
+import com.abnamro.assignment.repository.ApplicationKeyset;
+import com.abnamro.assignment.repository.ApplicationSearchCriteria;
+import com.abnamro.assignment.repository.ApplicationSummaryView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link ApplicationStore} held entirely on the heap, for load-test environments and edge deployments.
+ * <p>
+ * Applications live in a {@link ConcurrentHashMap} as private copies that are replaced, never modified, so reads
+ * are lock-free. Writes to the same application are serialized by one of {@value #STRIPES} striped locks, and
+ * {@link #saveAll} takes the locks of all its applications in a fixed order, so it is atomic without deadlocks. A
+ * {@link ConcurrentSkipListSet} of {@code (updatedAt, id)} keys serves keyset-paginated searches and the recovery
+ * sweep in order; other filters are evaluated while walking it. Hash indexes on the {@link ApplicantKey}s serve
+ * duplicate lookups, and one on {@code submittedApplicantKey} enforces its uniqueness like the database does.
+ * <p>
+ * Nothing survives a restart unless {@code onboarding.store.in-memory.snapshot} is set, in which case the
+ * applications are loaded from that file on startup and written to it on shutdown (and optionally periodically).
+ * Writes are not part of the caller's database transaction.
+ */
+@Slf4j
+@Component
+@Profile(InMemoryApplicationStore.PROFILE)
+public class InMemoryApplicationStore implements ApplicationStore {
+
+    public static final String PROFILE = "in-memory";
+
+    private static final int STRIPES = 64;
+
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final InMemoryStoreProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final ConcurrentHashMap<UUID, AccountApplication> applications = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<ApplicationKeyset> byUpdatedAt =
+            new ConcurrentSkipListSet<>(ApplicationKeyset.ORDER);
+    private final Map<ApplicantKey, ConcurrentHashMap<String, ConcurrentSkipListSet<UUID>>> byApplicantKey =
+            new EnumMap<>(ApplicantKey.class);
+    private final ConcurrentHashMap<String, UUID> bySubmittedApplicant = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    private ScheduledExecutorService snapshots;
+
+    @Autowired
+    public InMemoryApplicationStore(InMemoryStoreProperties properties, ObjectMapper objectMapper) {
+        this(properties, objectMapper, Clock.systemUTC());
+    }
+
+    InMemoryApplicationStore(InMemoryStoreProperties properties, ObjectMapper objectMapper, Clock clock) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        for (ApplicantKey key : ApplicantKey.values()) {
+            byApplicantKey.put(key, new ConcurrentHashMap<>());
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (properties.getSnapshot() == null) {
+            return;
+        }
+        readFrom(properties.getSnapshot());
+        if (properties.getSnapshotInterval() != null) {
+            snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "in-memory-store-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.getSnapshotInterval().toMillis();
+            snapshots.scheduleWithFixedDelay(this::snapshotInBackground, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (snapshots != null) {
+            snapshots.shutdown();
+        }
+        if (properties.getSnapshot() != null) {
+            snapshot(properties.getSnapshot());
+        }
+    }
+
+    @Override
+    public Optional<AccountApplication> findById(UUID id) {
+        return Optional.ofNullable(applications.get(id)).map(InMemoryApplicationStore::copyOf);
+    }
+
+    @Override
+    public List<AccountApplication> findAllById(Collection<UUID> ids) {
+        List<AccountApplication> found = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            AccountApplication application = applications.get(id);
+            if (application != null) {
+                found.add(copyOf(application));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Optional<Long> findVersionById(UUID id) {
+        return Optional.ofNullable(applications.get(id)).map(AccountApplication::getVersion);
+    }
+
+    @Override
+    public AccountApplication save(AccountApplication application) {
+        AccountApplication candidate = withId(application);
+        ReentrantLock lock = stripes[stripe(candidate.getId())];
+        lock.lock();
+        try {
+            checkVersion(candidate);
+            AccountApplication current = applications.get(candidate.getId());
+            AccountApplication stored = prepare(current, candidate);
+            if (stored != current) {
+                ApplicationChange change = new ApplicationChange(current, stored);
+                commitClaimed(List.of(change), () -> publish(change));
+            }
+            return copyOf(stored);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<AccountApplication> saveAll(List<AccountApplication> batch) {
+        List<AccountApplication> candidates = batch.stream().map(this::withId).toList();
+        TreeSet<Integer> locked = lockAll(candidates.stream().map(AccountApplication::getId).toList());
+        try {
+            // Check everything before writing anything, so a stale item fails the whole batch
+            candidates.forEach(this::checkVersion);
+            Map<UUID, AccountApplication> latest = new HashMap<>();
+            List<ApplicationChange> changes = new ArrayList<>(candidates.size());
+            List<AccountApplication> saved = new ArrayList<>(candidates.size());
+            for (AccountApplication candidate : candidates) {
+                AccountApplication current = latest.containsKey(candidate.getId())
+                        ? latest.get(candidate.getId()) : applications.get(candidate.getId());
+                AccountApplication stored = prepare(current, candidate);
+                if (stored != current) {
+                    changes.add(new ApplicationChange(current, stored));
+                    latest.put(stored.getId(), stored);
+                }
+                saved.add(stored);
+            }
+            if (!changes.isEmpty()) {
+                commitClaimed(changes, () -> changes.forEach(this::publish));
+            }
+            return saved.stream().map(InMemoryApplicationStore::copyOf).toList();
+        } finally {
+            unlockAll(locked);
+        }
+    }
+
+    @Override
+    public List<ApplicationSummaryView> search(ApplicationSearchCriteria criteria, ApplicationKeyset after,
+            int limit) {
+        ApplicationKeyset from = after;
+        if (criteria.updatedFrom() != null) {
+            ApplicationKeyset lowerBound = new ApplicationKeyset(criteria.updatedFrom(), MIN_ID);
+            if (from == null || ApplicationKeyset.ORDER.compare(lowerBound, from) > 0) {
+                // updatedFrom is inclusive, and MIN_ID sorts before every id at that instant
+                return collect(byUpdatedAt.tailSet(lowerBound, true), criteria, limit);
+            }
+        }
+        return collect(from == null ? byUpdatedAt : byUpdatedAt.tailSet(from, false), criteria, limit);
+    }
+
+    @Override
+    public List<UUID> findIdsByStatusUpdatedBefore(ApplicationStatus status, Instant before, int limit) {
+        List<UUID> ids = new ArrayList<>();
+        for (ApplicationKeyset key : byUpdatedAt) {
+            if (ids.size() == limit || !key.updatedAt().isBefore(before)) {
+                break;
+            }
+            AccountApplication application = current(key);
+            if (application != null && application.getStatus() == status) {
+                ids.add(key.id());
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public long countByStatusUpdatedBefore(ApplicationStatus status, Instant before) {
+        long count = 0;
+        for (ApplicationKeyset key : byUpdatedAt.headSet(new ApplicationKeyset(before, MIN_ID), false)) {
+            AccountApplication application = current(key);
+            if (application != null && application.getStatus() == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int deleteByStatusUpdatedBefore(Collection<UUID> ids, ApplicationStatus status, Instant before) {
+        TreeSet<Integer> locked = lockAll(ids);
+        try {
+            List<ApplicationChange> changes = new ArrayList<>(ids.size());
+            for (UUID id : new LinkedHashSet<>(ids)) {
+                AccountApplication current = applications.get(id);
+                if (current != null && current.getStatus() == status && current.getUpdatedAt().isBefore(before)) {
+                    changes.add(new ApplicationChange(current, null));
+                }
+            }
+            if (!changes.isEmpty()) {
+                commit(changes, () -> changes.forEach(this::publish));
+            }
+            return changes.size();
+        } finally {
+            unlockAll(locked);
+        }
+    }
+
+    @Override
+    public List<ApplicantMatch> findByApplicantKey(ApplicantKey key, String value, int limit) {
+        ConcurrentSkipListSet<UUID> ids = byApplicantKey.get(key).get(value);
+        if (ids == null) {
+            return List.of();
+        }
+        List<ApplicantMatch> matches = new ArrayList<>(Math.min(limit, 16));
+        for (UUID id : ids) {
+            if (matches.size() == limit) {
+                break;
+            }
+            AccountApplication application = applications.get(id);
+            if (application != null) {
+                matches.add(new ApplicantMatch(id, application.getStatus()));
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public void forEachApplicantKey(BiConsumer<ApplicantKey, String> action) {
+        byApplicantKey.forEach((key, index) -> index.keySet().forEach(value -> action.accept(key, value)));
+    }
+
+    /**
+     * Number of stored applications.
+     */
+    public int size() {
+        return applications.size();
+    }
+
+    private List<ApplicationSummaryView> collect(NavigableSet<ApplicationKeyset> keys,
+            ApplicationSearchCriteria criteria, int limit) {
+        List<ApplicationSummaryView> page = new ArrayList<>(Math.min(limit, 128));
+        for (ApplicationKeyset key : keys) {
+            if (page.size() == limit
+                    || (criteria.updatedTo() != null && !key.updatedAt().isBefore(criteria.updatedTo()))) {
+                break;
+            }
+            AccountApplication application = current(key);
+            if (application != null && matches(application, criteria)) {
+                page.add(new ApplicationSummaryView(application.getId(), application.getStatus(),
+                        application.getName(), application.getEmail(), application.getAccountType(),
+                        application.getCreatedAt(), application.getUpdatedAt()));
+            }
+        }
+        return page;
+    }
+
+    /**
+     * The application behind an index key, or {@code null} if it has been updated since the key was read; it then
+     * shows up again under its new key.
+     */
+    private AccountApplication current(ApplicationKeyset key) {
+        AccountApplication application = applications.get(key.id());
+        return application != null && application.getUpdatedAt().equals(key.updatedAt()) ? application : null;
+    }
+
+    private static boolean matches(AccountApplication application, ApplicationSearchCriteria criteria) {
+        return (criteria.status() == null || criteria.status() == application.getStatus())
+                && (criteria.accountType() == null || criteria.accountType() == application.getAccountType())
+                && (criteria.email() == null || criteria.email().equals(application.getEmail()))
+                && (criteria.createdFrom() == null || !application.getCreatedAt().isBefore(criteria.createdFrom()))
+                && (criteria.createdTo() == null || application.getCreatedAt().isBefore(criteria.createdTo()));
+    }
+
+    /**
+     * A private copy of the application, with a new id if it has none yet.
+     */
+    private AccountApplication withId(AccountApplication application) {
+        AccountApplication candidate = copyOf(application);
+        if (candidate.getId() == null) {
+            candidate.setId(TimeOrderedUuidGenerator.shared().generate());
+        }
+        return candidate;
+    }
+
+    /**
+     * Locks the stripes of all ids in ascending order, so concurrent batches cannot deadlock.
+     */
+    private TreeSet<Integer> lockAll(Collection<UUID> ids) {
+        TreeSet<Integer> locked = new TreeSet<>();
+        ids.forEach(id -> locked.add(stripe(id)));
+        locked.forEach(stripe -> stripes[stripe].lock());
+        return locked;
+    }
+
+    private void unlockAll(TreeSet<Integer> locked) {
+        locked.descendingSet().forEach(stripe -> stripes[stripe].unlock());
+    }
+
+    private void checkVersion(AccountApplication candidate) {
+        AccountApplication current = applications.get(candidate.getId());
+        Long expected = current == null ? null : current.getVersion();
+        if (!Objects.equals(candidate.getVersion(), expected)) {
+            throw new ObjectOptimisticLockingFailureException(AccountApplication.class, candidate.getId());
+        }
+    }
+
+    /**
+     * Sets version and audit timestamps of a version-checked candidate.
+     *
+     * @return The candidate, or {@code current} when nothing changed.
+     */
+    private AccountApplication prepare(AccountApplication current, AccountApplication candidate) {
+        Instant now = now();
+        if (current == null) {
+            candidate.setVersion(0L);
+            candidate.setCreatedAt(now);
+        } else {
+            candidate.setVersion(current.getVersion());
+            candidate.setCreatedAt(current.getCreatedAt());
+            candidate.setUpdatedAt(current.getUpdatedAt());
+            if (candidate.equals(current)) {
+                // Nothing changed: like a clean entity, no new version and no audit update
+                return current;
+            }
+            candidate.setVersion(current.getVersion() + 1);
+        }
+        candidate.setUpdatedAt(now);
+        return candidate;
+    }
+
+    /**
+     * The current time at the precision of the database timestamps.
+     */
+    Instant now() {
+        return clock.instant().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Claims the submitted-applicant keys that the changes introduce, then commits them; a conflict, or a failed
+     * commit, releases the claims and fails the save unchanged.
+     */
+    private void commitClaimed(List<ApplicationChange> changes, Runnable publish) {
+        List<String> claimed = new ArrayList<>();
+        try {
+            for (ApplicationChange change : changes) {
+                AccountApplication after = change.after();
+                String key = after.getSubmittedApplicantKey();
+                if (key == null || (change.before() != null
+                        && key.equals(change.before().getSubmittedApplicantKey()))) {
+                    continue;
+                }
+                UUID holder = bySubmittedApplicant.putIfAbsent(key, after.getId());
+                if (holder == null) {
+                    claimed.add(key);
+                } else if (!holder.equals(after.getId())) {
+                    throw new DuplicateKeyException("Application " + holder
+                            + " of the same applicant and account type is already submitted");
+                }
+            }
+            commit(changes, publish);
+        } catch (RuntimeException e) {
+            claimed.forEach(bySubmittedApplicant::remove);
+            throw e;
+        }
+    }
+
+    /**
+     * Makes prepared changes visible by running {@code publish}. Called with the stripe locks of all changed
+     * applications held, so subclasses can record the changes first; an exception fails the save unchanged.
+     */
+    void commit(List<ApplicationChange> changes, Runnable publish) {
+        publish.run();
+    }
+
+    private void publish(ApplicationChange change) {
+        if (change.after() == null) {
+            remove(change.before().getId());
+            return;
+        }
+        if (change.before() != null) {
+            byUpdatedAt.remove(keyOf(change.before()));
+        }
+        restore(change.after());
+    }
+
+    /**
+     * Stores an application as is, replacing any previous state; for loading snapshots.
+     */
+    void restore(AccountApplication application) {
+        reindex(application.getId(), applications.put(application.getId(), application), application);
+    }
+
+    /**
+     * Removes an application, if stored; for deletions.
+     */
+    void remove(UUID id) {
+        AccountApplication previous = applications.remove(id);
+        if (previous != null) {
+            reindex(id, previous, null);
+        }
+    }
+
+    /**
+     * Moves the index entries of an application from its {@code previous} state to its new one; either may be
+     * {@code null}.
+     */
+    private void reindex(UUID id, AccountApplication previous, AccountApplication application) {
+        if (previous != null) {
+            byUpdatedAt.remove(keyOf(previous));
+        }
+        if (application != null) {
+            byUpdatedAt.add(keyOf(application));
+        }
+        for (ApplicantKey key : ApplicantKey.values()) {
+            String before = previous == null ? null : key.of(previous);
+            String after = application == null ? null : key.of(application);
+            if (!Objects.equals(before, after)) {
+                ConcurrentHashMap<String, ConcurrentSkipListSet<UUID>> index = byApplicantKey.get(key);
+                if (before != null) {
+                    index.computeIfPresent(before, (value, ids) -> {
+                        ids.remove(id);
+                        return ids.isEmpty() ? null : ids;
+                    });
+                }
+                if (after != null) {
+                    index.compute(after, (value, ids) -> {
+                        ConcurrentSkipListSet<UUID> updated = ids != null ? ids
+                                : new ConcurrentSkipListSet<>(ApplicationKeyset.ID_ORDER);
+                        updated.add(id);
+                        return updated;
+                    });
+                }
+            }
+        }
+        String submittedBefore = previous == null ? null : previous.getSubmittedApplicantKey();
+        String submittedAfter = application == null ? null : application.getSubmittedApplicantKey();
+        if (submittedBefore != null && !submittedBefore.equals(submittedAfter)) {
+            bySubmittedApplicant.remove(submittedBefore, id);
+        }
+        if (submittedAfter != null) {
+            bySubmittedApplicant.put(submittedAfter, id);
+        }
+    }
+
+    /**
+     * The stored state of an application; not to be modified.
+     */
+    AccountApplication stored(UUID id) {
+        return applications.get(id);
+    }
+
+    /**
+     * Writes the stored applications as NDJSON to {@code out}.
+     */
+    int writeTo(OutputStream out) throws IOException {
+        int count = 0;
+        try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            for (AccountApplication application : applications.values()) {
+                writer.write(application);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads applications written by {@link #writeTo} from {@code snapshot}, if it exists.
+     */
+    void readFrom(Path snapshot) {
+        if (!Files.exists(snapshot)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(snapshot, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    restore(objectMapper.readValue(line, AccountApplication.class));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load application snapshot " + snapshot, e);
+        }
+        log.info("Loaded {} applications from {}", applications.size(), snapshot);
+    }
+
+    /**
+     * Writes all applications to a temporary file and moves it over the snapshot, so a crash mid-write leaves the
+     * previous snapshot intact. Each application is written as last saved; the snapshot as a whole is not a single
+     * point in time.
+     */
+    void snapshot(Path snapshot) {
+        try {
+            Path parent = snapshot.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+            int count;
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                count = writeTo(out);
+            }
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote {} applications to {}", count, snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write in-memory store snapshot " + snapshot, e);
+        }
+    }
+
+    private void snapshotInBackground() {
+        try {
+            snapshot(properties.getSnapshot());
+        } catch (RuntimeException e) {
+            log.error("In-memory store snapshot failed", e);
+        }
+    }
+
+    private static int stripe(UUID id) {
+        return Math.floorMod(id.hashCode(), STRIPES);
+    }
+
+    private static ApplicationKeyset keyOf(AccountApplication application) {
+        return new ApplicationKeyset(application.getUpdatedAt(), application.getId());
+    }
+
+    static AccountApplication copyOf(AccountApplication application) {
+        AccountApplication copy = new AccountApplication();
+        BeanUtils.copyProperties(application, copy);
+        if (application.getAddress() != null) {
+            Address address = new Address();
+            BeanUtils.copyProperties(application.getAddress(), address);
+            copy.setAddress(address);
+        }
+        return copy;
+    }
+}
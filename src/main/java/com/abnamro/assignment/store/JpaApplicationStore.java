@@ -0,0 +1,110 @@
+package com.abnamro.assignment.store;
+
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.ApplicantKey;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.repository.ApplicantMatch;
+import com.abnamro.assignment.repository.ApplicationKeyset;
+import com.abnamro.assignment.repository.ApplicationRepository;
+import com.abnamro.assignment.repository.ApplicationSearchCriteria;
+import com.abnamro.assignment.repository.ApplicationSummaryView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link ApplicationStore} on the JPA {@link ApplicationRepository}. Saves are flushed immediately, so the returned
+ * application carries the new version and audit timestamps; they commit with the caller's transaction, if any.
+ */
+@Component
+@Profile("!" + InMemoryApplicationStore.PROFILE + " & !" + EventSourcedApplicationStore.PROFILE)
+@RequiredArgsConstructor
+public class JpaApplicationStore implements ApplicationStore {
+
+    private final ApplicationRepository repository;
+
+    @Override
+    public Optional<AccountApplication> findById(UUID id) {
+        return repository.findById(id);
+    }
+
+    @Override
+    public List<AccountApplication> findAllById(Collection<UUID> ids) {
+        return repository.findAllById(ids);
+    }
+
+    @Override
+    public Optional<Long> findVersionById(UUID id) {
+        return repository.findVersionById(id);
+    }
+
+    @Override
+    public AccountApplication save(AccountApplication application) {
+        return repository.saveAndFlush(application);
+    }
+
+    @Override
+    public List<AccountApplication> saveAll(List<AccountApplication> applications) {
+        return repository.saveAllAndFlush(applications);
+    }
+
+    @Override
+    public List<ApplicationSummaryView> search(ApplicationSearchCriteria criteria, ApplicationKeyset after,
+            int limit) {
+        return repository.search(criteria, after, limit);
+    }
+
+    @Override
+    public List<UUID> findIdsByStatusUpdatedBefore(ApplicationStatus status, Instant before, int limit) {
+        return repository.findIdsByStatusAndUpdatedAtBefore(status, before, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public long countByStatusUpdatedBefore(ApplicationStatus status, Instant before) {
+        return repository.countByStatusAndUpdatedAtBefore(status, before);
+    }
+
+    @Override
+    @Transactional
+    public int deleteByStatusUpdatedBefore(Collection<UUID> ids, ApplicationStatus status, Instant before) {
+        return ids.isEmpty() ? 0 : repository.deleteByIdInAndStatusAndUpdatedAtBefore(ids, status, before);
+    }
+
+    @Override
+    public List<ApplicantMatch> findByApplicantKey(ApplicantKey key, String value, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        return switch (key) {
+            case ID_DOCUMENT -> repository.findByIdDocumentKey(value, page);
+            case EMAIL -> repository.findByEmailKey(value, page);
+            case NAME_AND_DATE_OF_BIRTH -> repository.findByNameDateOfBirthKey(value, page);
+        };
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachApplicantKey(BiConsumer<ApplicantKey, String> action) {
+        try (Stream<Object[]> rows = repository.streamApplicantKeys()) {
+            rows.forEach(row -> {
+                accept(action, ApplicantKey.ID_DOCUMENT, row[0]);
+                accept(action, ApplicantKey.EMAIL, row[1]);
+                accept(action, ApplicantKey.NAME_AND_DATE_OF_BIRTH, row[2]);
+            });
+        }
+    }
+
+    private static void accept(BiConsumer<ApplicantKey, String> action, ApplicantKey key, Object value) {
+        if (value != null) {
+            action.accept(key, (String) value);
+        }
+    }
+}
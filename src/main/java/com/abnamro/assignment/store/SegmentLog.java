@@ -0,0 +1,260 @@
+package com.abnamro.assignment.store;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of opaque records in fixed-size, memory-mapped segment files.
+ * <p>
+ * Records are numbered from 1 without gaps. Each is stored as {@code [length][CRC32C][payload]}; a segment ends at
+ * the first zero length, and a record whose checksum does not match, left by a crash in the middle of an append,
+ * ends the log. Segment files are named after the sequence of their first record, so replay can start at any
+ * segment.
+ * <p>
+ * {@link #append} is thread-safe; {@link #open} must be called once before anything else.
+ */
+@Slf4j
+class SegmentLog implements Closeable {
+
+    /**
+     * Receives a record during replay. The payload array is not reused.
+     */
+    @FunctionalInterface
+    interface RecordHandler {
+        void handle(long sequence, byte[] payload);
+    }
+
+    private static final String SUFFIX = ".log";
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private volatile long lastSequence;
+
+    SegmentLog(Path directory, int segmentSize, boolean fsync) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Replays all records after {@code after} to {@code handler}, then positions the log for appending after the
+     * last complete record.
+     */
+    synchronized void open(long after, RecordHandler handler) {
+        try {
+            Files.createDirectories(directory);
+            List<Long> starts = segmentStarts();
+            if (starts.isEmpty()) {
+                roll(Math.max(after, 0) + 1);
+                return;
+            }
+            if (starts.get(0) > after + 1) {
+                throw new IllegalStateException("Event log in " + directory + " starts at record " + starts.get(0)
+                        + ", after the snapshot at " + after);
+            }
+            long sequence = starts.get(0) - 1;
+            for (int i = 0; i < starts.size(); i++) {
+                long start = starts.get(i);
+                boolean active = i == starts.size() - 1;
+                if (!active && starts.get(i + 1) <= after + 1) {
+                    // Holds no records after the replay point
+                    sequence = starts.get(i + 1) - 1;
+                    continue;
+                }
+                MappedByteBuffer buffer = map(start, active ? FileChannel.MapMode.READ_WRITE
+                        : FileChannel.MapMode.READ_ONLY);
+                sequence = replay(buffer, start, after, handler);
+                if (active) {
+                    segment = buffer;
+                    segmentStart = start;
+                } else if (sequence != starts.get(i + 1) - 1) {
+                    throw new IllegalStateException("Event log segment " + starts.get(i + 1)
+                            + " does not follow record " + sequence + " in " + directory);
+                }
+            }
+            lastSequence = sequence;
+            if (after > sequence) {
+                throw new IllegalStateException("Event log in " + directory + " ends at record " + sequence
+                        + " before the snapshot at " + after);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open event log " + directory, e);
+        }
+    }
+
+    /**
+     * Appends a record, forcing it to disk first when {@code fsync} is set.
+     *
+     * @return The sequence of the record.
+     */
+    synchronized long append(byte[] payload) {
+        if (payload.length > segmentSize - HEADER_SIZE) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds the segment size");
+        }
+        try {
+            if (segment.remaining() < HEADER_SIZE + payload.length) {
+                roll(lastSequence + 1);
+            }
+            int position = segment.position();
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            segment.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            if (fsync) {
+                segment.force(position, HEADER_SIZE + payload.length);
+            }
+            return ++lastSequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to event log " + directory, e);
+        }
+    }
+
+    /**
+     * Sequence of the last appended record, or the record before the first segment if none was appended.
+     */
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Reads all records up to the last appended one, from the oldest retained segment on.
+     */
+    void forEach(RecordHandler handler) {
+        long last = lastSequence;
+        try {
+            for (long start : segmentStarts()) {
+                if (start > last) {
+                    break;
+                }
+                replay(map(start, FileChannel.MapMode.READ_ONLY), start, 0, (sequence, payload) -> {
+                    if (sequence <= last) {
+                        handler.handle(sequence, payload);
+                    }
+                });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read event log " + directory, e);
+        }
+    }
+
+    /**
+     * Deletes the segments whose records all have a sequence up to {@code sequence}. The segment being appended to
+     * is kept.
+     */
+    synchronized void deleteUpTo(long sequence) {
+        try {
+            List<Long> starts = segmentStarts();
+            for (int i = 0; i + 1 < starts.size() && starts.get(i + 1) - 1 <= sequence; i++) {
+                if (starts.get(i) != segmentStart) {
+                    Files.deleteIfExists(file(starts.get(i)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete event log segments in " + directory, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+    }
+
+    private long replay(MappedByteBuffer buffer, long start, long after, RecordHandler handler) {
+        long sequence = start - 1;
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int position = buffer.position();
+            int length = buffer.getInt();
+            if (length == 0) {
+                buffer.position(position);
+                break;
+            }
+            int checksum = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                truncate(buffer, start, position);
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                truncate(buffer, start, position);
+                break;
+            }
+            sequence++;
+            if (sequence > after) {
+                handler.handle(sequence, payload);
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Zeroes a torn record and everything after it, so the next append starts a clean end of the log.
+     */
+    private void truncate(MappedByteBuffer buffer, long start, int position) {
+        if (buffer.isReadOnly()) {
+            buffer.position(position);
+            return;
+        }
+        log.warn("Discarding torn event log record at byte {} of segment {}", position, start);
+        buffer.position(position);
+        while (buffer.hasRemaining()) {
+            buffer.put((byte) 0);
+        }
+        buffer.position(position);
+    }
+
+    private void roll(long start) throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        segment = map(start, FileChannel.MapMode.READ_WRITE);
+        segmentStart = start;
+        lastSequence = start - 1;
+    }
+
+    private MappedByteBuffer map(long start, FileChannel.MapMode mode) throws IOException {
+        boolean write = mode == FileChannel.MapMode.READ_WRITE;
+        try (FileChannel channel = write
+                ? FileChannel.open(file(start), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)
+                : FileChannel.open(file(start), StandardOpenOption.READ)) {
+            // A read-write mapping grows the file to the full segment size, so the segment is allocated once
+            return channel.map(mode, 0, write ? segmentSize : Math.min(channel.size(), segmentSize));
+        }
+    }
+
+    private List<Long> segmentStarts() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path file(long start) {
+        return directory.resolve(String.format("%020d%s", start, SUFFIX));
+    }
+}
@@ -0,0 +1,18 @@
+package com.abnamro.assignment.submission;
+
+import com.abnamro.assignment.exception.ApplicationValidationException;
+import com.abnamro.assignment.model.AccountApplication;
+
+/**
+ * A check that must pass before a submitted application is completed, such as ID document verification or fraud
+ * scoring. Checks run after the submit validation, in {@link org.springframework.core.annotation.Order} order;
+ * in {@code async} submit mode they run on the submission workers, off the request thread.
+ */
+public interface SubmissionCheck {
+
+    /**
+     * @throws ApplicationValidationException if the application is rejected; it returns to DRAFT so the applicant
+     *                                        can correct it.
+     */
+    void check(AccountApplication application);
+}
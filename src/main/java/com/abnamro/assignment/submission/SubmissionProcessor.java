@@ -0,0 +1,293 @@
+package com.abnamro.assignment.submission;
+
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.cache.ApplicationResponseCache;
+import com.abnamro.assignment.config.SubmitProperties;
+import com.abnamro.assignment.exception.ApplicationValidationException;
+import com.abnamro.assignment.exception.ServiceOverloadedException;
+import com.abnamro.assignment.mapper.ApplicationMapper;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.outbox.ApplicationEventOutbox;
+import com.abnamro.assignment.store.ApplicationStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Completes submitted applications: runs the {@link SubmissionCheck}s, then marks the application COMPLETED and
+ * records its outbox event in one transaction.
+ * <p>
+ * In {@code async} submit mode, submitted applications are queued on a bounded queue served by a fixed pool of
+ * workers. The database is the source of truth: anything left SUBMITTED, by a restart, a full queue or a failing
+ * check, is queued again by a periodic recovery sweep. In {@code sync} mode, applications a previous run left
+ * SUBMITTED, for instance before a switch from {@code async}, are completed once on startup, in the background.
+ * Publishes {@code onboarding.submit.queue.depth} and times
+ * {@code onboarding.submit.wait} (queued to picked up) and {@code onboarding.submit.processing}.
+ */
+@Slf4j
+@Component
+public class SubmissionProcessor {
+
+    private static final int RECOVERY_PAGE_SIZE = 100;
+
+    private final SubmitProperties properties;
+    private final ApplicationStore store;
+    private final ApplicationMapper mapper;
+    private final ApplicationResponseCache cache;
+    private final ApplicationEventOutbox outbox;
+    private final TransactionOperations transactionOperations;
+    private final ObjectProvider<SubmissionCheck> checks;
+    private final MeterRegistry meterRegistry;
+    private final Timer waitTimer;
+    private final Timer processingTimer;
+
+    /**
+     * Applications queued or being processed, so the recovery sweep does not queue them twice.
+     */
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor workers;
+    private ScheduledExecutorService recovery;
+
+    public SubmissionProcessor(SubmitProperties properties, ApplicationStore store,
+            ApplicationMapper mapper, ApplicationResponseCache cache, ApplicationEventOutbox outbox,
+            TransactionOperations transactionOperations, ObjectProvider<SubmissionCheck> checks,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.store = store;
+        this.mapper = mapper;
+        this.cache = cache;
+        this.outbox = outbox;
+        this.transactionOperations = transactionOperations;
+        this.checks = checks;
+        this.meterRegistry = meterRegistry;
+        this.waitTimer = meterRegistry.timer("onboarding.submit.wait");
+        this.processingTimer = meterRegistry.timer("onboarding.submit.processing");
+    }
+
+    public boolean isAsync() {
+        return properties.getMode() == SubmitProperties.Mode.ASYNC;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isAsync()) {
+            recovery = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "submission-recovery");
+                thread.setDaemon(true);
+                return thread;
+            });
+            recovery.execute(() -> completeLeftovers(Instant.now()));
+            recovery.shutdown();
+            return;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        workers = new ThreadPoolExecutor(properties.getWorkers(), properties.getWorkers(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()), runnable -> {
+                    Thread thread = new Thread(runnable, "submission-worker-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        meterRegistry.gauge("onboarding.submit.queue.depth", this, SubmissionProcessor::queueDepth);
+        recovery = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "submission-recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The first sweep picks up everything a previous run left behind
+        recovery.execute(() -> recover(Instant.now()));
+        long interval = properties.getRecoveryInterval().toMillis();
+        recovery.scheduleWithFixedDelay(() -> recover(Instant.now().minus(properties.getRecoveryInterval())),
+                interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Asynchronous submission enabled with {} workers", properties.getWorkers());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (recovery != null) {
+            recovery.shutdownNow();
+        }
+        if (workers == null) {
+            return;
+        }
+        // Queued applications stay SUBMITTED and are picked up by the next run
+        workers.shutdownNow();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Number of submitted applications waiting for a worker.
+     */
+    public int queueDepth() {
+        return workers == null ? 0 : workers.getQueue().size();
+    }
+
+    /**
+     * Fails fast when the queue is full, before the caller changes any state.
+     *
+     * @throws ServiceOverloadedException if no more submissions can be queued right now.
+     */
+    public void assertCapacity() {
+        if (workers.getQueue().remainingCapacity() == 0) {
+            throw new ServiceOverloadedException("Too many submissions in progress, please retry later",
+                    retryAfter());
+        }
+    }
+
+    /**
+     * Queues a SUBMITTED application once the current transaction, if any, has committed.
+     */
+    public void enqueue(UUID id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(id);
+                }
+            });
+        } else {
+            offer(id);
+        }
+    }
+
+    /**
+     * Runs the checks and completes the application.
+     *
+     * @return The COMPLETED application.
+     * @throws ApplicationValidationException if a check rejects the application; nothing is changed.
+     */
+    public ApplicationResponse complete(AccountApplication application) {
+        checks.orderedStream().forEach(check -> check.check(application));
+        application.setStatus(ApplicationStatus.COMPLETED);
+        ApplicationResponse response = transactionOperations.execute(status -> {
+            ApplicationResponse completed = mapper.toResponse(store.save(application));
+            outbox.applicationSubmitted(completed);
+            return completed;
+        });
+        cache.put(response);
+        return response;
+    }
+
+    private void offer(UUID id) {
+        if (!inFlight.add(id)) {
+            return;
+        }
+        long queuedAt = System.nanoTime();
+        try {
+            workers.execute(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    processingTimer.record(() -> process(id));
+                } finally {
+                    inFlight.remove(id);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(id);
+            log.warn("Submission queue full, application ID {} is left for the recovery sweep", id);
+        }
+    }
+
+    /**
+     * @return {@code false} if the application is still SUBMITTED because processing failed.
+     */
+    boolean process(UUID id) {
+        AccountApplication application = store.findById(id).orElse(null);
+        if (application == null || application.getStatus() != ApplicationStatus.SUBMITTED) {
+            return true;
+        }
+        try {
+            complete(application);
+            outcome("completed");
+            log.info("Completed submitted application with ID: {}", id);
+        } catch (ApplicationValidationException e) {
+            log.warn("Submitted application ID {} rejected: {}", id, e.getBindingResult().getAllErrors());
+            application.setStatus(ApplicationStatus.DRAFT);
+            cache.put(mapper.toResponse(store.save(application)));
+            outcome("rejected");
+        } catch (RuntimeException e) {
+            log.error("Processing submitted application ID {} failed, it will be retried", id, e);
+            outcome("failed");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Completes, in the calling thread, the applications that have been SUBMITTED since before {@code cutoff}. Ones
+     * that fail stay SUBMITTED until the next startup.
+     */
+    void completeLeftovers(Instant cutoff) {
+        try {
+            // Failed ones stay SUBMITTED and come first, so every page asks for that many more
+            int failed = 0;
+            int limit;
+            List<UUID> ids;
+            do {
+                limit = failed + RECOVERY_PAGE_SIZE;
+                ids = store.findIdsByStatusUpdatedBefore(ApplicationStatus.SUBMITTED, cutoff, limit);
+                List<UUID> page = ids.subList(Math.min(failed, ids.size()), ids.size());
+                if (!page.isEmpty()) {
+                    log.info("Completing {} applications left submitted by a previous run", page.size());
+                }
+                for (UUID id : page) {
+                    if (!process(id)) {
+                        failed++;
+                    }
+                }
+            } while (ids.size() == limit);
+        } catch (RuntimeException e) {
+            log.error("Completing submitted applications left by a previous run failed", e);
+        }
+    }
+
+    /**
+     * Queues applications that have been SUBMITTED since before {@code cutoff}.
+     */
+    void recover(Instant cutoff) {
+        try {
+            int capacity = workers.getQueue().remainingCapacity();
+            if (capacity == 0) {
+                return;
+            }
+            List<UUID> ids = store.findIdsByStatusUpdatedBefore(ApplicationStatus.SUBMITTED, cutoff, capacity);
+            if (!ids.isEmpty()) {
+                log.info("Re-queueing {} submitted applications", ids.size());
+                ids.forEach(this::offer);
+            }
+        } catch (RuntimeException e) {
+            log.error("Recovery sweep of submitted applications failed", e);
+        }
+    }
+
+    private void outcome(String result) {
+        meterRegistry.counter("onboarding.submit.processed", "result", result).increment();
+    }
+
+    private Duration retryAfter() {
+        return properties.getRecoveryInterval().dividedBy(10);
+    }
+}
@@ -0,0 +1,135 @@
+package com.abnamro.assignment.writebehind;
+
+import com.abnamro.assignment.api.model.ApplicationBatchUpdateItem;
+import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Append-only journal of draft changes, one {@link ApplicationBatchUpdateItem} JSON document per line.
+ * <p>
+ * Not thread-safe; {@link DraftWriteBuffer} serializes access under its lock.
+ */
+@Slf4j
+class DraftJournal implements Closeable {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private FileChannel channel;
+
+    DraftJournal(Path path, ObjectMapper objectMapper, boolean fsync) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Reads all complete entries. A torn last line, left by a crash in the middle of an append, is ignored.
+     */
+    List<ApplicationBatchUpdateItem> read() {
+        if (!Files.exists(path)) {
+            return List.of();
+        }
+        try {
+            List<ApplicationBatchUpdateItem> items = new ArrayList<>();
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    items.add(objectMapper.readValue(line, ApplicationBatchUpdateItem.class));
+                } catch (JsonProcessingException e) {
+                    log.warn("Ignoring unreadable write-behind journal entry in {}", path, e);
+                }
+            }
+            return items;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read write-behind journal " + path, e);
+        }
+    }
+
+    void append(UUID id, ApplicationUpdateRequest changes) {
+        try {
+            write(channel(), id, changes);
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to write-behind journal " + path, e);
+        }
+    }
+
+    /**
+     * Atomically replaces the journal with one entry per still pending application.
+     */
+    void rewrite(Map<UUID, ApplicationUpdateRequest> pending) {
+        try {
+            close();
+            if (pending.isEmpty()) {
+                Files.deleteIfExists(path);
+                return;
+            }
+            createParentDirectories();
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (Map.Entry<UUID, ApplicationUpdateRequest> entry : pending.entrySet()) {
+                    write(out, entry.getKey(), entry.getValue());
+                }
+                out.force(true);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact write-behind journal " + path, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            createParentDirectories();
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private void createParentDirectories() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+    }
+
+    private void write(FileChannel out, UUID id, ApplicationUpdateRequest changes) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(new ApplicationBatchUpdateItem().id(id).changes(changes));
+        ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        while (line.hasRemaining()) {
+            out.write(line);
+        }
+    }
+}
@@ -0,0 +1,520 @@
+package com.abnamro.assignment.writebehind;
+
+import com.abnamro.assignment.api.model.ApplicationBatchUpdateItem;
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
+import com.abnamro.assignment.cache.ApplicationResponseCache;
+import com.abnamro.assignment.config.BatchProperties;
+import com.abnamro.assignment.config.WriteBehindProperties;
+import com.abnamro.assignment.duplicate.DuplicateApplicantDetector;
+import com.abnamro.assignment.exception.ResourceNotFoundException;
+import com.abnamro.assignment.mapper.ApplicationMapper;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.Address;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.store.ApplicationStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind buffer for draft updates.
+ * <p>
+ * Unconditional updates are checked against the entity constraints, journaled, folded into one pending change set
+ * per application and acknowledged without touching the database. Pending change sets are written in batches by a
+ * background flush, triggered on a fixed interval or when {@code flush-threshold} applications are pending. Anything
+ * that needs the stored state, such as submission or a conditional request, flushes the affected applications first.
+ * <p>
+ * Responses of pending applications carry no {@code version}, since the stored version only changes on flush.
+ * The journal is replayed on startup and compacted after every flush. A change set that cannot be written stays
+ * pending and in the journal, and is retried by the next flush; each failed attempt is counted as
+ * {@code onboarding.write-behind.failures}. A change set whose application was deleted or is no longer a DRAFT by
+ * the time it is written is discarded and counted as {@code onboarding.write-behind.discarded}.
+ */
+@Slf4j
+@Component
+public class DraftWriteBuffer {
+
+    private final WriteBehindProperties properties;
+    private final BatchProperties batchProperties;
+    private final ApplicationStore store;
+    private final ApplicationMapper mapper;
+    private final ApplicationResponseCache cache;
+    private final DuplicateApplicantDetector duplicates;
+    private final Validator validator;
+    private final TransactionTemplate requiresNew;
+    private final DraftJournal journal;
+    private final Timer flushTimer;
+    private final Counter failures;
+    private final Counter discarded;
+
+    /**
+     * Guards {@link #pending} and the journal.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Serializes flushes, so a change set is never written by two threads at once.
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Map<UUID, Pending> pending = new LinkedHashMap<>();
+
+    /**
+     * Incremented under {@link #lock} by every {@link #excludingUpdates} call, so an update that loaded its draft
+     * before a deletion loads it again.
+     */
+    private volatile long deletions;
+
+    private ScheduledExecutorService scheduler;
+
+    public DraftWriteBuffer(WriteBehindProperties properties, BatchProperties batchProperties,
+            ApplicationStore store, ApplicationMapper mapper, ApplicationResponseCache cache,
+            DuplicateApplicantDetector duplicates, Validator validator, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.batchProperties = batchProperties;
+        this.store = store;
+        this.mapper = mapper;
+        this.cache = cache;
+        this.duplicates = duplicates;
+        this.validator = validator;
+        // Flushes commit on their own, even when triggered from inside a caller's transaction
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.journal = new DraftJournal(properties.getJournal(), objectMapper, properties.isFsync());
+        this.flushTimer = meterRegistry.timer("onboarding.write-behind.flush");
+        this.failures = meterRegistry.counter("onboarding.write-behind.failures");
+        this.discarded = meterRegistry.counter("onboarding.write-behind.discarded");
+        meterRegistry.gauge("onboarding.write-behind.pending", this, DraftWriteBuffer::size);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        recover();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushInBackground, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Write-behind enabled, journal at {}", properties.getJournal().toAbsolutePath());
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        scheduler.shutdown();
+        // Change sets that cannot be written stay in the journal and are replayed on the next start
+        flushPending(pendingIds());
+        journal.close();
+    }
+
+    /**
+     * Records a draft update and returns the resulting state without writing it to the database.
+     *
+     * @throws ResourceNotFoundException    if the application is not found.
+     * @throws IllegalStateException        if the application is no longer a DRAFT.
+     * @throws ConstraintViolationException if the change violates a constraint of the entity, as it would when
+     *                                      written directly.
+     */
+    public ApplicationResponse update(UUID id, ApplicationUpdateRequest request) {
+        if (!contains(id) && size() >= properties.getMaxPending()) {
+            log.warn("Write-behind buffer full, flushing in the caller");
+            flushPending(pendingIds());
+        }
+
+        ApplicationResponse response;
+        int size;
+        while (true) {
+            // Loaded outside the lock; a flush may remove the entry and a deletion the draft in the meantime, so check
+            // again under it
+            long deletionsBefore = deletions;
+            AccountApplication base = contains(id) ? null : load(id);
+            lock.lock();
+            try {
+                Pending entry = pending.get(id);
+                if (entry == null && (base == null || deletions != deletionsBefore)) {
+                    continue;
+                }
+                if (entry == null) {
+                    entry = new Pending(base);
+                }
+                entry.validate(request);
+                journal.append(id, request);
+                entry.apply(request);
+                pending.putIfAbsent(id, entry);
+                response = entry.view();
+                size = pending.size();
+                break;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        if (size >= properties.getFlushThreshold()) {
+            scheduler.execute(this::flushInBackground);
+        }
+        return response;
+    }
+
+    /**
+     * Returns the pending state of an application, if it has changes not yet written to the database.
+     */
+    public Optional<ApplicationResponse> find(UUID id) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        lock.lock();
+        try {
+            return Optional.ofNullable(pending.get(id)).map(Pending::view);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs {@code deletion} while no update can be recorded, so a draft it finds without pending changes through
+     * {@link #find} cannot be given any before it is deleted.
+     *
+     * @return The result of {@code deletion}.
+     */
+    public <T> T excludingUpdates(Supplier<T> deletion) {
+        lock.lock();
+        try {
+            deletions++;
+            return deletion.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Synchronously writes the pending changes of one application, if any.
+     */
+    public void flush(UUID id) {
+        flush(List.of(id));
+    }
+
+    /**
+     * Synchronously writes the pending changes of the given applications, if any.
+     *
+     * @throws RuntimeException the failure of a change set that could not be written; it stays pending.
+     */
+    public void flush(Collection<UUID> ids) {
+        Map<UUID, RuntimeException> failed = flushPending(ids);
+        if (!failed.isEmpty()) {
+            throw failed.values().iterator().next();
+        }
+    }
+
+    /**
+     * Synchronously writes all pending changes.
+     *
+     * @throws RuntimeException the failure of a change set that could not be written; it stays pending.
+     */
+    public void flushAll() {
+        flush(pendingIds());
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the pending changes of the given applications, if any.
+     *
+     * @return The failure of each change set that could not be written.
+     */
+    private Map<UUID, RuntimeException> flushPending(Collection<UUID> ids) {
+        if (!isEnabled()) {
+            return Map.of();
+        }
+        flushLock.lock();
+        try {
+            Map<UUID, Pending> snapshot = new LinkedHashMap<>();
+            lock.lock();
+            try {
+                for (UUID id : ids) {
+                    Pending entry = pending.get(id);
+                    if (entry != null) {
+                        snapshot.put(id, entry);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (snapshot.isEmpty()) {
+                return Map.of();
+            }
+            return flushTimer.record(() -> write(snapshot));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private List<UUID> pendingIds() {
+        lock.lock();
+        try {
+            return new ArrayList<>(pending.keySet());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean contains(UUID id) {
+        lock.lock();
+        try {
+            return pending.containsKey(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushInBackground() {
+        try {
+            // Failed change sets are logged and counted by the flush itself, and retried by the next one
+            flushPending(pendingIds());
+        } catch (RuntimeException e) {
+            log.error("Write-behind flush failed", e);
+        }
+    }
+
+    private Map<UUID, RuntimeException> write(Map<UUID, Pending> entries) {
+        Map<UUID, ApplicationUpdateRequest> changes = new LinkedHashMap<>();
+        Map<UUID, Long> revisions = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            entries.forEach((id, entry) -> {
+                changes.put(id, entry.copyOfChanges());
+                revisions.put(id, entry.revision);
+            });
+        } finally {
+            lock.unlock();
+        }
+
+        Map<UUID, RuntimeException> failed = store(changes);
+
+        lock.lock();
+        try {
+            // Entries updated during the flush stay pending; their change set still contains what was just written.
+            // Entries that failed stay pending as they are.
+            revisions.forEach((id, revision) -> pending.computeIfPresent(id,
+                    (key, entry) -> entry.revision == revision && !failed.containsKey(id) ? null : entry));
+            Map<UUID, ApplicationUpdateRequest> remaining = new LinkedHashMap<>();
+            pending.forEach((id, entry) -> remaining.put(id, entry.changes));
+            journal.rewrite(remaining);
+        } finally {
+            lock.unlock();
+        }
+        log.info("Flushed write-behind changes for {} applications", changes.size() - failed.size());
+        return failed;
+    }
+
+    /**
+     * Writes change sets in chunks of {@code onboarding.batch.chunk-size}, one transaction per chunk. If a chunk
+     * fails, its applications are retried one by one.
+     *
+     * @return The failure of each change set that still could not be written.
+     */
+    private Map<UUID, RuntimeException> store(Map<UUID, ApplicationUpdateRequest> changes) {
+        Map<UUID, RuntimeException> failed = new LinkedHashMap<>();
+        List<UUID> ids = new ArrayList<>(changes.keySet());
+        int chunkSize = batchProperties.getChunkSize();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            try {
+                cacheAll(requiresNew.execute(status -> apply(chunk, changes)));
+            } catch (RuntimeException e) {
+                log.warn("Write-behind chunk failed, retrying applications individually", e);
+                for (UUID id : chunk) {
+                    try {
+                        cacheAll(requiresNew.execute(status -> apply(List.of(id), changes)));
+                    } catch (RuntimeException itemFailure) {
+                        failures.increment();
+                        log.error("Cannot write write-behind changes for application ID: {}; keeping them pending",
+                                id, itemFailure);
+                        failed.put(id, itemFailure);
+                    }
+                }
+            }
+        }
+        return failed;
+    }
+
+    private List<AccountApplication> apply(List<UUID> ids, Map<UUID, ApplicationUpdateRequest> changes) {
+        List<AccountApplication> found = store.findAllById(ids);
+        if (found.size() < ids.size()) {
+            Set<UUID> foundIds = found.stream().map(AccountApplication::getId).collect(Collectors.toSet());
+            ids.stream().filter(id -> !foundIds.contains(id)).forEach(id -> {
+                log.warn("Discarding write-behind changes for deleted application ID: {}", id);
+                discarded.increment();
+            });
+        }
+        List<AccountApplication> updated = new ArrayList<>(ids.size());
+        for (AccountApplication application : found) {
+            if (application.getStatus() != ApplicationStatus.DRAFT) {
+                log.warn("Discarding write-behind changes for {} application ID: {}", application.getStatus(),
+                        application.getId());
+                discarded.increment();
+                continue;
+            }
+            mapper.updateFromRequest(application, changes.get(application.getId()));
+            duplicates.register(application);
+            updated.add(application);
+        }
+        return store.saveAll(updated);
+    }
+
+    private void cacheAll(List<AccountApplication> saved) {
+        saved.forEach(application -> cache.put(mapper.toResponse(application)));
+    }
+
+    /**
+     * Replays journaled changes left behind by a previous run and writes them to the database.
+     */
+    void recover() {
+        List<ApplicationBatchUpdateItem> items = journal.read();
+        if (items.isEmpty()) {
+            return;
+        }
+        Map<UUID, ApplicationUpdateRequest> changes = new LinkedHashMap<>();
+        for (ApplicationBatchUpdateItem item : items) {
+            mapper.mergeUpdate(changes.computeIfAbsent(item.getId(), id -> new ApplicationUpdateRequest()),
+                    item.getChanges());
+        }
+        log.info("Replaying {} write-behind journal entries for {} applications", items.size(), changes.size());
+        // Failed change sets become pending again, so they are retried and stay in the journal
+        Map<UUID, Pending> failed = new LinkedHashMap<>();
+        for (UUID id : store(changes).keySet()) {
+            Pending entry = new Pending(load(id));
+            entry.apply(changes.get(id));
+            failed.put(id, entry);
+        }
+        lock.lock();
+        try {
+            pending.putAll(failed);
+            Map<UUID, ApplicationUpdateRequest> remaining = new LinkedHashMap<>();
+            pending.forEach((id, entry) -> remaining.put(id, entry.changes));
+            journal.rewrite(remaining);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private AccountApplication load(UUID id) {
+        AccountApplication application = store.findById(id)
+                .orElseThrow(() -> {
+                    log.error("Application not found with ID: {}", id);
+                    return new ResourceNotFoundException("Application not found");
+                });
+        if (application.getStatus() != ApplicationStatus.DRAFT) {
+            log.error("Cannot update {} application with ID: {}", application.getStatus(), id);
+            throw new IllegalStateException("Application is already "
+                    + application.getStatus().name().toLowerCase(Locale.ROOT) + " and cannot be updated");
+        }
+        return copyOf(application);
+    }
+
+    /**
+     * Detached copy, so pending changes can never be flushed by a persistence context that manages the original.
+     */
+    private static AccountApplication copyOf(AccountApplication application) {
+        AccountApplication copy = new AccountApplication();
+        BeanUtils.copyProperties(application, copy);
+        if (application.getAddress() != null) {
+            Address address = new Address();
+            BeanUtils.copyProperties(application.getAddress(), address);
+            copy.setAddress(address);
+        }
+        return copy;
+    }
+
+    /**
+     * Pending state of one application: the draft as the client sees it and the change set still to be written.
+     */
+    private final class Pending {
+
+        private final AccountApplication draft;
+        private final ApplicationUpdateRequest changes = new ApplicationUpdateRequest();
+        private long revision;
+
+        private Pending(AccountApplication draft) {
+            this.draft = draft;
+        }
+
+        /**
+         * Applies {@code request} to a copy of the draft and checks the entity constraints that a flush would.
+         */
+        private void validate(ApplicationUpdateRequest request) {
+            AccountApplication candidate = copyOf(draft);
+            mapper.updateFromRequest(candidate, request);
+            Set<ConstraintViolation<AccountApplication>> violations = validator.validate(candidate);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+        }
+
+        private void apply(ApplicationUpdateRequest request) {
+            mapper.updateFromRequest(draft, request);
+            mapper.mergeUpdate(changes, request);
+            revision++;
+        }
+
+        private ApplicationResponse view() {
+            ApplicationResponse response = mapper.toResponse(draft);
+            response.setVersion(null);
+            return response;
+        }
+
+        private ApplicationUpdateRequest copyOfChanges() {
+            ApplicationUpdateRequest copy = new ApplicationUpdateRequest();
+            mapper.mergeUpdate(copy, changes);
+            return copy;
+        }
+    }
+}
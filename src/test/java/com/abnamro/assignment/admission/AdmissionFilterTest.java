@@ -0,0 +1,98 @@
+package com.abnamro.assignment.admission;
+
+import com.abnamro.assignment.config.AdmissionProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionFilterTest {
+
+    private final AdmissionProperties properties = new AdmissionProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void doFilter_ShouldAnswer429_WhenClientExceedsItsRate() throws Exception {
+        // given
+        properties.getRateLimit().setBurst(2);
+        properties.getRateLimit().setPermitsPerSecond(1);
+        AdmissionFilter filter = filter(new ClientRateLimiter(properties.getRateLimit()), null);
+
+        // when
+        int first = perform(filter, "partner-a").getStatus();
+        int second = perform(filter, "partner-a").getStatus();
+        MockHttpServletResponse third = perform(filter, "partner-a");
+        int otherClient = perform(filter, "partner-b").getStatus();
+
+        // then
+        assertEquals(200, first);
+        assertEquals(200, second);
+        assertEquals(429, third.getStatus());
+        assertEquals("1", third.getHeader("Retry-After"));
+        assertEquals("application/problem+json", third.getContentType());
+        assertTrue(third.getContentAsString().contains("Rate limit exceeded"));
+        assertEquals(200, otherClient);
+        assertEquals(3.0, meterRegistry.counter("onboarding.admission.requests", "outcome", "admitted").count());
+        assertEquals(1.0, meterRegistry.counter("onboarding.admission.requests", "outcome", "rate_limited").count());
+    }
+
+    @Test
+    void doFilter_ShouldAnswer503_WhenConcurrencyLimitIsReached() throws Exception {
+        // given
+        properties.getConcurrency().setInitialLimit(1);
+        properties.getConcurrency().setMinLimit(1);
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(properties.getConcurrency());
+        AdmissionFilter filter = filter(null, limiter);
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        FilterChain occupied = (request, response) -> filter.doFilter(request("partner-b"), nested,
+                new MockFilterChain());
+
+        // when
+        filter.doFilter(request("partner-a"), new MockHttpServletResponse(), occupied);
+
+        // then
+        assertEquals(503, nested.getStatus());
+        assertEquals("1", nested.getHeader("Retry-After"));
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(1.0, meterRegistry.counter("onboarding.admission.requests", "outcome", "shed").count());
+    }
+
+    @Test
+    void doFilter_ShouldReleasePermit_WhenChainFails() {
+        // given
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(properties.getConcurrency());
+        AdmissionFilter filter = filter(null, limiter);
+
+        // when/then
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(request("partner-a"),
+                new MockHttpServletResponse(), (request, response) -> {
+                    throw new IllegalStateException("boom");
+                }));
+        assertEquals(0, limiter.getInFlight());
+        assertTrue(limiter.getLimit() < properties.getConcurrency().getInitialLimit());
+    }
+
+    private AdmissionFilter filter(ClientRateLimiter rateLimiter, AimdConcurrencyLimiter concurrencyLimiter) {
+        return new AdmissionFilter(new ClientIdentity(properties), rateLimiter, concurrencyLimiter, new ObjectMapper(),
+                meterRegistry);
+    }
+
+    private MockHttpServletResponse perform(AdmissionFilter filter, String client) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(client), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/applications");
+        request.addHeader("X-Client-Id", client);
+        return request;
+    }
+}
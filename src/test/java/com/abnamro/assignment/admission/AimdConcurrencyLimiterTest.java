@@ -0,0 +1,135 @@
+package com.abnamro.assignment.admission;
+
+import com.abnamro.assignment.config.AdmissionProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AimdConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(600);
+
+    private final AtomicLong now = new AtomicLong();
+
+    private AdmissionProperties.Concurrency properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AdmissionProperties.Concurrency();
+        properties.setInitialLimit(20);
+        properties.setMinLimit(4);
+        properties.setMaxLimit(22);
+        properties.setLatencyThreshold(Duration.ofMillis(500));
+        properties.setBackoffRatio(0.9);
+    }
+
+    @Test
+    void tryAcquire_ShouldRejectRequests_WhenLimitIsInUse() {
+        // given
+        properties.setInitialLimit(4);
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(properties, now::get);
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        // then
+        assertFalse(limiter.tryAcquire());
+        limiter.release();
+        assertTrue(limiter.tryAcquire());
+        assertEquals(4, limiter.getInFlight());
+    }
+
+    @Test
+    void release_ShouldDecreaseOncePerWindow_WhenBurstOfRequestsIsSlow() {
+        // given
+        AimdConcurrencyLimiter limiter = acquired(20);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            limiter.release(SLOW, false);
+        }
+
+        // then
+        assertEquals(18, limiter.getLimit());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(499));
+        assertTrue(limiter.tryAcquire());
+        limiter.release(0, true);
+        assertEquals(18, limiter.getLimit());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertTrue(limiter.tryAcquire());
+        limiter.release(SLOW, false);
+        assertEquals(16, limiter.getLimit());
+    }
+
+    @Test
+    void release_ShouldDecrease_WhenRequestFailed() {
+        // given
+        AimdConcurrencyLimiter limiter = acquired(1);
+
+        // when
+        limiter.release(FAST, true);
+
+        // then
+        assertEquals(18, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void release_ShouldNotDecreaseBelowMinLimit() {
+        // given
+        properties.setInitialLimit(4);
+        AimdConcurrencyLimiter limiter = acquired(1);
+
+        // when
+        limiter.release(SLOW, false);
+
+        // then
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void release_ShouldIncreaseByOneUpToMaxLimit_WhenFastWhileLimitIsInUse() {
+        // given
+        AimdConcurrencyLimiter limiter = acquired(20);
+
+        // when
+        limiter.release(FAST, false);
+        limiter.release(FAST, false);
+        limiter.release(FAST, false);
+
+        // then
+        assertEquals(22, limiter.getLimit());
+    }
+
+    @Test
+    void release_ShouldKeepLimit_WhenFastAndLimitIsMostlyIdle() {
+        // given
+        AimdConcurrencyLimiter limiter = acquired(2);
+
+        // when
+        limiter.release(FAST, false);
+
+        // then
+        assertEquals(20, limiter.getLimit());
+    }
+
+    private AimdConcurrencyLimiter acquired(int requests) {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(properties, now::get);
+        for (int i = 0; i < requests; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        return limiter;
+    }
+}
@@ -0,0 +1,44 @@
+package com.abnamro.assignment.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void tryAcquire_ShouldAllowBurstThenRefillAtRate() {
+        // given
+        TokenBucket bucket = new TokenBucket(2, 10, now::get);
+
+        // when/then
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), bucket.tryAcquire());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(0, bucket.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_ShouldNotAccumulateBeyondCapacity() {
+        // given
+        TokenBucket bucket = new TokenBucket(2, 10, now::get);
+
+        // when
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        // then
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire());
+    }
+}
@@ -0,0 +1,182 @@
+package com.abnamro.assignment.archive;
+
+import com.abnamro.assignment.config.ArchiveProperties;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.AccountType;
+import com.abnamro.assignment.model.Address;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.model.ArchivedApplication;
+import com.abnamro.assignment.repository.ApplicationRepository;
+import com.abnamro.assignment.repository.ArchivedApplicationRepository;
+import com.abnamro.assignment.service.ApplicationExportService;
+import com.abnamro.assignment.store.ApplicationStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ApplicationArchiverIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationStore store;
+
+    @Autowired
+    private ApplicationArchive archive;
+
+    @Autowired
+    private ApplicationExportService exportService;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private ArchivedApplicationRepository archivedRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ArchiveProperties properties = new ArchiveProperties();
+
+    @BeforeEach
+    void setUp() {
+        applicationRepository.deleteAll();
+        archivedRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // The database is shared with other tests, which reuse ID documents
+        archivedRepository.deleteAll();
+    }
+
+    @Test
+    void archive_ShouldMoveCompletedApplicationsAndKeepThemReadable() throws Exception {
+        // given
+        UUID id = applicationRepository.save(application("ARC-1", ApplicationStatus.COMPLETED)).getId();
+        AccountApplication completed = applicationRepository.findById(id).orElseThrow();
+        AccountApplication draft = applicationRepository.save(application("ARC-2", ApplicationStatus.DRAFT));
+        Thread.sleep(2);
+        Instant cutoff = Instant.now();
+        Thread.sleep(2);
+        AccountApplication recent = applicationRepository.save(application("ARC-3", ApplicationStatus.COMPLETED));
+
+        // when
+        int archived = archiverAt(cutoff).archive();
+
+        // then
+        assertEquals(1, archived);
+        assertTrue(applicationRepository.findById(completed.getId()).isEmpty());
+        assertTrue(applicationRepository.findById(draft.getId()).isPresent());
+        assertTrue(applicationRepository.findById(recent.getId()).isPresent());
+        ArchivedApplication row = archivedRepository.findById(completed.getId()).orElseThrow();
+        assertTrue(row.getPayload().length < objectMapper.writeValueAsBytes(completed).length);
+        assertEquals(completed, archive.findById(completed.getId()).orElseThrow());
+
+        mockMvc.perform(get("/applications/" + completed.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.idDocument").value("ARC-1"))
+                .andExpect(jsonPath("$.version").value(completed.getVersion().intValue()));
+        mockMvc.perform(patch("/applications/" + completed.getId())
+                        .contentType("application/json")
+                        .content("{\"name\":\"Changed\"}"))
+                .andExpect(status().isConflict());
+        assertTrue(meterRegistry.get("onboarding.archive.archived").counter().count() >= 1);
+    }
+
+    @Test
+    void submit_ShouldConflict_WhenApplicantHasArchivedApplicationOfAccountType() throws Exception {
+        // given
+        applicationRepository.save(application("ARC-4", ApplicationStatus.COMPLETED));
+        Thread.sleep(2);
+        archiverAt(Instant.now()).archive();
+        UUID again = applicationRepository.save(application("arc 4", ApplicationStatus.DRAFT)).getId();
+
+        // when/then
+        mockMvc.perform(post("/applications/" + again + "/submit")
+                        .contentType("application/json"))
+                .andExpect(status().isConflict());
+        assertEquals(ApplicationStatus.DRAFT, store.findById(again).orElseThrow().getStatus());
+    }
+
+    @Test
+    void export_ShouldMergeArchivedApplicationsInUpdatedAtOrder() throws Exception {
+        // given
+        AccountApplication first = applicationRepository.save(application("ARC-5", ApplicationStatus.COMPLETED));
+        Thread.sleep(2);
+        AccountApplication second = applicationRepository.save(application("ARC-6", ApplicationStatus.COMPLETED));
+        Thread.sleep(2);
+        Instant cutoff = Instant.now();
+        Thread.sleep(2);
+        AccountApplication third = applicationRepository.save(application("ARC-7", ApplicationStatus.COMPLETED));
+        // In both tiers, as after an archive write whose store delete has not run yet
+        archive.saveAll(List.of(applicationRepository.findById(third.getId()).orElseThrow()));
+        archiverAt(cutoff).archive();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        long exported = exportService.export(ApplicationStatus.COMPLETED, null, out);
+
+        // then
+        assertEquals(3, exported);
+        assertTrue(applicationRepository.findById(first.getId()).isEmpty());
+        List<UUID> ids = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            ids.add(UUID.fromString(objectMapper.readTree(line).get("id").asText()));
+        }
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()), ids);
+    }
+
+    /**
+     * An archiver whose cutoff is {@code cutoff}.
+     */
+    private ApplicationArchiver archiverAt(Instant cutoff) {
+        Clock clock = Clock.fixed(cutoff.plus(properties.getArchiveAfter()), ZoneOffset.UTC);
+        return new ApplicationArchiver(properties, store, archive, meterRegistry, clock);
+    }
+
+    private static AccountApplication application(String idDocument, ApplicationStatus status) {
+        AccountApplication application = new AccountApplication();
+        application.setStatus(status);
+        application.setName("Archive Test User");
+        application.setDateOfBirth(LocalDate.of(1980, 3, 3));
+        application.setAccountType(AccountType.SAVINGS);
+        application.setIdDocument(idDocument);
+        application.setEmail("archive@example.com");
+        application.setAddress(new Address("Main St", "1", "1234 AB", "Amsterdam"));
+        return application;
+    }
+}
@@ -1,25 +1,41 @@
 package com.abnamro.assignment.controller;
 
+import com.abnamro.assignment.admission.ClientIdentity;
 import com.abnamro.assignment.api.model.*;
+import com.abnamro.assignment.config.AdmissionProperties;
+import com.abnamro.assignment.idempotency.IdempotencyService;
+import com.abnamro.assignment.mapper.ApplicationMapper;
+import com.abnamro.assignment.repository.ApplicationSearchCriteria;
 import com.abnamro.assignment.service.OnboardingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(OnboardingController.class)
+@Import({ApplicationMapper.class, ClientIdentity.class, AdmissionProperties.class})
 class OnboardingControllerTest {
 
     @Autowired
@@ -28,9 +44,18 @@ class OnboardingControllerTest {
     @MockitoBean
     private OnboardingService service;
 
+    @MockitoBean
+    private IdempotencyService idempotency;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @BeforeEach
+    void setUp() {
+        when(idempotency.execute(any(), any(), any(), any(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(4).get());
+    }
+
     @Test
     void createApplication_ShouldReturn201() throws Exception {
         //given
@@ -61,6 +86,41 @@ class OnboardingControllerTest {
                 .andExpect(jsonPath("$.id").value(id.toString()));
     }
 
+    @Test
+    void listApplications_ShouldPassFiltersAndReturnPage() throws Exception {
+        //given
+        ApplicationSummary summary = new ApplicationSummary();
+        summary.setId(UUID.randomUUID());
+        ApplicationPage page = new ApplicationPage();
+        page.setItems(List.of(summary));
+        page.setNextCursor("next");
+        ApplicationSearchCriteria criteria = ApplicationSearchCriteria.builder()
+                .status(com.abnamro.assignment.model.ApplicationStatus.DRAFT)
+                .updatedTo(Instant.parse("2024-01-01T00:00:00Z"))
+                .build();
+
+        //when
+        when(service.listApplications(criteria, "abc", 5)).thenReturn(page);
+
+        //then
+        mockMvc.perform(get("/applications")
+                .param("status", "DRAFT")
+                .param("updatedTo", "2024-01-01T01:00:00+01:00")
+                .param("limit", "5")
+                .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(summary.getId().toString()))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void listApplications_ShouldReturn400_WhenLimitIsOutOfRange() throws Exception {
+        mockMvc.perform(get("/applications").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).listApplications(any(), any(), anyInt());
+    }
+
     @Test
     void updateApplication_ShouldValidateFormat() throws Exception {
         //given
@@ -94,7 +154,7 @@ class OnboardingControllerTest {
         respAddress.setPostCode("1234 AB");
         response.setAddress(respAddress);
 
-        when(service.updateApplication(eq(id), any(ApplicationUpdateRequest.class))).thenReturn(response);
+        when(service.updateApplication(eq(id), any(ApplicationUpdateRequest.class), isNull())).thenReturn(response);
 
         mockMvc.perform(patch("/applications/{id}", id)
                 .contentType("application/json")
@@ -111,7 +171,7 @@ class OnboardingControllerTest {
         response.setId(id);
         response.setStatus(ApplicationStatus.COMPLETED);
         //when
-        when(service.submitApplication(id)).thenReturn(response);
+        when(service.submitApplication(id, null)).thenReturn(response);
         //then
         mockMvc.perform(post("/applications/{id}/submit", id))
                 .andExpect(status().isOk())
@@ -123,10 +183,122 @@ class OnboardingControllerTest {
 
         UUID id = UUID.randomUUID();
         //when
-        when(service.submitApplication(id)).thenThrow(new IllegalStateException("Application is already completed"));
+        when(service.submitApplication(id, null)).thenThrow(new IllegalStateException("Application is already completed"));
         //then
         mockMvc.perform(post("/applications/{id}/submit", id))
                 .andExpect(status().isConflict())
                 .andExpect(jsonPath("$.detail").value("Application is already completed"));
     }
+
+    @Test
+    void getApplication_ShouldReturnETag() throws Exception {
+        UUID id = UUID.randomUUID();
+        ApplicationResponse response = new ApplicationResponse();
+        response.setId(id);
+        response.setVersion(2L);
+        when(service.getApplication(id)).thenReturn(response);
+
+        mockMvc.perform(get("/applications/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + id + "-2\""));
+    }
+
+    @Test
+    void getApplication_ShouldTagEachRepresentation_AsSelectedByAccept() throws Exception {
+        UUID id = UUID.randomUUID();
+        ApplicationResponse response = new ApplicationResponse();
+        response.setId(id);
+        response.setVersion(2L);
+        when(service.getApplication(id)).thenReturn(response);
+        String json = "\"" + id + "-2\"";
+        String cbor = "\"" + id + "-2-cbor\"";
+
+        for (String accept : List.of("*/*", "application/json", "application/cbor;q=0.5, application/json",
+                "application/*")) {
+            mockMvc.perform(get("/applications/{id}", id).header("Accept", accept))
+                    .andExpect(content().contentTypeCompatibleWith("application/json"))
+                    .andExpect(header().string("ETag", json));
+        }
+        for (String accept : List.of("application/cbor", "application/cbor, */*;q=0.1",
+                "application/json;q=0.5, application/cbor")) {
+            mockMvc.perform(get("/applications/{id}", id).header("Accept", accept))
+                    .andExpect(content().contentType("application/cbor"))
+                    .andExpect(header().string("ETag", cbor));
+        }
+    }
+
+    @Test
+    void getApplication_ShouldReturn304_OnlyForTheTagOfTheSelectedRepresentation() throws Exception {
+        UUID id = UUID.randomUUID();
+        ApplicationResponse response = new ApplicationResponse();
+        response.setId(id);
+        response.setVersion(2L);
+        when(service.getApplicationVersion(id)).thenReturn(2L);
+        when(service.getApplication(id)).thenReturn(response);
+
+        mockMvc.perform(get("/applications/{id}", id)
+                .accept("application/cbor")
+                .header("If-None-Match", "\"" + id + "-2-cbor\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"" + id + "-2-cbor\""));
+        mockMvc.perform(get("/applications/{id}", id)
+                .accept("application/cbor")
+                .header("If-None-Match", "\"" + id + "-2\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getApplication_ShouldReturn304_WhenETagMatches() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(service.getApplicationVersion(id)).thenReturn(2L);
+
+        mockMvc.perform(get("/applications/{id}", id)
+                .header("If-None-Match", "\"" + id + "-2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"" + id + "-2\""))
+                .andExpect(content().string(""));
+
+        verify(service, never()).getApplication(id);
+    }
+
+    @Test
+    void updateApplication_ShouldPassIfMatchVersionToService() throws Exception {
+        UUID id = UUID.randomUUID();
+        ApplicationResponse response = new ApplicationResponse();
+        response.setId(id);
+        response.setVersion(4L);
+        when(service.updateApplication(eq(id), any(ApplicationUpdateRequest.class), eq(3L))).thenReturn(response);
+
+        mockMvc.perform(patch("/applications/{id}", id)
+                .header("If-Match", "\"" + id + "-3\"")
+                .contentType("application/json")
+                .content("{}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + id + "-4\""));
+    }
+
+    @Test
+    void updateApplication_ShouldAcceptIfMatchOfEitherRepresentation() throws Exception {
+        UUID id = UUID.randomUUID();
+        ApplicationResponse response = new ApplicationResponse();
+        response.setId(id);
+        response.setVersion(4L);
+        when(service.updateApplication(eq(id), any(ApplicationUpdateRequest.class), eq(3L))).thenReturn(response);
+
+        mockMvc.perform(patch("/applications/{id}", id)
+                .header("If-Match", "\"" + id + "-3-cbor\"")
+                .contentType("application/json")
+                .content("{}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + id + "-4\""));
+    }
+
+    @Test
+    void submitApplication_ShouldReturn412_WhenIfMatchIsForAnotherApplication() throws Exception {
+        UUID id = UUID.randomUUID();
+
+        mockMvc.perform(post("/applications/{id}/submit", id)
+                .header("If-Match", "\"" + UUID.randomUUID() + "-3\""))
+                .andExpect(status().isPreconditionFailed());
+    }
 }
@@ -0,0 +1,214 @@
+package com.abnamro.assignment.duplicate;
+
+import com.abnamro.assignment.archive.ApplicationArchive;
+import com.abnamro.assignment.config.DuplicateDetectionProperties;
+import com.abnamro.assignment.config.InMemoryStoreProperties;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.ApplicantKey;
+import com.abnamro.assignment.store.InMemoryApplicationStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DuplicateApplicantDetectorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DuplicateDetectionProperties properties = new DuplicateDetectionProperties();
+    private final ApplicationArchive archive = mock(ApplicationArchive.class);
+    private InMemoryApplicationStore store;
+    private DuplicateApplicantDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        properties.getBloomFilter().setExpectedKeys(1_000);
+        store = new InMemoryApplicationStore(new InMemoryStoreProperties(), new ObjectMapper());
+        detector = new DuplicateApplicantDetector(properties, store, archive, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        detector.stop();
+    }
+
+    @Test
+    void findDuplicate_ShouldMatchStrongestKeyAfterNormalization() {
+        // given
+        UUID earlier = save(applicant("José García", "nl 1234-56", "jose@example.com"));
+        detector.start();
+
+        // when
+        Optional<DuplicateMatch> byDocument = detector.findDuplicate(applicant("Someone", "NL123456",
+                "JOSE@example.com"));
+        Optional<DuplicateMatch> byEmail = detector.findDuplicate(applicant("Someone", "X1", "JOSE@example.com"));
+        Optional<DuplicateMatch> byName = detector.findDuplicate(applicant("jose  GARCIA", null, null));
+
+        // then
+        assertEquals(Optional.of(new DuplicateMatch(earlier, ApplicantKey.ID_DOCUMENT)), byDocument);
+        assertEquals(Optional.of(new DuplicateMatch(earlier, ApplicantKey.EMAIL)), byEmail);
+        assertEquals(Optional.of(new DuplicateMatch(earlier, ApplicantKey.NAME_AND_DATE_OF_BIRTH)), byName);
+    }
+
+    @Test
+    void findDuplicate_ShouldIgnoreTheApplicationItself() {
+        // given
+        UUID id = save(applicant("Ann Lee", "AB1", "ann@example.com"));
+        detector.start();
+
+        // when
+        Optional<DuplicateMatch> match = detector.findDuplicate(store.findById(id).orElseThrow());
+
+        // then
+        assertTrue(match.isEmpty());
+    }
+
+    @Test
+    void findDuplicate_ShouldFallBackToArchive_WhenStoreHasNoMatch() {
+        // given
+        save(applicant("Ann Lee", "AB1", "ann@example.com"));
+        UUID archived = UUID.randomUUID();
+        when(archive.findByApplicantKey(ApplicantKey.ID_DOCUMENT, "CD2")).thenReturn(Optional.of(archived));
+        doAnswer(invocation -> {
+            // Archived keys reach the Bloom filter too
+            invocation.<BiConsumer<ApplicantKey, String>>getArgument(0).accept(ApplicantKey.ID_DOCUMENT, "CD2");
+            return null;
+        }).when(archive).forEachApplicantKey(any());
+        detector.start();
+
+        // when
+        Optional<DuplicateMatch> match = detector.findDuplicate(applicant("Bob Stone", "CD2", "ann@example.com"));
+
+        // then
+        assertEquals(Optional.of(new DuplicateMatch(archived, ApplicantKey.ID_DOCUMENT)), match);
+    }
+
+    @Test
+    void findDuplicate_ShouldAnswerUnknownKeysFromBloomFilter() {
+        // given
+        save(applicant("Ann Lee", "AB1", "ann@example.com"));
+        detector.start();
+
+        // when
+        Optional<DuplicateMatch> match = detector.findDuplicate(applicant("Bob Stone", "CD2", "bob@example.com"));
+
+        // then
+        assertTrue(match.isEmpty());
+        assertEquals(3.0, meterRegistry.counter("onboarding.duplicates.lookups", "result", "filtered").count());
+        assertEquals(0.0, meterRegistry.counter("onboarding.duplicates.lookups", "result", "unmatched").count());
+    }
+
+    @Test
+    void findDuplicate_ShouldSeeRegisteredKeys_BeforeTheNextRebuild() {
+        // given
+        detector.start();
+        AccountApplication first = applicant("Ann Lee", "AB1", "ann@example.com");
+        detector.register(first);
+        UUID id = save(first);
+
+        // when
+        Optional<DuplicateMatch> match = detector.findDuplicate(applicant("Other", "ZZ9", "ANN@example.com"));
+
+        // then
+        assertEquals(Optional.of(new DuplicateMatch(id, ApplicantKey.EMAIL)), match);
+    }
+
+    @Test
+    void findDuplicate_ShouldSeeKeysRegisteredBeforeARebuild_WhenSavedAfterItsScan() {
+        // given
+        detector.start();
+        AccountApplication first = applicant("Ann Lee", "AB1", "ann@example.com");
+        detector.register(first);
+        detector.rebuild();
+        UUID id = save(first);
+
+        // when
+        Optional<DuplicateMatch> match = detector.findDuplicate(applicant("Other", "ZZ9", "ANN@example.com"));
+
+        // then
+        assertEquals(Optional.of(new DuplicateMatch(id, ApplicantKey.EMAIL)), match);
+    }
+
+    @Test
+    void findDuplicate_ShouldSeeKeysRegisteredDuringARebuild_WhenSavedAfterItsScan() {
+        // given
+        detector.start();
+        AccountApplication first = applicant("Ann Lee", "AB1", "ann@example.com");
+        doAnswer(invocation -> {
+            detector.register(first);
+            return null;
+        }).when(archive).forEachApplicantKey(any());
+        detector.rebuild();
+        UUID id = save(first);
+
+        // when
+        Optional<DuplicateMatch> match = detector.findDuplicate(applicant("Other", "AB-1", null));
+
+        // then
+        assertEquals(Optional.of(new DuplicateMatch(id, ApplicantKey.ID_DOCUMENT)), match);
+    }
+
+    @Test
+    void findDuplicate_ShouldQueryStore_WhenBloomFilterIsDisabled() {
+        // given
+        properties.getBloomFilter().setEnabled(false);
+        detector.start();
+        UUID id = save(applicant("Ann Lee", "AB1", "ann@example.com"));
+
+        // when
+        Optional<DuplicateMatch> match = detector.findDuplicate(applicant("Other", "ab-1", null));
+
+        // then
+        assertEquals(Optional.of(new DuplicateMatch(id, ApplicantKey.ID_DOCUMENT)), match);
+        assertEquals(0.0, meterRegistry.counter("onboarding.duplicates.lookups", "result", "filtered").count());
+    }
+
+    @Test
+    void bloomFilter_ShouldNeverMissPutKeysAndRarelyReportAbsentOnes() {
+        // given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("key-" + i);
+        }
+
+        // when
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("key-" + i));
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // then
+        assertEquals(7, filter.hashes());
+        assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+        assertFalse(new BloomFilter(10, 0.01).mightContain("anything"));
+    }
+
+    private UUID save(AccountApplication application) {
+        return store.save(application).getId();
+    }
+
+    private static AccountApplication applicant(String name, String idDocument, String email) {
+        AccountApplication application = new AccountApplication();
+        application.setName(name);
+        application.setDateOfBirth(LocalDate.of(1985, 3, 14));
+        application.setIdDocument(idDocument);
+        application.setEmail(email);
+        return application;
+    }
+}
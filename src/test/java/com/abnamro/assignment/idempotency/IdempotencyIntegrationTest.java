@@ -0,0 +1,166 @@
+package com.abnamro.assignment.idempotency;
+
+import com.abnamro.assignment.api.model.AccountType;
+import com.abnamro.assignment.api.model.Address;
+import com.abnamro.assignment.api.model.ApplicationCreateRequest;
+import com.abnamro.assignment.model.IdempotencyKey;
+import com.abnamro.assignment.repository.ApplicationRepository;
+import com.abnamro.assignment.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency-test",
+        "onboarding.idempotency.store=database"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class IdempotencyIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Test
+    void createApplication_ShouldCreateOnce_WhenRetriedWithSameKey() throws Exception {
+        // given
+        String key = UUID.randomUUID().toString();
+        String body = objectMapper.writeValueAsString(request("John"));
+        long before = applicationRepository.count();
+        MvcResult first = mockMvc.perform(post("/applications").header("Idempotency-Key", key)
+                        .contentType("application/json").content(body))
+                .andExpect(status().isCreated())
+                .andReturn();
+        JsonNode created = objectMapper.readTree(first.getResponse().getContentAsString());
+
+        // when/then
+        mockMvc.perform(post("/applications").header("Idempotency-Key", key)
+                        .contentType("application/json").content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(header().string("Location", first.getResponse().getHeader("Location")))
+                .andExpect(header().string("ETag", first.getResponse().getHeader("ETag")))
+                .andExpect(jsonPath("$.id").value(created.get("id").asText()));
+        assertEquals(before + 1, applicationRepository.count());
+        assertNotNull(stored("127.0.0.1", key).orElseThrow().getResponse());
+    }
+
+    @Test
+    void createApplication_ShouldCreateForEachClient_WhenClientsUseSameKey() throws Exception {
+        // given
+        String body = objectMapper.writeValueAsString(request("John"));
+        long before = applicationRepository.count();
+        mockMvc.perform(post("/applications").header("Idempotency-Key", "order-1").header("X-Client-Id", "partner-a")
+                        .contentType("application/json").content(body))
+                .andExpect(status().isCreated());
+
+        // when/then
+        mockMvc.perform(post("/applications").header("Idempotency-Key", "order-1").header("X-Client-Id", "partner-b")
+                        .contentType("application/json").content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(before + 2, applicationRepository.count());
+        assertTrue(stored("partner-a", "order-1").isPresent());
+        assertTrue(stored("partner-b", "order-1").isPresent());
+    }
+
+    @Test
+    void createApplication_ShouldAnswer422_WhenKeyIsReusedForDifferentBody() throws Exception {
+        // given
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(post("/applications").header("Idempotency-Key", key)
+                        .contentType("application/json").content(objectMapper.writeValueAsString(request("John"))))
+                .andExpect(status().isCreated());
+
+        // when/then
+        mockMvc.perform(post("/applications").header("Idempotency-Key", key)
+                        .contentType("application/json").content(objectMapper.writeValueAsString(request("Jane"))))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void submitApplication_ShouldReplayOutcome_WhenRetriedWithSameKey() throws Exception {
+        // given
+        String id = create(request("John"));
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(post("/applications/{id}/submit", id).header("Idempotency-Key", key))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+
+        // when/then
+        mockMvc.perform(post("/applications/{id}/submit", id).header("Idempotency-Key", key))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+        mockMvc.perform(post("/applications/{id}/submit", id))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void submitApplication_ShouldReleaseKey_WhenSubmitFails() throws Exception {
+        // given
+        ApplicationCreateRequest incomplete = request("John");
+        incomplete.setIdDocument(null);
+        String id = create(incomplete);
+        String key = UUID.randomUUID().toString();
+
+        // when
+        mockMvc.perform(post("/applications/{id}/submit", id).header("Idempotency-Key", key))
+                .andExpect(status().isBadRequest());
+
+        // then
+        assertTrue(stored("127.0.0.1", key).isEmpty());
+        mockMvc.perform(post("/applications/{id}/submit", id).header("Idempotency-Key", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Optional<IdempotencyKey> stored(String client, String key) {
+        return idempotencyKeyRepository.findById(client.length() + ":" + client + ":" + key);
+    }
+
+    private String create(ApplicationCreateRequest request) throws Exception {
+        MvcResult created = mockMvc.perform(post("/applications")
+                        .contentType("application/json").content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asText();
+    }
+
+    private static ApplicationCreateRequest request(String name) {
+        ApplicationCreateRequest request = new ApplicationCreateRequest();
+        request.setName(name);
+        request.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        request.setAddress(new Address().streetName("Kalverstraat").houseNumber("101").postCode("1012 AB")
+                .city("Amsterdam"));
+        request.setIdDocument("NL123456789");
+        request.setAccountType(AccountType.SAVINGS);
+        return request;
+    }
+}
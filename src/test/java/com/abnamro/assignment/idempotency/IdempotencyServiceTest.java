@@ -0,0 +1,200 @@
+package com.abnamro.assignment.idempotency;
+
+import com.abnamro.assignment.api.model.ApplicationCreateRequest;
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.config.IdempotencyProperties;
+import com.abnamro.assignment.exception.IdempotencyKeyInUseException;
+import com.abnamro.assignment.exception.IdempotencyKeyReusedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyServiceTest {
+
+    private static final String CLIENT = "partner-a";
+    private static final String OPERATION = "POST /applications";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private IdempotencyProperties properties;
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IdempotencyProperties();
+        properties.setInFlightTimeout(Duration.ofSeconds(5));
+        service = new IdempotencyService(properties,
+                new InMemoryIdempotencyKeyStore(properties.getTtl(), properties.getMaximumKeys(), meterRegistry),
+                new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    void execute_ShouldReplayStoredResponse_WhenKeyIsRepeated() {
+        // given
+        ResponseEntity<ApplicationResponse> first = service.execute(CLIENT, "key-1", OPERATION, request("Alice"),
+                this::create);
+
+        // when
+        ResponseEntity<ApplicationResponse> repeated = service.execute(CLIENT, "key-1", OPERATION, request("Alice"),
+                this::create);
+
+        // then
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, repeated.getStatusCode());
+        assertSame(first.getBody(), repeated.getBody());
+        assertEquals(first.getHeaders().getLocation(), repeated.getHeaders().getLocation());
+        assertEquals("true", repeated.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(1.0, meterRegistry.counter("onboarding.idempotency.requests", "outcome", "replayed").count());
+    }
+
+    @Test
+    void execute_ShouldRunEveryTime_WithoutKey() {
+        // when
+        service.execute(CLIENT, null, OPERATION, request("Alice"), this::create);
+        service.execute(CLIENT, null, OPERATION, request("Alice"), this::create);
+
+        // then
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void execute_ShouldKeepKeysOfDifferentClientsApart() {
+        // given
+        service.execute(CLIENT, "key-1", OPERATION, request("Alice"), this::create);
+
+        // when
+        ResponseEntity<ApplicationResponse> sameRequest = service.execute("partner-b", "key-1", OPERATION,
+                request("Alice"), this::create);
+        ResponseEntity<ApplicationResponse> otherRequest = service.execute("partner-c", "key-1", OPERATION,
+                request("Bob"), this::create);
+
+        // then
+        assertEquals(3, executions.get());
+        assertNull(sameRequest.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertNull(otherRequest.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_ShouldReject_WhenKeyIsReusedForDifferentRequest() {
+        // given
+        service.execute(CLIENT, "key-1", OPERATION, request("Alice"), this::create);
+
+        // when/then
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> service.execute(CLIENT, "key-1", OPERATION, request("Bob"), this::create));
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> service.execute(CLIENT, "key-1", "POST /applications/x/submit", request("Alice"), this::create));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ShouldReleaseKey_WhenActionFails() {
+        // given
+        assertThrows(IllegalStateException.class,
+                () -> service.execute(CLIENT, "key-1", OPERATION, request("Alice"), () -> {
+                    throw new IllegalStateException("boom");
+                }));
+
+        // when
+        service.execute(CLIENT, "key-1", OPERATION, request("Alice"), this::create);
+
+        // then
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ShouldWaitForInFlightRequest_AndReplayItsResponse() throws Exception {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<ApplicationResponse>> first = CompletableFuture.supplyAsync(() ->
+                service.execute(CLIENT, "key-1", OPERATION, request("Alice"), () -> {
+                    started.countDown();
+                    await(release);
+                    return create();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // when
+        CompletableFuture<ResponseEntity<ApplicationResponse>> duplicate = CompletableFuture.supplyAsync(() ->
+                service.execute(CLIENT, "key-1", OPERATION, request("Alice"), this::create));
+        Thread.sleep(100);
+        release.countDown();
+
+        // then
+        assertEquals(first.get(5, TimeUnit.SECONDS).getBody(), duplicate.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ShouldAnswerInUse_WhenInFlightRequestTakesTooLong() throws Exception {
+        // given
+        properties.setInFlightTimeout(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<ApplicationResponse>> first = CompletableFuture.supplyAsync(() ->
+                service.execute(CLIENT, "key-1", OPERATION, request("Alice"), () -> {
+                    started.countDown();
+                    await(release);
+                    return create();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // when/then
+        try {
+            assertThrows(IdempotencyKeyInUseException.class,
+                    () -> service.execute(CLIENT, "key-1", OPERATION, request("Alice"), this::create));
+        } finally {
+            release.countDown();
+        }
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ShouldRejectOverlongKey() {
+        // when/then
+        assertThrows(IllegalArgumentException.class,
+                () -> service.execute(CLIENT, "k".repeat(256), OPERATION, request("Alice"), this::create));
+    }
+
+    private ResponseEntity<ApplicationResponse> create() {
+        executions.incrementAndGet();
+        ApplicationResponse response = new ApplicationResponse();
+        response.setId(UUID.randomUUID());
+        return ResponseEntity.created(URI.create("/applications/" + response.getId())).body(response);
+    }
+
+    private static ApplicationCreateRequest request(String name) {
+        ApplicationCreateRequest request = new ApplicationCreateRequest();
+        request.setName(name);
+        return request;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
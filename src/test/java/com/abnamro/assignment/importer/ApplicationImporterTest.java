@@ -0,0 +1,149 @@
+package com.abnamro.assignment.importer;
+
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.AccountType;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.repository.ApplicationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "onboarding.import.chunk-size=128B",
+        "onboarding.import.batch-size=2",
+        "onboarding.import.parallelism=3"
+})
+@ActiveProfiles("test")
+class ApplicationImporterTest {
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private ApplicationImporter importer;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @BeforeEach
+    void setUp() {
+        applicationRepository.deleteAll();
+    }
+
+    @Test
+    void importFile_ShouldInsertValidCsvRecordsAndRejectTheRest() throws IOException {
+        // given
+        Path file = directory.resolve("legacy.csv");
+        Files.write(file, List.of(
+                "name,dateOfBirth,idDocument,accountType,status,streetName,houseNumber,postCode,city,email,createdAt",
+                "Alice,1990-01-01,ID1,SAVINGS,COMPLETED,Main St,1,1000 AA,Amsterdam,alice@example.com,"
+                        + "2020-05-01T10:00:00Z",
+                "\"Bob, Jr.\",,,,DRAFT,,,,,,",
+                "Carol,2990-01-01,ID3,SAVINGS,DRAFT,,,,,,",
+                "Dave,1980-02-02,,,COMPLETED,,,,,,",
+                "Eve,1985-03-03,ID5,CURRENT,DRAFT,,,,,eve@example.com,",
+                "Frank,not-a-date,ID6,SAVINGS,DRAFT,,,,,,",
+                "Grace,1975-04-04,ID7",
+                "Heidi,1970-05-05,ID8,SAVINGS,SUBMITTED,,,,,,"));
+
+        // when
+        ImportReport report = importer.importFile(file);
+
+        // then
+        assertEquals(3, report.imported());
+        assertEquals(5, report.rejected());
+        Map<String, AccountApplication> stored = applicationRepository.findAll().stream()
+                .collect(Collectors.toMap(AccountApplication::getName, Function.identity()));
+        assertEquals(3, stored.size());
+
+        AccountApplication alice = stored.get("Alice");
+        assertEquals(ApplicationStatus.COMPLETED, alice.getStatus());
+        assertEquals(LocalDate.of(1990, 1, 1), alice.getDateOfBirth());
+        assertEquals(AccountType.SAVINGS, alice.getAccountType());
+        assertEquals("Amsterdam", alice.getAddress().getCity());
+        assertEquals(Instant.parse("2020-05-01T10:00:00Z"), alice.getCreatedAt());
+        assertEquals(0L, alice.getVersion());
+        assertEquals(7, alice.getId().version());
+        assertEquals(ApplicationStatus.DRAFT, stored.get("Bob, Jr.").getStatus());
+
+        List<String> rejected = Files.readAllLines(report.rejectedFile());
+        assertEquals(5, rejected.size());
+        assertTrue(rejected.stream().anyMatch(line -> line.contains("Date of Birth must be in the past")
+                && line.endsWith("Carol,2990-01-01,ID3,SAVINGS,DRAFT,,,,,,")));
+        assertTrue(rejected.stream().anyMatch(line -> line.contains("ID Document is required")
+                && line.contains("Dave")));
+        assertTrue(rejected.stream().anyMatch(line -> line.contains("Frank")));
+        assertTrue(rejected.stream().anyMatch(line -> line.contains("Expected 11 columns but found 3")));
+        assertTrue(rejected.stream().anyMatch(line -> line.contains("SUBMITTED applications cannot be imported")
+                && line.contains("Heidi")));
+    }
+
+    @Test
+    void importFile_ShouldReadNdjsonWithNestedAddress() throws IOException {
+        // given
+        Path file = directory.resolve("legacy.ndjson");
+        Files.write(file, List.of(
+                "{\"name\":\"Alice\",\"startingBalance\":12.50,\"interestedInOtherProducts\":true,"
+                        + "\"address\":{\"streetName\":\"Main St\",\"city\":\"Amsterdam\"}}",
+                "",
+                "{\"name\":"));
+
+        // when
+        ImportReport report = importer.importFile(file);
+
+        // then
+        assertEquals(1, report.imported());
+        assertEquals(1, report.rejected());
+        AccountApplication alice = applicationRepository.findAll().get(0);
+        assertEquals(new BigDecimal("12.50"), alice.getStartingBalance());
+        assertTrue(alice.getInterestedInOtherProducts());
+        assertEquals("Main St", alice.getAddress().getStreetName());
+        assertNull(alice.getAddress().getPostCode());
+        assertEquals(alice.getCreatedAt(), alice.getUpdatedAt());
+    }
+
+    @Test
+    void importFile_ShouldRejectOnlyTheOffendingRecords_WhenChunkInsertFails() throws IOException {
+        // given
+        Path file = directory.resolve("legacy.ndjson");
+        String tooLongName = "N".repeat(300);
+        Files.write(file, List.of(
+                "{\"name\":\"Alice\"}",
+                "{\"name\":\"Bob\"}",
+                "{\"name\":\"Carol\"}",
+                "{\"name\":\"" + tooLongName + "\"}",
+                "{\"name\":\"Dave\"}"));
+
+        // when
+        ImportReport report = importer.importFile(file);
+
+        // then
+        assertEquals(4, report.imported());
+        assertEquals(1, report.rejected());
+        assertEquals(Set.of("Alice", "Bob", "Carol", "Dave"), applicationRepository.findAll().stream()
+                .map(AccountApplication::getName)
+                .collect(Collectors.toSet()));
+        List<String> rejected = Files.readAllLines(report.rejectedFile());
+        assertEquals(1, rejected.size());
+        assertTrue(rejected.get(0).contains("Insert failed") && rejected.get(0).contains(tooLongName));
+    }
+}
@@ -0,0 +1,96 @@
+package com.abnamro.assignment.mapper;
+
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.AccountType;
+import com.abnamro.assignment.model.Address;
+import com.abnamro.assignment.model.ApplicantKey;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ApplicationMapperTest {
+
+    private final ApplicationMapper mapper = new ApplicationMapper();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void writeResponse_ShouldWriteSameJsonAsMappedResponse_WhenAllFieldsAreSet() throws Exception {
+        // given
+        AccountApplication application = new AccountApplication();
+        application.setId(UUID.fromString("01a147db-82b6-7000-b94d-2ba1de04fa4b"));
+        application.setVersion(4L);
+        application.setStatus(ApplicationStatus.SUBMITTED);
+        application.setName("Jöhan \"JD\" Doe");
+        application.setDateOfBirth(LocalDate.of(1990, 5, 20));
+        application.setIdDocument("NL123456789");
+        application.setAccountType(AccountType.INVESTMENT);
+        application.setStartingBalance(new BigDecimal("1000.00"));
+        application.setMonthlySalary(new BigDecimal("3.5E+3"));
+        application.setInterestedInOtherProducts(Boolean.FALSE);
+        application.setEmail("johan.doe@example.com");
+        application.setAddress(new Address("Kalverstraat", "101", "1012 PX", "Amsterdam"));
+        application.setCreatedAt(Instant.parse("2023-10-27T10:00:00Z"));
+        application.setUpdatedAt(Instant.parse("2023-10-27T10:15:30.123400Z"));
+        application.setPossibleDuplicateOf(UUID.fromString("01a147db-8347-7000-97e9-7dcf05946546"));
+        application.setDuplicateMatch(ApplicantKey.NAME_AND_DATE_OF_BIRTH);
+
+        // when
+        String written = write(application);
+
+        // then
+        assertEquals(objectMapper.writeValueAsString(mapper.toResponse(application)), written);
+    }
+
+    @Test
+    void writeResponse_ShouldWriteSameJsonAsMappedResponse_ForEdgeDatesAndTimes() throws Exception {
+        // given
+        AccountApplication application = new AccountApplication();
+        application.setId(new UUID(0, 1));
+        application.setDateOfBirth(LocalDate.of(7, 1, 9));
+        application.setCreatedAt(Instant.parse("1969-12-31T23:59:59.999999999Z"));
+        application.setUpdatedAt(Instant.parse("+12000-02-29T00:00:00.000001Z"));
+        application.setPossibleDuplicateOf(new UUID(-1, Long.MIN_VALUE));
+
+        // when
+        String written = write(application);
+
+        // then
+        assertEquals(objectMapper.writeValueAsString(mapper.toResponse(application)), written);
+    }
+
+    @Test
+    void writeResponse_ShouldWriteSameJsonAsMappedResponse_WhenFieldsAreMissing() throws Exception {
+        // given
+        AccountApplication application = new AccountApplication();
+        application.setStatus(ApplicationStatus.DRAFT);
+        application.setAddress(new Address(null, "1", null, null));
+
+        // when
+        String written = write(application);
+
+        // then
+        assertEquals(objectMapper.writeValueAsString(mapper.toResponse(application)), written);
+    }
+
+    private String write(AccountApplication application) throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            mapper.writeResponse(application, generator);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,24 @@
+package com.abnamro.assignment.model;
+
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class AccountApplicationTest {
+
+    @Test
+    void setters_ShouldRecordOnlyChangedFields() {
+        // given
+        SelfDirtinessTracker tracker = assertInstanceOf(SelfDirtinessTracker.class, new AccountApplication());
+        AccountApplication application = (AccountApplication) tracker;
+        tracker.$$_hibernate_clearDirtyAttributes();
+
+        // when
+        application.setName("John Doe");
+
+        // then
+        assertArrayEquals(new String[] {"name"}, tracker.$$_hibernate_getDirtyAttributes());
+    }
+}
@@ -0,0 +1,83 @@
+package com.abnamro.assignment.model.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    void generate_ShouldProduceVersion7WithRfcVariant() {
+        UUID id = new TimeOrderedUuidGenerator(() -> 1_700_000_000_000L).generate();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    void generate_ShouldEmbedUnixMillisInMostSignificantBits() {
+        long now = 1_700_000_000_123L;
+
+        UUID id = new TimeOrderedUuidGenerator(() -> now).generate();
+
+        assertEquals(now, id.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void generate_ShouldBeStrictlyIncreasing_WithinSameMillisecondAndWhenClockGoesBack() {
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(clock::get);
+
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                clock.addAndGet(-10);
+            }
+            ids.add(generator.generate());
+        }
+
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(compareUnsigned(ids.get(i - 1), ids.get(i)) < 0, "ids must sort in generation order");
+        }
+    }
+
+    @Test
+    void generate_ShouldBeUniqueAcrossThreads() throws Exception {
+        TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(System::currentTimeMillis);
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(generator.generate());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(160_000, ids.size());
+    }
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int result = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return result != 0 ? result : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,108 @@
+package com.abnamro.assignment.model.validation;
+
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.AccountType;
+import com.abnamro.assignment.model.Address;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledSubmitValidatorTest {
+
+    private LocalValidatorFactoryBean beanValidator;
+    private ApplicationSubmitValidator reference;
+    private ApplicationSubmitValidator compiled;
+
+    @BeforeEach
+    void setUp() {
+        beanValidator = new LocalValidatorFactoryBean();
+        beanValidator.afterPropertiesSet();
+        reference = new BeanValidationSubmitValidator(beanValidator);
+        compiled = new CompiledSubmitValidator(Clock.systemDefaultZone());
+    }
+
+    @AfterEach
+    void tearDown() {
+        beanValidator.close();
+    }
+
+    @Test
+    void validate_ShouldReturnEmpty_WhenApplicationIsValid() {
+        assertTrue(compiled.validate(validApplication()).isEmpty());
+        assertTrue(reference.validate(validApplication()).isEmpty());
+    }
+
+    @Test
+    void validate_ShouldMatchBeanValidationErrors() {
+        List<Consumer<AccountApplication>> violations = List.of(
+                application -> application.setName(null),
+                application -> application.setDateOfBirth(null),
+                application -> application.setDateOfBirth(LocalDate.now()),
+                application -> application.setDateOfBirth(LocalDate.now().plusYears(1)),
+                application -> application.setIdDocument(null),
+                application -> application.setAccountType(null),
+                application -> application.setStartingBalance(new BigDecimal("-0.01")),
+                application -> application.setStartingBalance(BigDecimal.ZERO),
+                application -> application.setMonthlySalary(new BigDecimal("-1")),
+                application -> application.setEmail("not-an-email"),
+                application -> application.setEmail("john@localhost"),
+                application -> application.setEmail(""),
+                application -> application.setEmail("\"john@doe\"@example.com"),
+                application -> application.setEmail("john@[192.168.0.1]"),
+                application -> application.setEmail("john@[IPv6:2001:db8::1]"),
+                application -> application.setEmail("jöhn@exämple.com"),
+                application -> application.setEmail("john@example.com."),
+                application -> application.setEmail("x".repeat(65) + "@example.com"),
+                application -> application.setEmail("john@" + "x".repeat(64) + ".com"),
+                // Address constraints are not cascaded by either engine
+                application -> application.getAddress().setPostCode("invalid"),
+                application -> {
+                    application.setName(null);
+                    application.setIdDocument(null);
+                    application.setAccountType(null);
+                    application.setEmail("john@");
+                });
+
+        for (Consumer<AccountApplication> violation : violations) {
+            AccountApplication application = validApplication();
+            violation.accept(application);
+
+            assertEquals(errorMap(reference.validate(application)), errorMap(compiled.validate(application)),
+                    application::toString);
+        }
+    }
+
+    private static Map<String, String> errorMap(Optional<BindingResult> errors) {
+        return errors.map(result -> result.getFieldErrors().stream()
+                        .collect(Collectors.toMap(FieldError::getField, FieldError::getDefaultMessage)))
+                .orElse(Map.of());
+    }
+
+    private static AccountApplication validApplication() {
+        AccountApplication application = new AccountApplication();
+        application.setName("John Doe");
+        application.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        application.setIdDocument("ID123");
+        application.setAccountType(AccountType.SAVINGS);
+        application.setStartingBalance(new BigDecimal("100.00"));
+        application.setMonthlySalary(new BigDecimal("3500.00"));
+        application.setEmail("john.doe@example.com");
+        application.setAddress(new Address("Main St", "1", "1000 AA", "Amsterdam"));
+        return application;
+    }
+}
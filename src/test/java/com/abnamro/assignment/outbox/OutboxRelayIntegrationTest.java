@@ -0,0 +1,133 @@
+package com.abnamro.assignment.outbox;
+
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.exception.ApplicationValidationException;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.AccountType;
+import com.abnamro.assignment.model.Address;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.repository.ApplicationRepository;
+import com.abnamro.assignment.repository.OutboxEventRepository;
+import com.abnamro.assignment.service.OnboardingService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Own database, so relays of other cached test contexts cannot publish these events
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox-relay-test",
+        "onboarding.outbox.relay-enabled=false",
+        "onboarding.outbox.batch-size=2",
+        "onboarding.outbox.in-memory.capacity=2",
+        "onboarding.outbox.in-memory.offer-timeout=10ms"
+})
+@ActiveProfiles("test")
+class OutboxRelayIntegrationTest {
+
+    @Autowired
+    private OnboardingService onboardingService;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        sink.drain();
+    }
+
+    @Test
+    void submitApplication_ShouldRecordEventThatRelayPublishes() throws Exception {
+        // given
+        ApplicationResponse submitted = onboardingService.submitApplication(validDraft(), null);
+        assertEquals(1, outboxEventRepository.count());
+
+        // when
+        int published = relay.relay();
+
+        // then
+        assertEquals(1, published);
+        assertEquals(0, outboxEventRepository.count());
+        List<OutboxMessage> messages = sink.drain();
+        assertEquals(1, messages.size());
+        OutboxMessage message = messages.get(0);
+        assertEquals(ApplicationEventOutbox.APPLICATION_SUBMITTED, message.type());
+        assertEquals(submitted.getId(), message.aggregateId());
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(message));
+        assertEquals("COMPLETED", json.at("/payload/status").asText());
+        assertEquals(submitted.getVersion(), json.at("/payload/version").asLong());
+        assertEquals(1, meterRegistry.timer("onboarding.outbox.delivery").count());
+    }
+
+    @Test
+    void submitApplication_ShouldNotRecordEvent_WhenValidationFails() {
+        // given
+        UUID id = applicationRepository.save(new AccountApplication()).getId();
+
+        // when
+        assertThrows(ApplicationValidationException.class, () -> onboardingService.submitApplication(id, null));
+
+        // then
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    void relay_ShouldKeepEventsAndRetry_WhenSinkIsFull() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            onboardingService.submitApplication(validDraft(), null);
+        }
+        assertEquals(2, relay.relay());
+
+        // when
+        assertThrows(IllegalStateException.class, () -> relay.relay());
+
+        // then
+        assertEquals(1, outboxEventRepository.count());
+        assertTrue(relay.lagSeconds() >= 0);
+
+        assertEquals(2, sink.drain().size());
+        assertEquals(1, relay.relay());
+        assertEquals(0, outboxEventRepository.count());
+        assertEquals(1, sink.drain().size());
+    }
+
+    private UUID validDraft() {
+        AccountApplication application = new AccountApplication();
+        application.setStatus(ApplicationStatus.DRAFT);
+        application.setName("Outbox Test User");
+        application.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        application.setAccountType(AccountType.SAVINGS);
+        application.setIdDocument("ID" + UUID.randomUUID());
+        application.setAddress(new Address("Main St", "1", "1000 AA", "Amsterdam"));
+        return applicationRepository.save(application).getId();
+    }
+}
@@ -0,0 +1,136 @@
+package com.abnamro.assignment.retention;
+
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.cache.ApplicationResponseCache;
+import com.abnamro.assignment.config.ApplicationCacheProperties;
+import com.abnamro.assignment.config.DraftRetentionProperties;
+import com.abnamro.assignment.config.InMemoryStoreProperties;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.store.InMemoryApplicationStore;
+import com.abnamro.assignment.writebehind.DraftWriteBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DraftPurgerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DraftRetentionProperties properties = new DraftRetentionProperties();
+    private final DraftWriteBuffer writeBuffer = mock(DraftWriteBuffer.class);
+    private InMemoryApplicationStore store;
+    private ApplicationResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties.setBatchDelay(Duration.ZERO);
+        store = new InMemoryApplicationStore(new InMemoryStoreProperties(), new ObjectMapper());
+        cache = new ApplicationResponseCache(new ApplicationCacheProperties(), meterRegistry);
+        when(writeBuffer.excludingUpdates(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+    }
+
+    @Test
+    void purge_ShouldDeleteDraftsNotUpdatedWithinRetention() throws Exception {
+        // given
+        UUID expired = save("Expired", ApplicationStatus.DRAFT);
+        UUID completed = save("Completed", ApplicationStatus.COMPLETED);
+        Instant cutoff = pause();
+        UUID recent = save("Recent", ApplicationStatus.DRAFT);
+        cache.put(new ApplicationResponse().id(expired));
+
+        // when
+        int deleted = purgerAt(cutoff).purge();
+
+        // then
+        assertEquals(1, deleted);
+        assertTrue(store.findById(expired).isEmpty());
+        assertTrue(store.findById(completed).isPresent());
+        assertTrue(store.findById(recent).isPresent());
+        assertTrue(cache.get(expired).isEmpty());
+        assertEquals(1, meterRegistry.get("onboarding.draft-purge.deleted").counter().count());
+        assertEquals(0, meterRegistry.get("onboarding.draft-purge.backlog").gauge().value());
+    }
+
+    @Test
+    void purge_ShouldDeleteInBatchesUpToMaxPerRun() throws Exception {
+        // given
+        properties.setBatchSize(2);
+        properties.setMaxPerRun(3);
+        List<UUID> drafts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            drafts.add(save("Draft " + i, ApplicationStatus.DRAFT));
+        }
+        DraftPurger purger = purgerAt(pause());
+
+        // when
+        int first = purger.purge();
+
+        // then
+        assertEquals(3, first);
+        assertTrue(store.findById(drafts.get(2)).isEmpty());
+        assertTrue(store.findById(drafts.get(3)).isPresent());
+        assertEquals(2, meterRegistry.get("onboarding.draft-purge.backlog").gauge().value());
+        assertEquals(2, purger.purge());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void purge_ShouldSkipDraftsWithPendingWrites() throws Exception {
+        // given
+        UUID pending = save("Pending", ApplicationStatus.DRAFT);
+        UUID expired = save("Expired", ApplicationStatus.DRAFT);
+        when(writeBuffer.find(pending)).thenReturn(Optional.of(new ApplicationResponse().id(pending)));
+
+        // when
+        int deleted = purgerAt(pause()).purge();
+
+        // then
+        assertEquals(1, deleted);
+        assertTrue(store.findById(pending).isPresent());
+        assertTrue(store.findById(expired).isEmpty());
+        assertEquals(1, meterRegistry.get("onboarding.draft-purge.backlog").gauge().value());
+    }
+
+    /**
+     * A purger whose retention cutoff is {@code cutoff}.
+     */
+    private DraftPurger purgerAt(Instant cutoff) {
+        Clock clock = Clock.fixed(cutoff.plus(properties.getRetention()), ZoneOffset.UTC);
+        return new DraftPurger(properties, store, writeBuffer, cache, meterRegistry, clock);
+    }
+
+    /**
+     * An instant after everything saved so far and before anything saved later.
+     */
+    private static Instant pause() throws InterruptedException {
+        Thread.sleep(2);
+        Instant now = Instant.now();
+        Thread.sleep(2);
+        return now;
+    }
+
+    private UUID save(String name, ApplicationStatus status) {
+        AccountApplication application = new AccountApplication();
+        application.setName(name);
+        application.setStatus(status);
+        return store.save(application).getId();
+    }
+}
@@ -1,6 +1,10 @@
 package com.abnamro.assignment.service;
 
+import com.abnamro.assignment.api.model.ApplicationBatchCreateRequest;
+import com.abnamro.assignment.api.model.ApplicationBatchUpdateItem;
+import com.abnamro.assignment.api.model.ApplicationBatchUpdateRequest;
 import com.abnamro.assignment.api.model.ApplicationCreateRequest;
+import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
 import com.abnamro.assignment.api.model.ApplicationResponse;
 import com.abnamro.assignment.exception.ApplicationValidationException;
 import com.abnamro.assignment.model.AccountApplication;
@@ -8,22 +12,41 @@ import com.abnamro.assignment.model.AccountType;
 import com.abnamro.assignment.model.Address;
 import com.abnamro.assignment.model.ApplicationStatus;
 import com.abnamro.assignment.repository.ApplicationRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.TransactionSystemException;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -35,7 +58,7 @@ public class OnboardingIntegrationTest {
     private MockMvc mockMvc;
 
     @Autowired
-    private com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+    private ObjectMapper objectMapper;
 
     @Autowired
     private OnboardingService onboardingService;
@@ -43,11 +66,133 @@ public class OnboardingIntegrationTest {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
         applicationRepository.deleteAll();
     }
 
+    @Test
+    void createApplication_ShouldAssignTimeOrderedIds() {
+        // when
+        UUID first = onboardingService.createApplication(new ApplicationCreateRequest()).getId();
+        UUID second = onboardingService.createApplication(new ApplicationCreateRequest()).getId();
+
+        // then
+        assertEquals(7, first.version());
+        assertTrue(Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits()) < 0);
+    }
+
+    @Test
+    void updateApplication_ShouldKeepUnchangedFieldsAndAdvanceAuditTimestamp() throws Exception {
+        // given
+        ApplicationCreateRequest create = new ApplicationCreateRequest();
+        create.setName("John Doe");
+        ApplicationResponse created = onboardingService.createApplication(create);
+        Thread.sleep(5);
+
+        // when
+        ApplicationUpdateRequest update = new ApplicationUpdateRequest();
+        update.setIdDocument("NL123456789");
+        onboardingService.updateApplication(created.getId(), update, null);
+
+        // then
+        AccountApplication stored = applicationRepository.findById(created.getId()).orElseThrow();
+        assertEquals("John Doe", stored.getName());
+        assertEquals("NL123456789", stored.getIdDocument());
+        assertEquals(created.getVersion() + 1, stored.getVersion());
+        assertTrue(stored.getUpdatedAt().isAfter(created.getUpdatedAt().toInstant()));
+    }
+
+    @Test
+    void listApplicationsViaApi_ShouldPageThroughFilteredApplications() throws Exception {
+        // given
+        for (int i = 0; i < 5; i++) {
+            ApplicationCreateRequest request = new ApplicationCreateRequest();
+            request.setName("Applicant " + i);
+            request.setEmail(i == 3 ? "three@example.com" : null);
+            onboardingService.createApplication(request);
+        }
+        UUID completed = applicationRepository.findAll().get(0).getId();
+        AccountApplication application = applicationRepository.findById(completed).orElseThrow();
+        application.setStatus(ApplicationStatus.COMPLETED);
+        applicationRepository.save(application);
+
+        // when
+        String body = mockMvc.perform(get("/applications").param("status", "DRAFT").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.nextCursor").exists())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(body).get("nextCursor").asText();
+
+        // then
+        mockMvc.perform(get("/applications").param("status", "DRAFT").param("limit", "3").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        mockMvc.perform(get("/applications").param("email", "three@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Applicant 3"));
+        mockMvc.perform(get("/applications").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Invalid cursor"));
+    }
+
+    @Test
+    void exportApplicationsViaApi_ShouldStreamNdjsonAndResumeAfterCheckpoint() throws Exception {
+        // given
+        for (int i = 0; i < 3; i++) {
+            AccountApplication application = new AccountApplication();
+            application.setStatus(ApplicationStatus.COMPLETED);
+            application.setName("Exported " + i);
+            applicationRepository.save(application);
+        }
+        onboardingService.createApplication(new ApplicationCreateRequest());
+
+        // when
+        String[] lines = export(get("/applications:export"), false);
+
+        // then
+        assertEquals(3, lines.length);
+        JsonNode checkpoint = objectMapper.readTree(lines[0]);
+        assertEquals("COMPLETED", checkpoint.get("status").asText());
+
+        String[] resumed = export(get("/applications:export")
+                .param("afterUpdatedAt", checkpoint.get("updatedAt").asText())
+                .param("afterId", checkpoint.get("id").asText()), false);
+        assertEquals(List.of(lines[1], lines[2]), List.of(resumed));
+
+        String[] compressed = export(get("/applications:export").header("Accept-Encoding", "gzip, deflate"), true);
+        assertEquals(List.of(lines), List.of(compressed));
+
+        mockMvc.perform(get("/applications:export").param("afterId", checkpoint.get("id").asText()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String[] export(MockHttpServletRequestBuilder request, boolean gzip) throws Exception {
+        MvcResult started = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse response = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse();
+        byte[] body = response.getContentAsByteArray();
+        if (gzip) {
+            assertEquals("gzip", response.getHeader("Content-Encoding"));
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                body = in.readAllBytes();
+            }
+        }
+        String ndjson = new String(body, StandardCharsets.UTF_8);
+        assertTrue(ndjson.endsWith("\n"));
+        return ndjson.split("\n");
+    }
+
     @Test
     void submitApplication_ShouldFailValidation_WhenDataIsInvalid() {
         // Given
@@ -61,7 +206,7 @@ public class OnboardingIntegrationTest {
 
         // When/Then
         assertThrows(ApplicationValidationException.class, () -> {
-            onboardingService.submitApplication(appId);
+            onboardingService.submitApplication(appId, null);
         });
 
         // Status is still DRAFT
@@ -90,7 +235,7 @@ public class OnboardingIntegrationTest {
         UUID appId = savedApp.getId();
 
         // When
-        ApplicationResponse response = onboardingService.submitApplication(appId);
+        ApplicationResponse response = onboardingService.submitApplication(appId, null);
 
         // Then
         assertEquals(com.abnamro.assignment.api.model.ApplicationStatus.COMPLETED, response.getStatus());
@@ -99,6 +244,50 @@ public class OnboardingIntegrationTest {
         assertEquals(ApplicationStatus.COMPLETED, storedApp.getStatus());
     }
 
+    @Test
+    void duplicateApplicant_ShouldBeFlaggedOnCreateAndRejectedOnSecondSubmit() throws Exception {
+        // given
+        ApplicationCreateRequest create = new ApplicationCreateRequest();
+        create.setEmail("duplicate@example.com");
+        UUID first = onboardingService.createApplication(create).getId();
+        create.setEmail("Duplicate@Example.com");
+
+        // when
+        ApplicationResponse second = onboardingService.createApplication(create);
+
+        // then
+        assertEquals(first, second.getPossibleDuplicateOf());
+        assertEquals(com.abnamro.assignment.api.model.DuplicateMatch.EMAIL, second.getDuplicateMatch());
+
+        // given
+        AccountApplication submitted = applicationRepository.save(completeApplication("NL-DUP-123"));
+        onboardingService.submitApplication(submitted.getId(), null);
+        AccountApplication again = applicationRepository.save(completeApplication("nldup123"));
+
+        // when/then
+        mockMvc.perform(post("/applications/" + again.getId() + "/submit")
+                .contentType("application/json"))
+                .andExpect(status().isConflict());
+        assertEquals(ApplicationStatus.DRAFT,
+                applicationRepository.findById(again.getId()).orElseThrow().getStatus());
+    }
+
+    private static AccountApplication completeApplication(String idDocument) {
+        AccountApplication app = new AccountApplication();
+        app.setStatus(ApplicationStatus.DRAFT);
+        app.setName("Duplicate Test User");
+        app.setDateOfBirth(LocalDate.of(1985, 5, 5));
+        app.setAccountType(AccountType.SAVINGS);
+        app.setIdDocument(idDocument);
+        Address address = new Address();
+        address.setStreetName("Main St");
+        address.setHouseNumber("1");
+        address.setPostCode("1234 AB");
+        address.setCity("Amsterdam");
+        app.setAddress(address);
+        return app;
+    }
+
     @Test
     void createApplication_ShouldFail_WhenDateOfBirthIsInFuture() {
         //given
@@ -167,6 +356,27 @@ public class OnboardingIntegrationTest {
                 .andExpect(jsonPath("$.detail").value("Malformed JSON request"));
     }
 
+    @Test
+    void operations_ShouldBeTimedAndErrorsCounted() throws Exception {
+        // given
+        double errorsBefore = meterRegistry.counter("onboarding.errors",
+                "status", "400", "exception", "HttpMessageNotReadableException").count();
+
+        // when
+        UUID id = onboardingService.createApplication(new ApplicationCreateRequest()).getId();
+        assertThrows(ApplicationValidationException.class, () -> onboardingService.submitApplication(id, null));
+        mockMvc.perform(post("/applications")
+                .contentType("application/json")
+                .content("{"))
+                .andExpect(status().isBadRequest());
+
+        // then
+        assertTrue(meterRegistry.get("onboarding.service").tag("operation", "create").timer().count() > 0);
+        assertTrue(meterRegistry.get("onboarding.validation").timer().count() > 0);
+        assertEquals(errorsBefore + 1, meterRegistry.get("onboarding.errors")
+                .tags("status", "400", "exception", "HttpMessageNotReadableException").counter().count());
+    }
+
     @Test
     void submitApplication_ShouldReturn400_WithErrors_WhenMandatoryFieldsAreMissing() throws Exception {
         // given
@@ -186,4 +396,86 @@ public class OnboardingIntegrationTest {
                 .andExpect(jsonPath("$.errors.accountType").exists())
                 .andExpect(jsonPath("$.errors.idDocument").exists()); // Should exist
     }
+
+    @Test
+    void createAndUpdateViaApi_ShouldExchangeCbor_WhenRequested() throws Exception {
+        // given
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+        ApplicationCreateRequest create = new ApplicationCreateRequest();
+        create.setName("Cbor User");
+        create.setDateOfBirth(LocalDate.of(1985, 5, 5));
+        create.setAddress(new com.abnamro.assignment.api.model.Address());
+
+        // when
+        MockHttpServletResponse created = mockMvc.perform(post("/applications")
+                        .contentType("application/cbor")
+                        .accept("application/cbor")
+                        .content(cborMapper.writeValueAsBytes(create)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().string("Vary", containsString("Accept")))
+                .andReturn().getResponse();
+        UUID id = cborMapper.readValue(created.getContentAsByteArray(), ApplicationResponse.class).getId();
+        ApplicationUpdateRequest update = new ApplicationUpdateRequest();
+        update.setIdDocument("NL555555555");
+        mockMvc.perform(patch("/applications/" + id)
+                        .contentType("application/cbor")
+                        .accept("application/cbor")
+                        .content(cborMapper.writeValueAsBytes(update)))
+                .andExpect(status().isOk());
+
+        // then
+        byte[] cbor = mockMvc.perform(get("/applications/" + id).accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] json = mockMvc.perform(get("/applications/" + id))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(jsonPath("$.idDocument").value("NL555555555"))
+                .andReturn().getResponse().getContentAsByteArray();
+        ApplicationResponse fromCbor = cborMapper.readValue(cbor, ApplicationResponse.class);
+        assertEquals(objectMapper.readValue(json, ApplicationResponse.class), fromCbor);
+        assertEquals(LocalDate.of(1985, 5, 5), fromCbor.getDateOfBirth());
+        assertTrue(cbor.length < json.length);
+    }
+
+    @Test
+    void batchCreateAndUpdateViaApi_ShouldPersistAllItems() throws Exception {
+        // given
+        ApplicationCreateRequest first = new ApplicationCreateRequest();
+        first.setName("Batch User One");
+        first.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        first.setAddress(new com.abnamro.assignment.api.model.Address());
+        ApplicationCreateRequest second = new ApplicationCreateRequest();
+        second.setName("Batch User Two");
+        second.setDateOfBirth(LocalDate.of(1991, 2, 2));
+        second.setAddress(new com.abnamro.assignment.api.model.Address());
+
+        // when
+        mockMvc.perform(post("/applications:batch")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(new ApplicationBatchCreateRequest(List.of(first, second)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.length()").value(2))
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[1].application.name").value("Batch User Two"));
+
+        // then
+        List<AccountApplication> stored = applicationRepository.findAll();
+        assertEquals(2, stored.size());
+
+        ApplicationUpdateRequest changes = new ApplicationUpdateRequest();
+        changes.setIdDocument("NL987654321");
+        ApplicationBatchUpdateRequest update = new ApplicationBatchUpdateRequest(List.of(
+                new ApplicationBatchUpdateItem(stored.get(0).getId(), changes),
+                new ApplicationBatchUpdateItem(UUID.randomUUID(), changes)));
+
+        mockMvc.perform(patch("/applications:batch")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value(200))
+                .andExpect(jsonPath("$.results[0].application.idDocument").value("NL987654321"))
+                .andExpect(jsonPath("$.results[1].status").value(404));
+    }
 }
@@ -1,45 +1,88 @@
 package com.abnamro.assignment.service;
 
+import com.abnamro.assignment.api.model.ApplicationBatchResult;
+import com.abnamro.assignment.api.model.ApplicationBatchUpdateItem;
 import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
+import com.abnamro.assignment.archive.ApplicationArchive;
+import com.abnamro.assignment.cache.ApplicationResponseCache;
+import com.abnamro.assignment.config.ApplicationCacheProperties;
+import com.abnamro.assignment.config.BatchProperties;
+import com.abnamro.assignment.duplicate.DuplicateApplicantDetector;
+import com.abnamro.assignment.duplicate.DuplicateMatch;
 import com.abnamro.assignment.mapper.ApplicationMapper;
 import com.abnamro.assignment.model.AccountApplication;
 import com.abnamro.assignment.model.AccountType;
+import com.abnamro.assignment.model.ApplicantKey;
 import com.abnamro.assignment.model.ApplicationStatus;
-import com.abnamro.assignment.repository.ApplicationRepository;
+import com.abnamro.assignment.model.validation.BeanValidationSubmitValidator;
+import com.abnamro.assignment.store.ApplicationStore;
+import com.abnamro.assignment.submission.SubmissionProcessor;
+import com.abnamro.assignment.writebehind.DraftWriteBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class OnboardingServiceImplTest {
 
     @Mock
-    private ApplicationRepository repository;
+    private ApplicationStore store;
 
     @Mock
     private org.springframework.validation.SmartValidator validator;
 
+    @Mock
+    private DraftWriteBuffer writeBuffer;
+
+    @Mock
+    private SubmissionProcessor submissionProcessor;
+
+    @Mock
+    private DuplicateApplicantDetector duplicates;
+
+    @Mock
+    private ApplicationArchive archive;
+
     private final ApplicationMapper mapper = new ApplicationMapper();
 
     private OnboardingServiceImpl service;
 
+    private SimpleMeterRegistry meterRegistry;
+
     private AccountApplication app;
     private UUID appId;
 
     @BeforeEach
     void setUp() {
-        service = new OnboardingServiceImpl(repository, mapper, validator);
+        BatchProperties batchProperties = new BatchProperties();
+        batchProperties.setChunkSize(2);
+        batchProperties.setMaxItems(3);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new OnboardingServiceImpl(store, mapper, new BeanValidationSubmitValidator(validator),
+                TransactionOperations.withoutTransaction(), batchProperties,
+                new ApplicationResponseCache(new ApplicationCacheProperties(), meterRegistry), meterRegistry, writeBuffer,
+                submissionProcessor, duplicates, archive);
         appId = UUID.randomUUID();
         app = new AccountApplication();
         app.setId(appId);
@@ -50,7 +93,7 @@ class OnboardingServiceImplTest {
     @Test
     void submitApplication_ShouldFail_WhenFieldsMissing() {
         // given
-        when(repository.findById(appId)).thenReturn(Optional.of(app));
+        when(store.findById(appId)).thenReturn(Optional.of(app));
 
         doAnswer(invocation -> {
             org.springframework.validation.Errors errors = invocation.getArgument(1);
@@ -61,11 +104,12 @@ class OnboardingServiceImplTest {
         // when
         Exception exception = assertThrows(com.abnamro.assignment.exception.ApplicationValidationException.class,
                 () -> {
-                    service.submitApplication(appId);
+                    service.submitApplication(appId, null);
                 });
 
         // then
         assertNotNull(exception);
+        verifyNoInteractions(submissionProcessor);
     }
 
     @Test
@@ -82,36 +126,103 @@ class OnboardingServiceImplTest {
         app.setIdDocument("ID123");
         app.setAccountType(AccountType.SAVINGS);
 
-        when(repository.findById(appId)).thenReturn(Optional.of(app));
-        when(repository.save(any(AccountApplication.class))).thenReturn(app);
+        when(store.findById(appId)).thenReturn(Optional.of(app));
+        when(submissionProcessor.complete(app)).thenAnswer(invocation -> {
+            app.setStatus(ApplicationStatus.COMPLETED);
+            return mapper.toResponse(app);
+        });
 
         // when
-        var response = service.submitApplication(appId);
+        var response = service.submitApplication(appId, null);
 
         // then
         assertEquals(com.abnamro.assignment.api.model.ApplicationStatus.COMPLETED, response.getStatus());
+        assertEquals(1, meterRegistry.timer("onboarding.validation").count());
+    }
+
+    @Test
+    void submitApplication_ShouldFlagPossibleDuplicate_WhenApplicantHasEarlierApplication() {
+        // given
+        UUID earlier = UUID.randomUUID();
+        app.setEmail("john.doe@example.com");
+        when(store.findById(appId)).thenReturn(Optional.of(app));
+        when(duplicates.findDuplicate(app)).thenReturn(Optional.of(new DuplicateMatch(earlier, ApplicantKey.EMAIL)));
+        when(submissionProcessor.complete(app)).thenAnswer(invocation -> mapper.toResponse(app));
+
+        // when
+        var response = service.submitApplication(appId, null);
+
+        // then
+        assertEquals(earlier, response.getPossibleDuplicateOf());
+        assertEquals(com.abnamro.assignment.api.model.DuplicateMatch.EMAIL, response.getDuplicateMatch());
+        verify(duplicates).register(app);
+    }
+
+    @Test
+    void submitApplication_ShouldConflict_WhenApplicantAlreadySubmittedThisAccountType() {
+        // given
+        when(store.findById(appId)).thenReturn(Optional.of(app));
+        when(submissionProcessor.complete(app)).thenThrow(new DuplicateKeyException("uk_applications_submitted_applicant"));
+
+        // when
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> service.submitApplication(appId, null));
+
+        // then
+        assertTrue(exception.getMessage().contains("already been submitted"));
+    }
+
+    @Test
+    void submitApplication_ShouldQueueAsSubmitted_WhenAsync() {
+        // given
+        app.setName("John Doe");
+        when(store.findById(appId)).thenReturn(Optional.of(app));
+        when(store.save(app)).thenReturn(app);
+        when(submissionProcessor.isAsync()).thenReturn(true);
+
+        // when
+        var response = service.submitApplication(appId, null);
+
+        // then
+        assertEquals(com.abnamro.assignment.api.model.ApplicationStatus.SUBMITTED, response.getStatus());
+        verify(submissionProcessor).assertCapacity();
+        verify(submissionProcessor).enqueue(appId);
+        verify(submissionProcessor, times(0)).complete(any());
     }
 
     @Test
     void updateApplication_ShouldFail_WhenAlreadyCompleted() {
         app.setStatus(ApplicationStatus.COMPLETED);
-        when(repository.findById(appId)).thenReturn(Optional.of(app));
+        when(store.findById(appId)).thenReturn(Optional.of(app));
 
         ApplicationUpdateRequest request = new ApplicationUpdateRequest();
         request.setName("New Name");
 
         assertThrows(IllegalStateException.class, () -> {
-            service.updateApplication(appId, request);
+            service.updateApplication(appId, request, null);
+        });
+    }
+
+    @Test
+    void updateApplication_ShouldFail_WhenExpectedVersionIsStale() {
+        app.setVersion(5L);
+        when(store.findById(appId)).thenReturn(Optional.of(app));
+
+        ApplicationUpdateRequest request = new ApplicationUpdateRequest();
+        request.setName("New Name");
+
+        assertThrows(com.abnamro.assignment.exception.PreconditionFailedException.class, () -> {
+            service.updateApplication(appId, request, 4L);
         });
     }
 
     @Test
     void submitApplication_ShouldFail_WhenAlreadyCompleted() {
         app.setStatus(ApplicationStatus.COMPLETED);
-        when(repository.findById(appId)).thenReturn(Optional.of(app));
+        when(store.findById(appId)).thenReturn(Optional.of(app));
 
         assertThrows(IllegalStateException.class, () -> {
-            service.submitApplication(appId);
+            service.submitApplication(appId, null);
         });
     }
 
@@ -122,7 +233,7 @@ class OnboardingServiceImplTest {
         request.setName("Jane Doe");
         request.setDateOfBirth(LocalDate.of(1995, 5, 15));
 
-        when(repository.save(any(AccountApplication.class))).thenAnswer(invocation -> {
+        when(store.save(any(AccountApplication.class))).thenAnswer(invocation -> {
             AccountApplication savedApp = invocation.getArgument(0);
             savedApp.setId(UUID.randomUUID());
             return savedApp;
@@ -140,7 +251,7 @@ class OnboardingServiceImplTest {
 
     @Test
     void getApplication_ShouldReturnApp_WhenFound() {
-        when(repository.findById(appId)).thenReturn(Optional.of(app));
+        when(store.findById(appId)).thenReturn(Optional.of(app));
 
         var response = service.getApplication(appId);
 
@@ -148,12 +259,107 @@ class OnboardingServiceImplTest {
         assertEquals(appId, response.getId());
     }
 
+    @Test
+    void getApplication_ShouldServeRepeatedReadsFromCache() {
+        when(store.findById(appId)).thenReturn(Optional.of(app));
+
+        var first = service.getApplication(appId);
+        var second = service.getApplication(appId);
+
+        assertSame(first, second);
+        verify(store, times(1)).findById(appId);
+    }
+
+    @Test
+    void getApplication_ShouldReturnUpdatedState_AfterUpdate() {
+        app.setVersion(0L);
+        when(store.findById(appId)).thenReturn(Optional.of(app));
+        when(store.save(any(AccountApplication.class))).thenAnswer(invocation -> {
+            AccountApplication saved = invocation.getArgument(0);
+            saved.setVersion(saved.getVersion() + 1);
+            return saved;
+        });
+        service.getApplication(appId);
+
+        ApplicationUpdateRequest request = new ApplicationUpdateRequest();
+        request.setName("Updated Name");
+        service.updateApplication(appId, request, null);
+
+        var response = service.getApplication(appId);
+        assertEquals("Updated Name", response.getName());
+        assertEquals(1L, response.getVersion());
+    }
+
     @Test
     void getApplication_ShouldThrow_WhenNotFound() {
-        when(repository.findById(appId)).thenReturn(Optional.empty());
+        when(store.findById(appId)).thenReturn(Optional.empty());
 
         assertThrows(com.abnamro.assignment.exception.ResourceNotFoundException.class, () -> {
             service.getApplication(appId);
         });
     }
+
+    @Test
+    void createApplications_ShouldReturnResultPerItem_InRequestOrder() {
+        // given
+        com.abnamro.assignment.api.model.ApplicationCreateRequest first = new com.abnamro.assignment.api.model.ApplicationCreateRequest();
+        first.setName("Jane Doe");
+        com.abnamro.assignment.api.model.ApplicationCreateRequest second = new com.abnamro.assignment.api.model.ApplicationCreateRequest();
+        second.setName("John Doe");
+        com.abnamro.assignment.api.model.ApplicationCreateRequest third = new com.abnamro.assignment.api.model.ApplicationCreateRequest();
+        third.setName("Jack Doe");
+
+        when(store.saveAll(anyList())).thenAnswer(invocation -> {
+            List<AccountApplication> saved = invocation.getArgument(0);
+            saved.forEach(application -> application.setId(UUID.randomUUID()));
+            return saved;
+        });
+
+        // when
+        var response = service.createApplications(List.of(first, second, third));
+
+        // then
+        List<ApplicationBatchResult> results = response.getResults();
+        assertEquals(3, results.size());
+        assertEquals(List.of("Jane Doe", "John Doe", "Jack Doe"),
+                results.stream().map(result -> result.getApplication().getName()).toList());
+        assertEquals(List.of(0, 1, 2), results.stream().map(ApplicationBatchResult::getIndex).toList());
+        results.forEach(result -> assertEquals(201, result.getStatus()));
+    }
+
+    @Test
+    void createApplications_ShouldReject_WhenBatchTooLarge() {
+        var requests = Collections.nCopies(4, new com.abnamro.assignment.api.model.ApplicationCreateRequest());
+
+        assertThrows(IllegalArgumentException.class, () -> service.createApplications(requests));
+    }
+
+    @Test
+    void updateApplications_ShouldReportNotFoundAndCompletedPerItem() {
+        // given
+        AccountApplication completed = new AccountApplication();
+        completed.setId(UUID.randomUUID());
+        completed.setStatus(ApplicationStatus.COMPLETED);
+        UUID missingId = UUID.randomUUID();
+
+        when(store.findAllById(anyCollection())).thenReturn(List.of(app, completed));
+        when(store.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ApplicationUpdateRequest changes = new ApplicationUpdateRequest();
+        changes.setName("New Name");
+
+        // when
+        var response = service.updateApplications(List.of(
+                new ApplicationBatchUpdateItem(appId, changes),
+                new ApplicationBatchUpdateItem(missingId, changes),
+                new ApplicationBatchUpdateItem(completed.getId(), changes)));
+
+        // then
+        List<ApplicationBatchResult> results = response.getResults();
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals("New Name", results.get(0).getApplication().getName());
+        assertEquals(404, results.get(1).getStatus());
+        assertEquals(409, results.get(2).getStatus());
+        assertNull(results.get(2).getApplication());
+    }
 }
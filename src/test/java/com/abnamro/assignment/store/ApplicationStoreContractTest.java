@@ -0,0 +1,366 @@
+package com.abnamro.assignment.store;
+
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.AccountType;
+import com.abnamro.assignment.model.Address;
+import com.abnamro.assignment.model.ApplicantKey;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.repository.ApplicantMatch;
+import com.abnamro.assignment.repository.ApplicationKeyset;
+import com.abnamro.assignment.repository.ApplicationSearchCriteria;
+import com.abnamro.assignment.repository.ApplicationSummaryView;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Behaviour every {@link ApplicationStore} must have; each implementation runs it through a subclass that
+ * provides an empty store.
+ */
+abstract class ApplicationStoreContractTest {
+
+    protected abstract ApplicationStore store();
+
+    @Test
+    void save_ShouldAssignIdVersionAndTimestamps_WhenNew() {
+        // when
+        AccountApplication saved = store().save(draft("Alice"));
+
+        // then
+        assertNotNull(saved.getId());
+        assertEquals(7, saved.getId().version());
+        assertEquals(0L, saved.getVersion());
+        assertNotNull(saved.getCreatedAt());
+        assertEquals(saved.getCreatedAt(), saved.getUpdatedAt());
+        assertEquals("Main St", store().findById(saved.getId()).orElseThrow().getAddress().getStreetName());
+    }
+
+    @Test
+    void save_ShouldIncrementVersionAndUpdatedAt_WhenChanged() throws InterruptedException {
+        // given
+        AccountApplication created = store().save(draft("Alice"));
+        Thread.sleep(2);
+        AccountApplication application = store().findById(created.getId()).orElseThrow();
+
+        // when
+        application.setName("Alice Cooper");
+        AccountApplication saved = store().save(application);
+
+        // then
+        assertEquals(1L, saved.getVersion());
+        assertTrue(saved.getUpdatedAt().isAfter(created.getUpdatedAt()));
+        AccountApplication stored = store().findById(created.getId()).orElseThrow();
+        assertEquals("Alice Cooper", stored.getName());
+        assertEquals(1L, stored.getVersion());
+        assertEquals(created.getCreatedAt().toEpochMilli(), stored.getCreatedAt().toEpochMilli());
+    }
+
+    @Test
+    void save_ShouldKeepVersion_WhenNothingChanged() {
+        // given
+        AccountApplication created = store().save(draft("Alice"));
+
+        // when
+        AccountApplication saved = store().save(store().findById(created.getId()).orElseThrow());
+
+        // then
+        assertEquals(0L, saved.getVersion());
+        assertEquals(0L, store().findVersionById(created.getId()).orElseThrow());
+    }
+
+    @Test
+    void save_ShouldFail_WhenVersionIsStale() {
+        // given
+        UUID id = store().save(draft("Alice")).getId();
+        AccountApplication first = store().findById(id).orElseThrow();
+        AccountApplication second = store().findById(id).orElseThrow();
+        first.setName("First");
+        store().save(first);
+
+        // when/then
+        second.setName("Second");
+        assertThrows(OptimisticLockingFailureException.class, () -> store().save(second));
+        assertEquals("First", store().findById(id).orElseThrow().getName());
+    }
+
+    @Test
+    void findById_ShouldReturnDetachedCopy() {
+        // given
+        UUID id = store().save(draft("Alice")).getId();
+
+        // when
+        store().findById(id).orElseThrow().setName("Changed without saving");
+
+        // then
+        assertEquals("Alice", store().findById(id).orElseThrow().getName());
+        assertTrue(store().findById(UUID.randomUUID()).isEmpty());
+        assertTrue(store().findVersionById(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void findAllById_ShouldSkipUnknownIds() {
+        // given
+        UUID alice = store().save(draft("Alice")).getId();
+        UUID bob = store().save(draft("Bob")).getId();
+
+        // when
+        List<AccountApplication> found = store().findAllById(List.of(alice, UUID.randomUUID(), bob));
+
+        // then
+        assertEquals(2, found.size());
+    }
+
+    @Test
+    void saveAll_ShouldSaveNothing_WhenOneApplicationIsStale() {
+        // given
+        AccountApplication fresh = store().save(draft("Alice"));
+        AccountApplication stale = store().save(draft("Bob"));
+        AccountApplication concurrent = store().findById(stale.getId()).orElseThrow();
+        concurrent.setName("Robert");
+        store().save(concurrent);
+
+        // when
+        fresh.setName("Alicia");
+        stale.setName("Bobby");
+        assertThrows(OptimisticLockingFailureException.class, () -> store().saveAll(List.of(fresh, stale)));
+
+        // then
+        assertEquals("Alice", store().findById(fresh.getId()).orElseThrow().getName());
+        assertEquals("Robert", store().findById(stale.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void saveAll_ShouldReturnStoredStatesInOrder() {
+        // when
+        List<AccountApplication> saved = store().saveAll(List.of(draft("Alice"), draft("Bob")));
+
+        // then
+        assertEquals(List.of("Alice", "Bob"), saved.stream().map(AccountApplication::getName).toList());
+        saved.forEach(application -> assertEquals(0L, application.getVersion()));
+    }
+
+    @Test
+    void search_ShouldFilterAndPageInUpdatedAtOrder() throws InterruptedException {
+        // given
+        List<UUID> drafts = new ArrayList<>();
+        for (String name : List.of("A", "B", "C")) {
+            drafts.add(store().save(draft(name)).getId());
+            Thread.sleep(2);
+        }
+        AccountApplication completed = draft("D");
+        completed.setStatus(ApplicationStatus.COMPLETED);
+        completed.setEmail("d@example.com");
+        store().save(completed);
+        ApplicationSearchCriteria onlyDrafts = ApplicationSearchCriteria.builder()
+                .status(ApplicationStatus.DRAFT)
+                .build();
+
+        // when
+        List<ApplicationSummaryView> first = store().search(onlyDrafts, null, 2);
+        ApplicationSummaryView last = first.get(first.size() - 1);
+        List<ApplicationSummaryView> second = store().search(onlyDrafts,
+                new ApplicationKeyset(last.updatedAt(), last.id()), 2);
+
+        // then
+        assertEquals(drafts.subList(0, 2), first.stream().map(ApplicationSummaryView::id).toList());
+        assertEquals(drafts.subList(2, 3), second.stream().map(ApplicationSummaryView::id).toList());
+        assertEquals(List.of("D"), store().search(ApplicationSearchCriteria.builder().email("d@example.com").build(),
+                null, 10).stream().map(ApplicationSummaryView::name).toList());
+        Instant updatedFrom = first.get(1).updatedAt();
+        assertEquals(drafts.get(1), store().search(ApplicationSearchCriteria.builder()
+                .status(ApplicationStatus.DRAFT).updatedFrom(updatedFrom).build(), null, 1).get(0).id());
+    }
+
+    @Test
+    void findIdsByStatusUpdatedBefore_ShouldReturnOldestFirst() throws InterruptedException {
+        // given
+        AccountApplication older = draft("Older");
+        older.setStatus(ApplicationStatus.SUBMITTED);
+        UUID olderId = store().save(older).getId();
+        Thread.sleep(2);
+        AccountApplication newer = draft("Newer");
+        newer.setStatus(ApplicationStatus.SUBMITTED);
+        UUID newerId = store().save(newer).getId();
+        store().save(draft("Draft"));
+        Thread.sleep(2);
+
+        // when/then
+        assertEquals(List.of(olderId, newerId),
+                store().findIdsByStatusUpdatedBefore(ApplicationStatus.SUBMITTED, Instant.now(), 10));
+        assertEquals(List.of(olderId),
+                store().findIdsByStatusUpdatedBefore(ApplicationStatus.SUBMITTED, Instant.now(), 1));
+        assertTrue(store().findIdsByStatusUpdatedBefore(ApplicationStatus.SUBMITTED, Instant.EPOCH, 10).isEmpty());
+    }
+
+    @Test
+    void deleteByStatusUpdatedBefore_ShouldKeepApplicationsChangedSinceOrOfOtherStatus() throws Exception {
+        // given
+        AccountApplication changed = store().save(draft("Changed"));
+        AccountApplication expired = draft("Expired");
+        expired.setEmail("expired@example.com");
+        UUID expiredId = store().save(expired).getId();
+        AccountApplication submitted = draft("Submitted");
+        submitted.setIdDocument("SUB123456");
+        submitted.setStatus(ApplicationStatus.SUBMITTED);
+        UUID submittedId = store().save(submitted).getId();
+        Thread.sleep(2);
+        Instant cutoff = Instant.now();
+        Thread.sleep(2);
+        changed.setEmail("changed@example.com");
+        store().save(changed);
+
+        // when
+        int deleted = store().deleteByStatusUpdatedBefore(
+                List.of(changed.getId(), expiredId, submittedId, UUID.randomUUID()), ApplicationStatus.DRAFT, cutoff);
+
+        // then
+        assertEquals(1, deleted);
+        assertTrue(store().findById(expiredId).isEmpty());
+        assertTrue(store().findById(changed.getId()).isPresent());
+        assertTrue(store().findById(submittedId).isPresent());
+        assertTrue(store().findByApplicantKey(ApplicantKey.EMAIL, "expired@example.com", 10).isEmpty());
+        assertEquals(0, store().countByStatusUpdatedBefore(ApplicationStatus.DRAFT, cutoff));
+        assertEquals(1, store().countByStatusUpdatedBefore(ApplicationStatus.DRAFT, Instant.now().plusSeconds(1)));
+        assertEquals(1, store().countByStatusUpdatedBefore(ApplicationStatus.SUBMITTED, cutoff));
+        assertEquals(0, store().deleteByStatusUpdatedBefore(List.of(), ApplicationStatus.DRAFT, cutoff));
+    }
+
+    @Test
+    void save_ShouldNotLoseUpdates_WhenWritersRace() throws Exception {
+        // given
+        UUID id = store().save(draft("Race")).getId();
+        int writers = 4;
+        int updatesPerWriter = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+
+        // when
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < updatesPerWriter; i++) {
+                        while (true) {
+                            AccountApplication application = store().findById(id).orElseThrow();
+                            application.setName("writer " + writer + " update " + i);
+                            try {
+                                store().save(application);
+                                break;
+                            } catch (OptimisticLockingFailureException e) {
+                                // Lost the race, retry on the new version
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // then
+        assertEquals((long) writers * updatesPerWriter, store().findVersionById(id).orElseThrow());
+    }
+
+    @Test
+    void findByApplicantKey_ShouldMatchNormalizedKeysOldestFirst() {
+        // given
+        AccountApplication first = draft("Zoë  Smith");
+        first.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        first.setIdDocument("nl-123 456");
+        first.setEmail("Zoe.Smith@Example.com");
+        UUID firstId = store().save(first).getId();
+        AccountApplication second = draft("Zoe Smith");
+        second.setIdDocument("NL123456");
+        UUID secondId = store().save(second).getId();
+        store().save(draft("Someone Else"));
+
+        // when
+        AccountApplication changed = store().findById(firstId).orElseThrow();
+        changed.setEmail("zoe@example.org");
+        store().save(changed);
+
+        // then
+        assertEquals(List.of(firstId, secondId), ids(store().findByApplicantKey(ApplicantKey.ID_DOCUMENT,
+                "NL123456", 10)));
+        assertEquals(List.of(firstId), ids(store().findByApplicantKey(ApplicantKey.ID_DOCUMENT, "NL123456", 1)));
+        assertEquals(List.of(firstId), ids(store().findByApplicantKey(ApplicantKey.NAME_AND_DATE_OF_BIRTH,
+                "zoe smith|1990-01-01", 10)));
+        assertTrue(store().findByApplicantKey(ApplicantKey.EMAIL, "zoe.smith@example.com", 10).isEmpty());
+        assertEquals(List.of(firstId), ids(store().findByApplicantKey(ApplicantKey.EMAIL, "zoe@example.org", 10)));
+        Set<String> keys = new HashSet<>();
+        store().forEachApplicantKey((key, value) -> keys.add(key + " " + value));
+        assertTrue(keys.containsAll(Set.of("ID_DOCUMENT NL123456", "EMAIL zoe@example.org",
+                "NAME_AND_DATE_OF_BIRTH zoe smith|1990-01-01")));
+        assertFalse(keys.contains("EMAIL zoe.smith@example.com"));
+    }
+
+    @Test
+    void save_ShouldFail_WhenApplicantAlreadyHasSubmittedApplicationOfAccountType() {
+        // given
+        AccountApplication submitted = draft("Alice");
+        submitted.setIdDocument("AB123456");
+        submitted.setStatus(ApplicationStatus.SUBMITTED);
+        UUID submittedId = store().save(submitted).getId();
+        AccountApplication other = draft("Alice");
+        other.setIdDocument("ab 123456");
+        AccountApplication otherDraft = store().save(other);
+        AccountApplication otherType = draft("Alice");
+        otherType.setIdDocument("AB123456");
+        otherType.setAccountType(AccountType.CURRENT);
+        otherType.setStatus(ApplicationStatus.SUBMITTED);
+
+        // when
+        AccountApplication resubmit = store().findById(otherDraft.getId()).orElseThrow();
+        resubmit.setStatus(ApplicationStatus.SUBMITTED);
+
+        // then
+        assertThrows(DataIntegrityViolationException.class, () -> store().save(resubmit));
+        assertEquals(ApplicationStatus.DRAFT, store().findById(otherDraft.getId()).orElseThrow().getStatus());
+        assertEquals(0L, store().findVersionById(otherDraft.getId()).orElseThrow());
+        assertEquals(ApplicationStatus.SUBMITTED, store().save(otherType).getStatus());
+
+        // and once the first is back to draft, the other may be submitted
+        AccountApplication rejected = store().findById(submittedId).orElseThrow();
+        rejected.setStatus(ApplicationStatus.DRAFT);
+        store().save(rejected);
+        AccountApplication retry = store().findById(otherDraft.getId()).orElseThrow();
+        retry.setStatus(ApplicationStatus.SUBMITTED);
+        assertEquals(ApplicationStatus.SUBMITTED, store().save(retry).getStatus());
+    }
+
+    private static List<UUID> ids(List<ApplicantMatch> matches) {
+        return matches.stream().map(ApplicantMatch::id).toList();
+    }
+
+    private static AccountApplication draft(String name) {
+        AccountApplication application = new AccountApplication();
+        application.setName(name);
+        application.setAccountType(AccountType.SAVINGS);
+        application.setAddress(new Address("Main St", "1", "1000 AA", "Amsterdam"));
+        assertNull(application.getId());
+        assertFalse(name.isEmpty());
+        return application;
+    }
+}
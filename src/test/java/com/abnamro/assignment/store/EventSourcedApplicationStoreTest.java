@@ -0,0 +1,187 @@
+package com.abnamro.assignment.store;
+
+import com.abnamro.assignment.config.EventSourcedStoreProperties;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.Address;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventSourcedApplicationStoreTest extends ApplicationStoreContractTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+    @TempDir
+    Path directory;
+
+    private EventSourcedStoreProperties properties;
+    private EventSourcedApplicationStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EventSourcedStoreProperties();
+        properties.setDirectory(directory);
+        properties.setFsync(false);
+        properties.setSegmentSize(DataSize.ofKilobytes(64));
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.stop();
+    }
+
+    @Override
+    protected ApplicationStore store() {
+        return store;
+    }
+
+    @Test
+    void start_ShouldReplayEventLog_WhenNoSnapshotWasWritten() {
+        // given
+        AccountApplication application = store.save(application("Alice"));
+        application.setEmail("alice@example.com");
+        application = store.save(application);
+        application.setStatus(ApplicationStatus.COMPLETED);
+        application.setAddress(null);
+        AccountApplication saved = store.save(application);
+
+        // when
+        EventSourcedApplicationStore restarted = open();
+
+        // then
+        assertEquals(saved, restarted.findById(saved.getId()).orElseThrow());
+        assertEquals(1, restarted.size());
+    }
+
+    @Test
+    void start_ShouldReplayEventsAfterSnapshot() {
+        // given
+        AccountApplication alice = store.save(application("Alice"));
+        store.snapshot();
+        alice.setName("Alicia");
+        AccountApplication renamed = store.save(alice);
+        AccountApplication bob = store.save(application("Bob"));
+
+        // when
+        EventSourcedApplicationStore restarted = open();
+
+        // then
+        assertEquals(renamed, restarted.findById(alice.getId()).orElseThrow());
+        assertEquals(bob, restarted.findById(bob.getId()).orElseThrow());
+        assertEquals(List.of(alice.getId(), bob.getId()),
+                restarted.findIdsByStatusUpdatedBefore(ApplicationStatus.DRAFT, bob.getUpdatedAt().plusSeconds(1), 10));
+    }
+
+    @Test
+    void start_ShouldReplayDeletions() {
+        // given
+        AccountApplication alice = store.save(application("Alice"));
+        AccountApplication bob = store.save(application("Bob"));
+        store.snapshot();
+        AccountApplication carol = store.save(application("Carol"));
+        Instant cutoff = carol.getUpdatedAt().plusSeconds(1);
+
+        // when
+        store.deleteByStatusUpdatedBefore(List.of(alice.getId(), carol.getId()), ApplicationStatus.DRAFT, cutoff);
+        EventSourcedApplicationStore restarted = open();
+
+        // then
+        assertEquals(1, restarted.size());
+        assertEquals(bob, restarted.findById(bob.getId()).orElseThrow());
+        assertNull(store.history(alice.getId()).get(1).changes());
+    }
+
+    @Test
+    void start_ShouldReplaySegmentsRolledOverAndDeleteThemAfterSnapshot_WhenNotRetained() throws Exception {
+        // given
+        properties.setRetainSegments(false);
+        store.stop();
+        store = open();
+        AccountApplication application = store.save(application("Alice"));
+        for (int i = 0; i < 300; i++) {
+            application.setName("Alice " + "x".repeat(200) + i);
+            application = store.save(application);
+        }
+        assertTrue(segments() > 1);
+
+        // when
+        store.snapshot();
+        EventSourcedApplicationStore restarted = open();
+
+        // then
+        assertEquals(1, segments());
+        assertEquals(application, restarted.findById(application.getId()).orElseThrow());
+    }
+
+    @Test
+    void history_ShouldReturnChangedPropertiesPerVersion() {
+        // given
+        AccountApplication application = store.save(application("Alice"));
+        UUID other = store.save(application("Bob")).getId();
+        application.setEmail("alice@example.com");
+        application = store.save(application);
+        store.save(application);
+
+        // when
+        List<ApplicationChangeEvent> history = store.history(application.getId());
+
+        // then
+        assertEquals(List.of(0L, 1L), history.stream().map(ApplicationChangeEvent::version).toList());
+        assertEquals("Alice", history.get(0).changes().get("name").asText());
+        assertTrue(history.get(0).changes().has("address"));
+        assertEquals(1, history.get(1).changes().size());
+        assertEquals("alice@example.com", history.get(1).changes().get("email").asText());
+        assertEquals(application.getUpdatedAt(), history.get(1).at());
+        assertEquals(1, store.history(other).size());
+        assertTrue(store.history(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void saveAll_ShouldRecordOneLogRecord() {
+        // when
+        List<AccountApplication> saved = store.saveAll(List.of(application("Alice"), application("Bob")));
+
+        // then
+        long sequence = store.history(saved.get(0).getId()).get(0).sequence();
+        assertEquals(sequence, store.history(saved.get(1).getId()).get(0).sequence());
+        assertFalse(store.history(saved.get(1).getId()).isEmpty());
+    }
+
+    private EventSourcedApplicationStore open() {
+        EventSourcedApplicationStore opened = new EventSourcedApplicationStore(properties, objectMapper);
+        opened.start();
+        return opened;
+    }
+
+    private long segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".log")).count();
+        }
+    }
+
+    private static AccountApplication application(String name) {
+        AccountApplication application = new AccountApplication();
+        application.setName(name);
+        application.setAddress(new Address("Main St", "1", "1000 AA", "Amsterdam"));
+        return application;
+    }
+}
@@ -0,0 +1,68 @@
+package com.abnamro.assignment.store;
+
+import com.abnamro.assignment.api.model.ApplicationCreateRequest;
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
+import com.abnamro.assignment.service.OnboardingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:event-sourced-profile-test",
+        "onboarding.store.event-sourced.fsync=false"
+})
+@ActiveProfiles({"test", EventSourcedApplicationStore.PROFILE})
+@AutoConfigureMockMvc
+class EventSourcedProfileIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OnboardingService onboardingService;
+
+    @DynamicPropertySource
+    static void directory(DynamicPropertyRegistry registry) {
+        registry.add("onboarding.store.event-sourced.directory", () -> {
+            try {
+                return Files.createTempDirectory("event-store").toString();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Test
+    void getApplicationHistory_ShouldListChanges() throws Exception {
+        // given
+        ApplicationResponse created = onboardingService.createApplication(new ApplicationCreateRequest());
+        ApplicationUpdateRequest changes = new ApplicationUpdateRequest();
+        changes.setName("John");
+        onboardingService.updateApplication(created.getId(), changes, null);
+
+        // when/then
+        mockMvc.perform(get("/applications/{id}/history", created.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].version").value(0))
+                .andExpect(jsonPath("$[1].version").value(1))
+                .andExpect(jsonPath("$[1].changes.name").value("John"));
+        mockMvc.perform(get("/applications/{id}/history", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,57 @@
+package com.abnamro.assignment.store;
+
+import com.abnamro.assignment.config.InMemoryStoreProperties;
+import com.abnamro.assignment.model.AccountApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InMemoryApplicationStoreTest extends ApplicationStoreContractTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+    @TempDir
+    Path directory;
+
+    private InMemoryApplicationStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryApplicationStore(new InMemoryStoreProperties(), objectMapper);
+    }
+
+    @Override
+    protected ApplicationStore store() {
+        return store;
+    }
+
+    @Test
+    void snapshot_ShouldRestoreApplicationsOnStartup() {
+        // given
+        InMemoryStoreProperties properties = new InMemoryStoreProperties();
+        properties.setSnapshot(directory.resolve("applications.ndjson"));
+        InMemoryApplicationStore first = new InMemoryApplicationStore(properties, objectMapper);
+        first.start();
+        AccountApplication application = new AccountApplication();
+        application.setName("Alice");
+        AccountApplication saved = first.save(application);
+        first.stop();
+
+        // when
+        InMemoryApplicationStore second = new InMemoryApplicationStore(properties, objectMapper);
+        second.start();
+
+        // then
+        assertEquals(1, second.size());
+        assertEquals(saved, second.findById(saved.getId()).orElseThrow());
+        assertEquals(saved.getId(), second.findIdsByStatusUpdatedBefore(saved.getStatus(),
+                saved.getUpdatedAt().plusSeconds(1), 1).get(0));
+    }
+}
@@ -0,0 +1,46 @@
+package com.abnamro.assignment.store;
+
+import com.abnamro.assignment.api.model.ApplicationCreateRequest;
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
+import com.abnamro.assignment.repository.ApplicationRepository;
+import com.abnamro.assignment.service.OnboardingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:in-memory-profile-test")
+@ActiveProfiles({"test", InMemoryApplicationStore.PROFILE})
+class InMemoryProfileIntegrationTest {
+
+    @Autowired
+    private ApplicationStore store;
+
+    @Autowired
+    private OnboardingService onboardingService;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Test
+    void onboardingService_ShouldUseInMemoryStore() {
+        // given
+        ApplicationResponse created = onboardingService.createApplication(new ApplicationCreateRequest());
+        ApplicationUpdateRequest changes = new ApplicationUpdateRequest();
+        changes.setName("John");
+
+        // when
+        ApplicationResponse updated = onboardingService.updateApplication(created.getId(), changes, null);
+
+        // then
+        assertInstanceOf(InMemoryApplicationStore.class, store);
+        assertEquals(created.getVersion() + 1, updated.getVersion());
+        assertEquals("John", onboardingService.getApplication(created.getId()).getName());
+        assertTrue(applicationRepository.findById(created.getId()).isEmpty());
+    }
+}
@@ -0,0 +1,28 @@
+package com.abnamro.assignment.store;
+
+import com.abnamro.assignment.repository.ApplicationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:jpa-store-test")
+@ActiveProfiles("test")
+class JpaApplicationStoreTest extends ApplicationStoreContractTest {
+
+    @Autowired
+    private JpaApplicationStore store;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @BeforeEach
+    void setUp() {
+        applicationRepository.deleteAll();
+    }
+
+    @Override
+    protected ApplicationStore store() {
+        return store;
+    }
+}
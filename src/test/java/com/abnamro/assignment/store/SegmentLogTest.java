@@ -0,0 +1,113 @@
+package com.abnamro.assignment.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentLogTest {
+
+    private static final int SEGMENT_SIZE = 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void open_ShouldReplayRecordsAcrossSegments() {
+        // given
+        SegmentLog log = open(0, new ArrayList<>());
+        for (int i = 1; i <= 10; i++) {
+            assertEquals(i, log.append(("record " + i).getBytes(StandardCharsets.UTF_8)));
+        }
+
+        // when
+        List<String> all = new ArrayList<>();
+        SegmentLog reopened = open(0, all);
+        List<String> tail = new ArrayList<>();
+        open(7, tail);
+
+        // then
+        assertEquals(10, all.size());
+        assertEquals("1:record 1", all.get(0));
+        assertEquals(List.of("8:record 8", "9:record 9", "10:record 10"), tail);
+        assertEquals(10, reopened.lastSequence());
+    }
+
+    @Test
+    void open_ShouldDiscardTornRecord() throws IOException {
+        // given
+        SegmentLog log = open(0, new ArrayList<>());
+        log.append("first".getBytes(StandardCharsets.UTF_8));
+        log.close();
+        try (FileChannel channel = FileChannel.open(onlySegment(), StandardOpenOption.WRITE)) {
+            // A length and checksum without the payload that should follow
+            channel.write(ByteBuffer.allocate(8).putInt(5).putInt(42).flip(), 13);
+        }
+
+        // when
+        List<String> replayed = new ArrayList<>();
+        SegmentLog reopened = open(0, replayed);
+        reopened.append("second".getBytes(StandardCharsets.UTF_8));
+        List<String> afterAppend = new ArrayList<>();
+        open(0, afterAppend);
+
+        // then
+        assertEquals(List.of("1:first"), replayed);
+        assertEquals(List.of("1:first", "2:second"), afterAppend);
+    }
+
+    @Test
+    void append_ShouldReject_WhenRecordExceedsSegment() {
+        // given
+        SegmentLog log = open(0, new ArrayList<>());
+
+        // when/then
+        assertThrows(IllegalArgumentException.class, () -> log.append(new byte[SEGMENT_SIZE]));
+    }
+
+    @Test
+    void deleteUpTo_ShouldKeepSegmentsWithLaterRecords() throws IOException {
+        // given
+        SegmentLog log = open(0, new ArrayList<>());
+        for (int i = 1; i <= 10; i++) {
+            log.append(("record " + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        // when
+        log.deleteUpTo(7);
+
+        // then
+        List<Long> remaining = new ArrayList<>();
+        log.forEach((sequence, payload) -> remaining.add(sequence));
+        assertTrue(remaining.get(0) > 1);
+        assertTrue(remaining.get(0) <= 8);
+        assertEquals(List.of(8L, 9L, 10L), remaining.subList(remaining.size() - 3, remaining.size()));
+        assertThrows(IllegalStateException.class, () -> open(0, new ArrayList<>()));
+    }
+
+    private SegmentLog open(long after, List<String> replayed) {
+        SegmentLog log = new SegmentLog(directory, SEGMENT_SIZE, false);
+        log.open(after, (sequence, payload) -> replayed.add(sequence + ":" + new String(payload,
+                StandardCharsets.UTF_8)));
+        return log;
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.abnamro.assignment.submission;
+
+import com.abnamro.assignment.exception.ApplicationValidationException;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.AccountType;
+import com.abnamro.assignment.model.Address;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.repository.ApplicationRepository;
+import com.abnamro.assignment.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.validation.MapBindingResult;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Own database, so the relays and workers of other cached test contexts stay out of the way
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:async-submission-test",
+        "onboarding.outbox.relay-enabled=false",
+        "onboarding.submit.mode=async",
+        "onboarding.submit.workers=1",
+        "onboarding.submit.queue-capacity=1"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class AsyncSubmissionIntegrationTest {
+
+    private static volatile CountDownLatch release;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private SubmissionProcessor processor;
+
+    @TestConfiguration
+    static class Checks {
+
+        /**
+         * Rejects "Fraudster" and holds "Slow" until released.
+         */
+        @Bean
+        SubmissionCheck testCheck() {
+            return application -> {
+                if ("Fraudster".equals(application.getName())) {
+                    MapBindingResult errors = new MapBindingResult(new HashMap<>(), "accountApplication");
+                    errors.rejectValue("name", "fraud", "Failed the fraud check");
+                    throw new ApplicationValidationException(errors);
+                }
+                if ("Slow".equals(application.getName())) {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    void submitApplication_ShouldAccept_AndCompleteInBackground() throws Exception {
+        // given
+        UUID id = validDraft("Async Test User");
+
+        // when
+        mockMvc.perform(post("/applications/{id}/submit", id))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/applications/" + id))
+                .andExpect(jsonPath("$.status").value("SUBMITTED"));
+
+        // then
+        awaitStatus(id, ApplicationStatus.COMPLETED);
+        mockMvc.perform(get("/applications/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+        assertEquals(1, outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateId().equals(id)).count());
+    }
+
+    @Test
+    void submitApplication_ShouldReturnToDraft_WhenCheckRejects() throws Exception {
+        // given
+        UUID id = validDraft("Fraudster");
+
+        // when
+        mockMvc.perform(post("/applications/{id}/submit", id))
+                .andExpect(status().isAccepted());
+
+        // then
+        awaitStatus(id, ApplicationStatus.DRAFT);
+    }
+
+    @Test
+    void submitApplication_ShouldReturn503_WhenQueueIsFull() throws Exception {
+        // given
+        UUID running = validDraft("Slow");
+        UUID queued = validDraft("Slow");
+        UUID rejected = validDraft("Slow");
+        mockMvc.perform(post("/applications/{id}/submit", running)).andExpect(status().isAccepted());
+        waitUntilPickedUp();
+        mockMvc.perform(post("/applications/{id}/submit", queued)).andExpect(status().isAccepted());
+
+        // when/then
+        mockMvc.perform(post("/applications/{id}/submit", rejected))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+        assertEquals(ApplicationStatus.DRAFT, applicationRepository.findById(rejected).orElseThrow().getStatus());
+        mockMvc.perform(post("/applications/{id}/submit", queued))
+                .andExpect(status().isConflict());
+
+        release.countDown();
+        awaitStatus(running, ApplicationStatus.COMPLETED);
+        awaitStatus(queued, ApplicationStatus.COMPLETED);
+    }
+
+    private void waitUntilPickedUp() throws InterruptedException {
+        for (int i = 0; i < 100 && processor.queueDepth() > 0; i++) {
+            Thread.sleep(50);
+        }
+    }
+
+    private void awaitStatus(UUID id, ApplicationStatus expected) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            if (applicationRepository.findById(id).orElseThrow().getStatus() == expected) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("Application " + id + " did not reach " + expected);
+    }
+
+    private UUID validDraft(String name) {
+        AccountApplication application = new AccountApplication();
+        application.setName(name);
+        application.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        application.setAccountType(AccountType.SAVINGS);
+        application.setIdDocument("ID" + UUID.randomUUID());
+        application.setAddress(new Address("Main St", "1", "1000 AA", "Amsterdam"));
+        return applicationRepository.save(application).getId();
+    }
+}
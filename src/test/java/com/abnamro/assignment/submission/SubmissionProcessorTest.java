@@ -0,0 +1,92 @@
+package com.abnamro.assignment.submission;
+
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.cache.ApplicationResponseCache;
+import com.abnamro.assignment.config.ApplicationCacheProperties;
+import com.abnamro.assignment.config.SubmitProperties;
+import com.abnamro.assignment.mapper.ApplicationMapper;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.model.ApplicationStatus;
+import com.abnamro.assignment.outbox.ApplicationEventOutbox;
+import com.abnamro.assignment.store.ApplicationStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SubmissionProcessorTest {
+
+    @Mock
+    private ApplicationStore store;
+
+    @Mock
+    private ApplicationEventOutbox outbox;
+
+    @Mock
+    private ObjectProvider<SubmissionCheck> checks;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SubmissionProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        processor = new SubmissionProcessor(new SubmitProperties(), store, new ApplicationMapper(),
+                new ApplicationResponseCache(new ApplicationCacheProperties(), meterRegistry), outbox,
+                TransactionOperations.withoutTransaction(), checks, meterRegistry);
+    }
+
+    @Test
+    void completeLeftovers_ShouldCompleteSubmittedApplicationsInline_AndKeepFailedOnesSubmitted() {
+        // given
+        AccountApplication completes = submitted();
+        AccountApplication fails = submitted();
+        Instant cutoff = Instant.now();
+        when(checks.orderedStream()).thenAnswer(invocation -> Stream.empty());
+        when(store.findIdsByStatusUpdatedBefore(ApplicationStatus.SUBMITTED, cutoff, 100))
+                .thenReturn(List.of(fails.getId(), completes.getId()));
+        when(store.findById(completes.getId())).thenReturn(Optional.of(completes));
+        when(store.findById(fails.getId())).thenReturn(Optional.of(fails));
+        when(store.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new IllegalStateException("Outbox unavailable")).when(outbox)
+                .applicationSubmitted(argThat((ApplicationResponse response) -> fails.getId().equals(response.getId())));
+
+        // when
+        processor.completeLeftovers(cutoff);
+
+        // then
+        assertEquals(ApplicationStatus.COMPLETED, completes.getStatus());
+        verify(outbox, times(2)).applicationSubmitted(any());
+        verify(store, times(1)).findIdsByStatusUpdatedBefore(any(), any(), anyInt());
+        assertEquals(1, meterRegistry.counter("onboarding.submit.processed", "result", "completed").count());
+        assertEquals(1, meterRegistry.counter("onboarding.submit.processed", "result", "failed").count());
+    }
+
+    private static AccountApplication submitted() {
+        AccountApplication application = new AccountApplication();
+        application.setId(UUID.randomUUID());
+        application.setStatus(ApplicationStatus.SUBMITTED);
+        application.setName("Jane Doe");
+        return application;
+    }
+}
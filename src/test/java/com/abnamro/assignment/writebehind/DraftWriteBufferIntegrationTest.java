@@ -0,0 +1,220 @@
+package com.abnamro.assignment.writebehind;
+
+import com.abnamro.assignment.api.model.ApplicationCreateRequest;
+import com.abnamro.assignment.api.model.ApplicationResponse;
+import com.abnamro.assignment.api.model.ApplicationUpdateRequest;
+import com.abnamro.assignment.model.AccountApplication;
+import com.abnamro.assignment.repository.ApplicationRepository;
+import com.abnamro.assignment.service.OnboardingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "onboarding.write-behind.enabled=true",
+        "onboarding.write-behind.flush-interval=1h",
+        "onboarding.write-behind.fsync=false"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class DraftWriteBufferIntegrationTest {
+
+    private static final Path JOURNAL = createTempDirectory().resolve("write-behind.journal");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OnboardingService onboardingService;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private DraftWriteBuffer writeBuffer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) {
+        registry.add("onboarding.write-behind.journal", JOURNAL::toString);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBuffer.flushAll();
+    }
+
+    @Test
+    void updateApplication_ShouldBufferChangesUntilFlushed() {
+        // given
+        ApplicationResponse created = onboardingService.createApplication(new ApplicationCreateRequest());
+
+        // when
+        onboardingService.updateApplication(created.getId(), changes("John", null), null);
+        ApplicationResponse pending = onboardingService.updateApplication(created.getId(), changes(null, "ID123"),
+                null);
+
+        // then
+        assertNull(pending.getVersion());
+        assertEquals("John", pending.getName());
+        assertEquals("ID123", onboardingService.getApplication(created.getId()).getIdDocument());
+        assertNull(applicationRepository.findById(created.getId()).orElseThrow().getName());
+        assertTrue(Files.exists(JOURNAL));
+
+        writeBuffer.flushAll();
+
+        AccountApplication stored = applicationRepository.findById(created.getId()).orElseThrow();
+        assertEquals("John", stored.getName());
+        assertEquals("ID123", stored.getIdDocument());
+        assertEquals(created.getVersion() + 1, stored.getVersion());
+        assertFalse(Files.exists(JOURNAL));
+    }
+
+    @Test
+    void getApplicationVersion_ShouldFlushPendingChanges() {
+        // given
+        ApplicationResponse created = onboardingService.createApplication(new ApplicationCreateRequest());
+        onboardingService.updateApplication(created.getId(), changes("John", null), null);
+
+        // when
+        long version = onboardingService.getApplicationVersion(created.getId());
+
+        // then
+        assertEquals(created.getVersion() + 1, version);
+        assertEquals(0, writeBuffer.size());
+    }
+
+    @Test
+    void updateApplicationViaApi_ShouldOmitETag_WhileBuffered() throws Exception {
+        // given
+        UUID id = onboardingService.createApplication(new ApplicationCreateRequest()).getId();
+
+        // when/then
+        mockMvc.perform(patch("/applications/{id}", id)
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(changes("John", null))))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.name").value("John"))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    void updateApplication_ShouldRejectConstraintViolations_BeforeBuffering() {
+        // given
+        UUID id = onboardingService.createApplication(new ApplicationCreateRequest()).getId();
+        ApplicationUpdateRequest future = new ApplicationUpdateRequest();
+        future.setDateOfBirth(LocalDate.now().plusDays(1));
+
+        // when/then
+        assertThrows(ConstraintViolationException.class, () -> onboardingService.updateApplication(id, future, null));
+        assertTrue(writeBuffer.find(id).isEmpty());
+    }
+
+    @Test
+    void flush_ShouldKeepChangesPendingAndJournaled_WhenWriteFails() throws IOException {
+        // given
+        UUID id = onboardingService.createApplication(new ApplicationCreateRequest()).getId();
+        onboardingService.updateApplication(id, changes("x".repeat(300), "ID123"), null);
+        double failures = meterRegistry.get("onboarding.write-behind.failures").counter().count();
+
+        // when
+        assertThrows(RuntimeException.class, () -> writeBuffer.flush(id));
+
+        // then
+        assertEquals(1, writeBuffer.size());
+        assertTrue(Files.readString(JOURNAL).contains("ID123"));
+        assertEquals(failures + 1, meterRegistry.get("onboarding.write-behind.failures").counter().count());
+
+        onboardingService.updateApplication(id, changes("John", null), null);
+        writeBuffer.flush(id);
+
+        AccountApplication stored = applicationRepository.findById(id).orElseThrow();
+        assertEquals("John", stored.getName());
+        assertEquals("ID123", stored.getIdDocument());
+        assertEquals(0, writeBuffer.size());
+    }
+
+    @Test
+    void flush_ShouldDiscardChanges_WhenApplicationWasDeleted() {
+        // given
+        UUID id = onboardingService.createApplication(new ApplicationCreateRequest()).getId();
+        onboardingService.updateApplication(id, changes("John", null), null);
+        applicationRepository.deleteById(id);
+        double discarded = meterRegistry.get("onboarding.write-behind.discarded").counter().count();
+
+        // when
+        writeBuffer.flush(id);
+
+        // then
+        assertEquals(0, writeBuffer.size());
+        assertTrue(applicationRepository.findById(id).isEmpty());
+        assertEquals(discarded + 1, meterRegistry.get("onboarding.write-behind.discarded").counter().count());
+    }
+
+    @Test
+    void recover_ShouldReplayJournal() throws IOException {
+        // given
+        UUID id = onboardingService.createApplication(new ApplicationCreateRequest()).getId();
+        try (DraftJournal journal = new DraftJournal(JOURNAL, objectMapper, false)) {
+            journal.append(id, changes("John", null));
+            journal.append(id, changes(null, "ID123"));
+        }
+        Files.writeString(JOURNAL, "{\"id\":", java.nio.file.StandardOpenOption.APPEND);
+
+        // when
+        writeBuffer.recover();
+
+        // then
+        AccountApplication stored = applicationRepository.findById(id).orElseThrow();
+        assertEquals("John", stored.getName());
+        assertEquals("ID123", stored.getIdDocument());
+        assertFalse(Files.exists(JOURNAL));
+    }
+
+    private static ApplicationUpdateRequest changes(String name, String idDocument) {
+        ApplicationUpdateRequest request = new ApplicationUpdateRequest();
+        request.setName(name);
+        request.setIdDocument(idDocument);
+        return request;
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("write-behind");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}